@@ -0,0 +1,57 @@
+package com.efluid.tcbc.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.efluid.tcbc.TestControleByteCode;
+import com.efluid.tcbc.object.*;
+import com.efluid.tcbc.process.BilanControleByteCode;
+
+/**
+ * Bilan du contrôle du byte code ({@link BilanControleByteCode}) sur des jars en erreur générés.
+ * <p>
+ * Les logs sont désactivés : seule l'agrégation des erreurs est mesurée, pas leur écriture.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=off")
+public class BilanBenchmark {
+
+  private static final int NB_ERREURS_PAR_CLASSE = 3;
+
+  @Param({ "20" })
+  private int nbJars;
+
+  /* Nombre de classes en erreur par jar */
+  @Param({ "100" })
+  private int nbClasses;
+
+  private TestControleByteCode controle;
+
+  @Setup
+  public void generer() {
+    controle = new TestControleByteCode();
+    for (int numeroJar = 0; numeroJar < nbJars; numeroJar++) {
+      Jar jar = new Jar("dependance" + numeroJar + ".jar");
+      for (int numeroClasse = 0; numeroClasse < nbClasses; numeroClasse++) {
+        String nomClasse = "com.efluid.fixture.module" + numeroJar + ".Classe" + numeroClasse;
+        Fichier fichier = jar.addToClassesEnErreur(new Fichier(jar, nomClasse, "class"));
+        for (int numeroErreur = 0; numeroErreur < NB_ERREURS_PAR_CLASSE; numeroErreur++) {
+          fichier.addErreur(new Erreur(TypeErreur.CHARGEMENT_CLASSE, "com.efluid.absente.Classe" + numeroErreur, null, null,
+            "Classe non trouvée : com.efluid.absente.Classe" + numeroErreur + " - " + nomClasse));
+        }
+        jar.addClasseReferenceeNonTrouvee("com.efluid.absente.Classe" + numeroClasse, "Classe non trouvée : com.efluid.absente.Classe" + numeroClasse);
+      }
+      controle.getJarsTraites().add(jar);
+    }
+  }
+
+  @Benchmark
+  public int bilan() {
+    return new BilanControleByteCode(controle).execute();
+  }
+}
@@ -0,0 +1,76 @@
+package com.efluid.tcbc.benchmark;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.efluid.tcbc.TestControleByteCode;
+import javassist.CannotCompileException;
+
+/**
+ * Contrôle complet du byte code d'un classpath généré : parcours, lecture des classes, résolution des méthodes référencées et bilan.
+ * <p>
+ * Les classes générées ne sont pas dans le classpath de la JVM : seule la résolution par index (-Dresolution=index) est mesurée, la résolution par
+ * réflexion ne trouverait aucune d'entre elles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=off")
+public class ControleByteCodeBenchmark {
+
+  @Param({ "20" })
+  private int nbJars;
+
+  @Param({ "500" })
+  private int nbClasses;
+
+  @Param({ "constantPool", "javassist" })
+  private String lecteurByteCode;
+
+  @Param({ "jarFile", "mappe" })
+  private String lecteurJar;
+
+  private FixtureClasspath fixture;
+
+  @Setup
+  public void generer() throws IOException, CannotCompileException {
+    fixture = FixtureClasspath.generer(nbJars, nbClasses);
+    System.setProperty("classpath", String.join(File.pathSeparator, fixture.getClasspath()));
+    System.setProperty("resolution", "index");
+    System.setProperty("lecteurByteCode", lecteurByteCode);
+    System.setProperty("lecteurJar", lecteurJar);
+  }
+
+  @TearDown
+  public void supprimer() throws IOException {
+    fixture.close();
+  }
+
+  @Benchmark
+  public int controler() {
+    ControleSansValidation controle = new ControleSansValidation();
+    controle.init();
+    controle.execute();
+    return controle.getJarsTraites().size();
+  }
+
+  /**
+   * Contrôle dont le résultat n'est pas validé : seul le temps d'exécution importe
+   */
+  public static class ControleSansValidation extends TestControleByteCode {
+
+    @Override
+    protected boolean isScanneRepertoireClasses() {
+      return true;
+    }
+
+    @Override
+    protected void isValid(int erreurs) {
+      /* Aucune validation */
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.efluid.tcbc.benchmark;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.efluid.tcbc.utils.FiltreSousChaines;
+
+/**
+ * Compare la recherche des exclusions par boucle (<code>toLowerCase().contains()</code> pour chaque filtre, implémentation historique de
+ * <code>ScanneClasspath.isExclu</code>) et par le {@link FiltreSousChaines}.
+ * <p>
+ * Les filtres et libellés d'erreurs sont générés sur le modèle de ceux rencontrés lors d'un scan (noms de classes qualifiés).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FiltreSousChainesBenchmark {
+
+  @Param({ "10", "300" })
+  private int nbFiltres;
+
+  private List<String> filtres;
+  private FiltreSousChaines filtre;
+  private List<String> libelles;
+
+  @Setup
+  public void generer() {
+    Random random = new Random(42);
+    filtres = new ArrayList<>();
+    for (int i = 0; i < nbFiltres; i++) {
+      filtres.add("com.Societe.module" + random.nextInt(1000) + ".Classe" + i);
+    }
+    filtre = new FiltreSousChaines(filtres);
+    libelles = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      String classe = i % 10 == 0 ? filtres.get(random.nextInt(nbFiltres)) : "org.apache.module" + random.nextInt(1000) + ".Classe" + i;
+      libelles.add(classe + "#methode - java.lang.ClassNotFoundException: " + classe);
+    }
+  }
+
+  @Benchmark
+  public int boucle() {
+    int exclus = 0;
+    for (String libelle : libelles) {
+      for (String exclusion : filtres) {
+        if (libelle.toLowerCase().contains(exclusion.toLowerCase())) {
+          exclus++;
+          break;
+        }
+      }
+    }
+    return exclus;
+  }
+
+  @Benchmark
+  public int automate() {
+    int exclus = 0;
+    for (String libelle : libelles) {
+      if (filtre.isTrouve(libelle)) {
+        exclus++;
+      }
+    }
+    return exclus;
+  }
+}
@@ -0,0 +1,130 @@
+package com.efluid.tcbc.benchmark;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.jar.*;
+import java.util.stream.*;
+
+import javassist.*;
+
+/**
+ * Classpath généré pour les benchmarks : des jars et un répertoire classes dont les classes appellent des méthodes du JDK et des classes des
+ * jars précédents, comme une application et ses dépendances.
+ * <p>
+ * La taille est paramétrable (nombre de jars, nombre de classes par jar) ; la génération est déterministe.
+ */
+public final class FixtureClasspath implements Closeable {
+
+  private static final int NB_METHODES = 5;
+
+  private final Path repertoire;
+  private final List<String> jars = new ArrayList<>();
+  private final String repertoireClasses;
+  /* Byte code de toutes les classes générées */
+  private final List<byte[]> classes = new ArrayList<>();
+  private final List<String> nomsClasses = new ArrayList<>();
+
+  private FixtureClasspath(Path repertoire) {
+    this.repertoire = repertoire;
+    this.repertoireClasses = repertoire.resolve("classes").toString();
+  }
+
+  /**
+   * Génère nbJars jars et un répertoire classes contenant chacun nbClasses classes
+   */
+  public static FixtureClasspath generer(int nbJars, int nbClasses) throws IOException, CannotCompileException {
+    FixtureClasspath fixture = new FixtureClasspath(Files.createTempDirectory("tcbc-fixture"));
+    ClassPool pool = new ClassPool(true);
+    for (int numeroJar = 0; numeroJar <= nbJars; numeroJar++) {
+      Map<String, byte[]> classesJar = new LinkedHashMap<>();
+      for (int numeroClasse = 0; numeroClasse < nbClasses; numeroClasse++) {
+        CtClass classe = genererClasse(pool, numeroJar, numeroClasse);
+        classesJar.put(classe.getName().replace('.', '/') + ".class", classe.toBytecode());
+        fixture.nomsClasses.add(classe.getName());
+      }
+      fixture.classes.addAll(classesJar.values());
+      if (numeroJar < nbJars) {
+        fixture.jars.add(fixture.ecrireJar("dependance" + numeroJar + ".jar", classesJar));
+      } else {
+        fixture.ecrireRepertoire(classesJar);
+      }
+    }
+    return fixture;
+  }
+
+  /**
+   * Chaque méthode appelle des méthodes du JDK et la même méthode d'une classe du jar précédent
+   */
+  private static CtClass genererClasse(ClassPool pool, int numeroJar, int numeroClasse) throws CannotCompileException {
+    CtClass classe = pool.makeClass(getNomClasse(numeroJar, numeroClasse));
+    for (int numeroMethode = 0; numeroMethode < NB_METHODES; numeroMethode++) {
+      StringBuilder corps = new StringBuilder("public int m" + numeroMethode + "(java.util.List liste, String texte) { int total = liste.size() + texte.trim().length()"
+        + " + String.valueOf(" + numeroMethode + ").length() + java.util.Collections.emptyList().size()");
+      if (numeroJar > 0) {
+        corps.append(" + new ").append(getNomClasse(numeroJar - 1, numeroClasse)).append("().m").append(numeroMethode).append("(liste, texte)");
+      }
+      corps.append("; return total; }");
+      classe.addMethod(CtNewMethod.make(corps.toString(), classe));
+    }
+    return classe;
+  }
+
+  private static String getNomClasse(int numeroJar, int numeroClasse) {
+    return "com.efluid.fixture.module" + numeroJar + ".Classe" + numeroClasse;
+  }
+
+  private String ecrireJar(String nom, Map<String, byte[]> classesJar) throws IOException {
+    Path jar = repertoire.resolve(nom);
+    try (JarOutputStream sortie = new JarOutputStream(Files.newOutputStream(jar))) {
+      for (Map.Entry<String, byte[]> classe : classesJar.entrySet()) {
+        sortie.putNextEntry(new JarEntry(classe.getKey()));
+        sortie.write(classe.getValue());
+        sortie.closeEntry();
+      }
+    }
+    return jar.toString();
+  }
+
+  private void ecrireRepertoire(Map<String, byte[]> classesRepertoire) throws IOException {
+    for (Map.Entry<String, byte[]> classe : classesRepertoire.entrySet()) {
+      Path fichier = Paths.get(repertoireClasses, classe.getKey());
+      Files.createDirectories(fichier.getParent());
+      Files.write(fichier, classe.getValue());
+    }
+  }
+
+  public List<String> getJars() {
+    return jars;
+  }
+
+  public String getRepertoireClasses() {
+    return repertoireClasses;
+  }
+
+  /**
+   * @return les jars puis le répertoire classes
+   */
+  public String[] getClasspath() {
+    List<String> classpath = new ArrayList<>(jars);
+    classpath.add(repertoireClasses);
+    return classpath.toArray(new String[0]);
+  }
+
+  public List<byte[]> getClasses() {
+    return classes;
+  }
+
+  public List<String> getNomsClasses() {
+    return nomsClasses;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try (Stream<Path> fichiers = Files.walk(repertoire)) {
+      for (Path fichier : fichiers.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(fichier);
+      }
+    }
+  }
+}
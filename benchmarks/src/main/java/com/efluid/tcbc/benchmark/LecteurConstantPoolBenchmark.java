@@ -0,0 +1,92 @@
+package com.efluid.tcbc.benchmark;
+
+import static javassist.bytecode.ConstPool.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.efluid.tcbc.process.LecteurConstantPool;
+import javassist.CannotCompileException;
+import javassist.bytecode.*;
+
+/**
+ * Compare la lecture du constant pool par javassist (ClassFile complet) et par le {@link LecteurConstantPool}.
+ * <p>
+ * Les classes lues sont celles d'un classpath généré, chargées en mémoire une fois pour toutes : seul le parsing est mesuré.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LecteurConstantPoolBenchmark {
+
+  @Param({ "20" })
+  private int nbJars;
+
+  @Param({ "500" })
+  private int nbClasses;
+
+  private List<byte[]> classes;
+  private LecteurConstantPool lecteur;
+
+  @Setup
+  public void chargerClasses() throws IOException, CannotCompileException {
+    lecteur = new LecteurConstantPool();
+    try (FixtureClasspath fixture = FixtureClasspath.generer(nbJars, nbClasses)) {
+      classes = fixture.getClasses();
+    }
+  }
+
+  @Benchmark
+  public void javassist(Blackhole blackhole) throws IOException {
+    for (byte[] classe : classes) {
+      ConstPool constantPool = new ClassFile(new DataInputStream(new ByteArrayInputStream(classe))).getConstPool();
+      for (int index = 1; index < constantPool.getSize(); index++) {
+        switch (constantPool.getTag(index)) {
+          case CONST_Methodref:
+            blackhole.consume(constantPool.getMethodrefClassName(index));
+            blackhole.consume(constantPool.getMethodrefName(index));
+            blackhole.consume(constantPool.getMethodrefType(index));
+            break;
+          case CONST_InterfaceMethodref:
+            blackhole.consume(constantPool.getInterfaceMethodrefClassName(index));
+            blackhole.consume(constantPool.getInterfaceMethodrefName(index));
+            blackhole.consume(constantPool.getInterfaceMethodrefType(index));
+            break;
+          case CONST_InvokeDynamic:
+            blackhole.consume(constantPool.getInvokeDynamicType(index));
+            break;
+          default:
+            break;
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public void lecteurConstantPool(final Blackhole blackhole) {
+    LecteurConstantPool.Visiteur visiteur = new LecteurConstantPool.Visiteur() {
+
+      @Override
+      public void methode(String classe, String nom, String descripteur, boolean methodeInterface) {
+        blackhole.consume(classe);
+        blackhole.consume(nom);
+        blackhole.consume(descripteur);
+      }
+
+      @Override
+      public void invokeDynamic(String descripteur) {
+        blackhole.consume(descripteur);
+      }
+    };
+    for (byte[] classe : classes) {
+      lecteur.lire(classe, classe.length, visiteur);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.efluid.tcbc.benchmark;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.efluid.tcbc.process.*;
+import javassist.CannotCompileException;
+
+/**
+ * Lecture et chargement de chaque classe des jars : le chargeur recherche la classe dans le classpath et décompresse son entrée, puis le lecteur
+ * de constant pool décompresse à nouveau l'entrée (deux lectures), ou l'entrée est décompressée une seule fois dans un tampon qui alimente le
+ * lecteur et la définition de la classe (lecture unique).
+ * <p>
+ * Un nouveau chargeur est créé à chaque invocation : toutes les classes sont chargées à chaque fois.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LectureUniqueBenchmark {
+
+  @Param({ "5" })
+  private int nbJars;
+
+  @Param({ "200" })
+  private int nbClasses;
+
+  private FixtureClasspath fixture;
+  private final List<JarFile> jars = new ArrayList<>();
+  private final LecteurConstantPool lecteur = new LecteurConstantPool();
+  private final ContenuFichier contenu = new ContenuFichier();
+  private ChargeurClasspath chargeurClasspath;
+
+  @Setup
+  public void generer() throws IOException, CannotCompileException {
+    fixture = FixtureClasspath.generer(nbJars, nbClasses);
+    for (String jar : fixture.getJars()) {
+      jars.add(new JarFile(jar));
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void creerChargeur() {
+    chargeurClasspath = new ChargeurClasspath(fixture.getClasspath(), 0, 0, 0);
+  }
+
+  @TearDown(Level.Invocation)
+  public void fermerChargeur() {
+    chargeurClasspath.close();
+  }
+
+  @TearDown
+  public void supprimer() throws IOException {
+    for (JarFile jar : jars) {
+      jar.close();
+    }
+    fixture.close();
+  }
+
+  @Benchmark
+  public void deuxLectures(Blackhole blackhole) throws IOException, ClassNotFoundException {
+    try (ChargeurClasspath.Chargeur chargeur = chargeurClasspath.acquerir()) {
+      for (JarFile jar : jars) {
+        for (Enumeration<JarEntry> entrees = jar.entries(); entrees.hasMoreElements();) {
+          JarEntry entree = entrees.nextElement();
+          blackhole.consume(chargeur.charger(getNomClasse(entree)));
+          try (InputStream is = jar.getInputStream(entree)) {
+            contenu.lire(is);
+          }
+          lire(blackhole);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public void lectureUnique(Blackhole blackhole) throws IOException, ClassNotFoundException {
+    try (ChargeurClasspath.Chargeur chargeur = chargeurClasspath.acquerir()) {
+      for (JarFile jar : jars) {
+        for (Enumeration<JarEntry> entrees = jar.entries(); entrees.hasMoreElements();) {
+          JarEntry entree = entrees.nextElement();
+          try (InputStream is = jar.getInputStream(entree)) {
+            contenu.lire(is);
+          }
+          blackhole.consume(chargeur.definir(getNomClasse(entree), contenu));
+          lire(blackhole);
+        }
+      }
+    }
+  }
+
+  private void lire(Blackhole blackhole) {
+    lecteur.lire(contenu.getOctets(), new LecteurConstantPool.Visiteur() {
+
+      @Override
+      public void methode(String classe, String nom, String descripteur, boolean methodeInterface) {
+        blackhole.consume(nom);
+      }
+
+      @Override
+      public void invokeDynamic(String descripteur) {
+        blackhole.consume(descripteur);
+      }
+    });
+  }
+
+  private static String getNomClasse(JarEntry entree) {
+    String nom = entree.getName();
+    return nom.substring(0, nom.length() - ".class".length()).replace('/', '.');
+  }
+}
@@ -0,0 +1,78 @@
+package com.efluid.tcbc.benchmark;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.efluid.tcbc.object.*;
+import com.efluid.tcbc.process.CurseurEntree;
+
+/**
+ * Compare le nommage des entrées de jar par chaînes (implémentation historique de <code>ScanneClasspath.scannerJar</code> : extension extraite
+ * deux fois, <code>replace</code> puis suppression de l'extension, fichier créé avec sa liste d'erreurs) et par le {@link CurseurEntree}.
+ * <p>
+ * A lancer avec le profileur d'allocations pour comparer les octets alloués par entrée (<code>gc.alloc.rate.norm</code>) :
+ * <code>java -jar target/benchmarks.jar NomsEntreesBenchmark -prof gc</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NomsEntreesBenchmark {
+
+  @Param({ "1000" })
+  private int nbEntrees;
+
+  private final Set<String> extensions = new HashSet<>(Arrays.asList("class", "properties"));
+  private final Jar jar = new Jar("dependance.jar");
+  private final CurseurEntree curseur = new CurseurEntree();
+  private List<String> entrees;
+
+  /**
+   * Une entrée sur cinq n'est pas scannée (répertoire, manifeste, ressource)
+   */
+  @Setup
+  public void generer() {
+    Random random = new Random(42);
+    String[] nonScannees = { "com/efluid/fixture/", "META-INF/MANIFEST.MF", "com/efluid/fixture/page.html" };
+    entrees = new ArrayList<>();
+    for (int i = 0; i < nbEntrees; i++) {
+      entrees.add(i % 5 == 0 ? nonScannees[random.nextInt(nonScannees.length)] : "com/efluid/fixture/module" + random.nextInt(50) + "/Classe" + i + ".class");
+    }
+  }
+
+  @Benchmark
+  public void chaines(Blackhole blackhole) {
+    for (String entree : entrees) {
+      String extension = getExtension(entree);
+      if (extensions.contains(extension)) {
+        blackhole.consume(new Fichier(jar, removeExtension(entree.replace("/", ".")), getExtension(entree)));
+        blackhole.consume(new ArrayList<Erreur>());
+      }
+    }
+  }
+
+  @Benchmark
+  public void curseur(Blackhole blackhole) {
+    for (String entree : entrees) {
+      if (curseur.positionner(entree, extensions)) {
+        blackhole.consume(new Fichier(jar, curseur.getNom(), curseur.getExtension()));
+      }
+    }
+  }
+
+  private static String removeExtension(String str) {
+    if (str.isEmpty() || !str.contains(".")) {
+      return str;
+    }
+    return str.substring(0, str.lastIndexOf("."));
+  }
+
+  private static String getExtension(String nomFichier) {
+    return !nomFichier.isEmpty() && nomFichier.contains(".") ? nomFichier.substring(nomFichier.indexOf(".") + 1) : "";
+  }
+}
@@ -0,0 +1,87 @@
+package com.efluid.tcbc.benchmark;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.efluid.tcbc.process.ScanneClasspath;
+import javassist.CannotCompileException;
+
+/**
+ * Parcours du classpath par {@link ScanneClasspath} sans traitement des fichiers : énumération des entrées des jars et parcours du répertoire
+ * classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=off")
+public class ParcoursClasspathBenchmark {
+
+  @Param({ "20" })
+  private int nbJars;
+
+  @Param({ "500" })
+  private int nbClasses;
+
+  private FixtureClasspath fixture;
+
+  @Setup
+  public void generer() throws IOException, CannotCompileException {
+    fixture = FixtureClasspath.generer(nbJars, nbClasses);
+  }
+
+  @TearDown
+  public void supprimer() throws IOException {
+    fixture.close();
+  }
+
+  @Benchmark
+  public int enumererJars() {
+    return parcourir(String.join(File.pathSeparator, fixture.getJars()));
+  }
+
+  @Benchmark
+  public int parcourirRepertoireClasses() {
+    return parcourir(fixture.getRepertoireClasses());
+  }
+
+  private static int parcourir(String classpath) {
+    System.setProperty("classpath", classpath);
+    ParcoursSeul parcours = new ParcoursSeul();
+    parcours.init();
+    parcours.execute();
+    return parcours.nbFichiers.get();
+  }
+
+  /**
+   * Scan de tous les éléments du classpath, chaque fichier est seulement compté
+   */
+  public static class ParcoursSeul extends ScanneClasspath {
+
+    private final AtomicInteger nbFichiers = new AtomicInteger();
+
+    @Override
+    protected String getFichierConfiguration() {
+      return "benchmark.yaml";
+    }
+
+    @Override
+    protected void traitementFichierEnCours() {
+      nbFichiers.incrementAndGet();
+    }
+
+    @Override
+    protected boolean scanByJarExclusion() {
+      return true;
+    }
+
+    @Override
+    protected boolean isScanneRepertoireClasses() {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.efluid.tcbc.benchmark;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.efluid.tcbc.utils.TableMethodes;
+import javassist.CannotCompileException;
+
+/**
+ * Compare la résolution des méthodes référencées par {@link TableMethodes} et par réflexion (<code>getDeclaredMethod</code> sur chaque classe
+ * mère, une NoSuchMethodException par classe ne déclarant pas la méthode).
+ * <p>
+ * Les références sont celles des classes d'un classpath généré : méthodes des classes générées, méthodes héritées de java.lang.Object et méthodes
+ * inexistantes (erreurs remontées par le contrôle).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolutionMethodeBenchmark {
+
+  private static final Class<?>[] TYPES_METHODE_GENEREE = { List.class, String.class };
+  private static final Class<?>[] TYPES_EQUALS = { Object.class };
+  private static final Class<?>[] AUCUN_TYPE = {};
+
+  @Param({ "20" })
+  private int nbJars;
+
+  @Param({ "500" })
+  private int nbClasses;
+
+  private URLClassLoader classLoader;
+  private List<Reference> references;
+
+  @Setup
+  public void charger() throws IOException, CannotCompileException, ClassNotFoundException {
+    try (FixtureClasspath fixture = FixtureClasspath.generer(nbJars, nbClasses)) {
+      List<URL> urls = new ArrayList<>();
+      for (String element : fixture.getClasspath()) {
+        urls.add(new File(element).toURI().toURL());
+      }
+      classLoader = new URLClassLoader(urls.toArray(new URL[0]), null);
+      references = new ArrayList<>();
+      for (String nomClasse : fixture.getNomsClasses()) {
+        Class<?> classe = Class.forName(nomClasse, false, classLoader);
+        references.add(new Reference(classe, "m0", TYPES_METHODE_GENEREE));
+        references.add(new Reference(classe, "equals", TYPES_EQUALS));
+        references.add(new Reference(classe, "inexistante", AUCUN_TYPE));
+      }
+    }
+  }
+
+  @TearDown
+  public void fermer() throws IOException {
+    classLoader.close();
+  }
+
+  @Benchmark
+  public void tableMethodes(Blackhole blackhole) {
+    for (Reference reference : references) {
+      blackhole.consume(TableMethodes.de(reference.classe).get(reference.nom, reference.typesParametres));
+    }
+  }
+
+  @Benchmark
+  public void reflexion(Blackhole blackhole) {
+    for (Reference reference : references) {
+      blackhole.consume(getDeclaredMethod(reference));
+    }
+  }
+
+  private static Method getDeclaredMethod(Reference reference) {
+    for (Class<?> parent = reference.classe; parent != null; parent = parent.getSuperclass()) {
+      try {
+        return parent.getDeclaredMethod(reference.nom, reference.typesParametres);
+      } catch (NoSuchMethodException ex) {
+        /* Recherche dans la classe mère */
+      }
+    }
+    return null;
+  }
+
+  private static class Reference {
+
+    private final Class<?> classe;
+    private final String nom;
+    private final Class<?>[] typesParametres;
+
+    private Reference(Class<?> classe, String nom, Class<?>[] typesParametres) {
+      this.classe = classe;
+      this.nom = nom;
+      this.typesParametres = typesParametres;
+    }
+  }
+}
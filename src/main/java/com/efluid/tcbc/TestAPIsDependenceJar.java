@@ -3,10 +3,12 @@ package com.efluid.tcbc;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.cli.*;
 import org.slf4j.*;
 
+import com.efluid.tcbc.object.Jar;
 import com.efluid.tcbc.process.AnalysisUseDependency;
 
 /**
@@ -27,6 +29,7 @@ public class TestAPIsDependenceJar extends TestControleByteCode {
   private static final Logger LOG = LoggerFactory.getLogger(TestAPIsDependenceJar.class);
 
   private static final String FICHIER_CONFIGURATION = "apisDependence.yaml";
+  private static final String RESULTATS_APIS = "apis";
 
   public static String ENV_JAR = "jar";
   public static String ENV_ERREUR = "erreur";
@@ -35,7 +38,9 @@ public class TestAPIsDependenceJar extends TestControleByteCode {
   private String libraryControl;
   /** Si le système détecte une référence au jar contrôlé, on lève une lève une exception */
   private boolean erreur = Boolean.parseBoolean(System.getProperty(ENV_ERREUR));
-  private Set<String> apis = new HashSet<>();
+  private Set<String> apis = ConcurrentHashMap.newKeySet();
+  /* Apis utilisées par chaque jar, conservées pour le cache de scan */
+  private Map<String, Set<String>> apisParJar = new ConcurrentHashMap<>();
 
   public TestAPIsDependenceJar(String jar) {
     libraryControl = isNullOrEmpty(jar) ? System.getProperty(ENV_JAR) : jar;
@@ -65,6 +70,24 @@ public class TestAPIsDependenceJar extends TestControleByteCode {
     return !pathJar.contains(libraryControl);
   }
 
+  @Override
+  protected String getConfigurationCache() {
+    return super.getConfigurationCache() + "|" + libraryControl;
+  }
+
+  @Override
+  protected void exporterResultats(Jar jar, Map<String, Object> resultats) {
+    super.exporterResultats(jar, resultats);
+    resultats.put(RESULTATS_APIS, new ArrayList<>(new TreeSet<>(apisParJar.getOrDefault(jar.getNom(), Collections.emptySet()))));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void importerResultats(Jar jar, Map<String, Object> resultats) {
+    super.importerResultats(jar, resultats);
+    ((List<String>) resultats.get(RESULTATS_APIS)).forEach(this::addApi);
+  }
+
   @Override
   protected String getFichierConfiguration() {
     return FICHIER_CONFIGURATION;
@@ -124,4 +147,14 @@ public class TestAPIsDependenceJar extends TestControleByteCode {
   public Set<String> getApis() {
     return apis;
   }
+
+  /**
+   * Ajoute une api utilisée par le jar en cours
+   */
+  public void addApi(String api) {
+    apis.add(api);
+    if (isCacheActif()) {
+      apisParJar.computeIfAbsent(getJarEnCours().getNom(), cle -> ConcurrentHashMap.newKeySet()).add(api);
+    }
+  }
 }
@@ -2,11 +2,17 @@ package com.efluid.tcbc;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.*;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 import org.slf4j.*;
 
+import com.efluid.tcbc.object.*;
 import com.efluid.tcbc.process.*;
+import javassist.ClassPool;
 
 /**
  * Classe de test JUNIT permettant de contrôler le byteCode des classes JAVA du classpath de la JVM en cours. <br>
@@ -15,6 +21,22 @@ import com.efluid.tcbc.process.*;
  * Utiliser cette d'option de JVM -XX:MaxPermSize=256m (Chargement de toutes les classes)<br>
  * <br>
  * Pour définir le nombre minimum de jar scanné il faut définir la variable d'environnement suivante "-DnbJarMinimum=2". 6 par défaut.<br>
+ * <br>
+ * Le constant pool de chaque classe est lu directement depuis son byte code. Pour utiliser javassist (ClassFile complet) : "-DlecteurByteCode=javassist".<br>
+ * En mode javassist, le byte code est lu via un ClassPool propre à chaque jar dont le cache est borné, 1000 classes par défaut : "-DtailleClassPool=500".<br>
+ * <br>
+ * Pour résoudre les méthodes référencées sans charger les classes (index du byte code du classpath), définir la variable d'environnement "-Dresolution=index".<br>
+ * <br>
+ * Pour écrire les erreurs au fil de l'eau dans un rapport JSON Lines ou SARIF (extension .sarif), définir le fichier via "-DrapportErreurs=target/erreurs.jsonl".
+ * Les erreurs ne sont alors plus conservées en mémoire (seulement comptabilisées), sauf si le cache de scan est actif.<br>
+ * <br>
+ * Une classe masquée par une copie d'un jar précédent du classpath n'est jamais utilisée au runtime : elle est listée dans le bilan avec le jar
+ * utilisé, et vérifiée avec son propre byte code. Pour ne pas la vérifier : "-DclassesMasquees=ignorer". Pour ne pas les détecter (pas d'index
+ * des origines, chaque copie est vérifiée comme si elle était celle utilisée au runtime) : "-DclassesMasquees=non".<br>
+ * <br>
+ * Les exclusions d'erreurs sont recherchées dans les noms cités par l'erreur (classe appelante, classe et méthode référencées), sans construire
+ * son libellé, puis dans son libellé. Pour ne les rechercher que dans les noms (libellé construit uniquement pour le log, les rapports et la
+ * liste des erreurs exclues) : "-DexclusionErreurs=champs".<br>
  *
  * @author Vincent BOUTHINON
  */
@@ -24,26 +46,236 @@ public class TestControleByteCode extends ScanneClasspath {
   private static final String FICHIER_CONFIGURATION = "controleByteCode.yaml";
   private static final String ENV_NOMBRE_JAR_MINIMUM = "nbJarMinimum";
   private static int nbJarMinimum = System.getProperty(ENV_NOMBRE_JAR_MINIMUM) != null ? Integer.parseInt(System.getProperty(ENV_NOMBRE_JAR_MINIMUM)) : 0;
-  /* Utilisés pour effectuer le bilan global du contrôle du byteCode */
-  private Map<String, String> classesReferenceesNonTrouveesOuChargees = new HashMap<>();
+  private static final String ENV_RESOLUTION = "resolution";
+  private static final String RESOLUTION_PAR_INDEX = "index";
+  private final boolean resolutionParIndex = RESOLUTION_PAR_INDEX.equalsIgnoreCase(System.getProperty(ENV_RESOLUTION));
+  private static final String ENV_LECTEUR_BYTE_CODE = "lecteurByteCode";
+  private static final String LECTEUR_JAVASSIST = "javassist";
+  private final boolean lecteurJavassist = LECTEUR_JAVASSIST.equalsIgnoreCase(System.getProperty(ENV_LECTEUR_BYTE_CODE));
+  private static final String RESULTATS_ERREURS = "erreurs";
+  private static final String RESULTATS_CLASSES_NON_TROUVEES = "classesNonTrouvees";
+  private static final String RESULTATS_CLASSES_MASQUEES = "classesMasquees";
+  /* Version du format des résultats conservés dans le cache de scan */
+  private static final int VERSION_RESULTATS = 3;
+  private static final String ENV_CLASSES_MASQUEES = "classesMasquees";
+  private static final String CLASSES_MASQUEES_IGNOREES = "ignorer";
+  private static final String CLASSES_MASQUEES_NON_DETECTEES = "non";
+  private final boolean classesMasqueesVerifiees = !CLASSES_MASQUEES_IGNOREES.equalsIgnoreCase(System.getProperty(ENV_CLASSES_MASQUEES));
+  private final boolean classesMasqueesDetectees = !CLASSES_MASQUEES_NON_DETECTEES.equalsIgnoreCase(System.getProperty(ENV_CLASSES_MASQUEES));
+  private static final String ENV_EXCLUSION_ERREURS = "exclusionErreurs";
+  private static final String EXCLUSION_PAR_CHAMPS = "champs";
+  private final boolean exclusionParChamps = EXCLUSION_PAR_CHAMPS.equalsIgnoreCase(System.getProperty(ENV_EXCLUSION_ERREURS));
+  private static final String ENV_RAPPORT_ERREURS = "rapportErreurs";
+  private final String fichierRapportErreurs = System.getProperty(ENV_RAPPORT_ERREURS);
+  private RapportErreurs rapportErreurs;
+  private final Map<TypeErreur, LongAdder> nombreErreursParType = new EnumMap<>(TypeErreur.class);
+  private static final String ENV_TAILLE_CLASS_POOL = "tailleClassPool";
+  private final int tailleClassPool = Integer.getInteger(ENV_TAILLE_CLASS_POOL, 1000);
+  /* ClassPool du jar en cours de scan par le thread */
+  private final ThreadLocal<ClassPool> classPool = new ThreadLocal<>();
+  /* Verdicts des méthodes référencées déjà vérifiées, partagés par tous les jars du scan */
+  private final CacheVerdicts cacheVerdicts = new CacheVerdicts();
+  /* Classes dont le chargement a échoué, elles ne sont pas rechargées */
+  private final CacheEchecsChargement cacheEchecsChargement = new CacheEchecsChargement();
 
+  /**
+   * Une classe masquée par celle d'un jar précédent du classpath est conservée dans le bilan, et n'est vérifiée que si demandé
+   */
   @Override
   protected void traitementFichierEnCours() {
+    String jarUtilise = getOrigineRuntime(getFichierEnCours().getNom());
+    if (jarUtilise != null && !jarUtilise.equals(getJarEnCours().getNom())) {
+      getJarEnCours().addClasseMasquee(getFichierEnCours().getNom(), jarUtilise);
+      if (!classesMasqueesVerifiees) {
+        enregistrerReference(getFichierEnCours().getNom());
+        return;
+      }
+    }
     new ReadByteCodeClass(this, getFichierEnCours()).execute();
   }
 
+  @Override
+  protected boolean isDetectionClassesMasquees() {
+    return classesMasqueesDetectees;
+  }
+
+  @Override
+  protected void debutTraitementJar() {
+    classPool.set(new ClassPoolBorne(tailleClassPool));
+  }
+
+  @Override
+  protected void finTraitementJar() {
+    classPool.remove();
+  }
+
+  /**
+   * @return le ClassPool du jar en cours de scan, les classes lues n'y sont conservées que dans la limite de sa capacité
+   */
+  public ClassPool getClassPool() {
+    if (classPool.get() == null) {
+      debutTraitementJar();
+    }
+    return classPool.get();
+  }
+
+  public TestControleByteCode() {
+    for (TypeErreur type : TypeErreur.values()) {
+      nombreErreursParType.put(type, new LongAdder());
+    }
+  }
+
+  @Override
+  protected void debutScan() {
+    super.debutScan();
+    if (!isNullOrEmpty(fichierRapportErreurs)) {
+      try {
+        rapportErreurs = RapportErreurs.ouvrir(Paths.get(fichierRapportErreurs));
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+  }
+
+  @Override
+  protected void finScan() {
+    super.finScan();
+    if (rapportErreurs != null) {
+      try {
+        rapportErreurs.close();
+        LOG.info("Rapport des erreurs : {}", fichierRapportErreurs);
+      } catch (IOException ex) {
+        LOG.error("Erreur lors de l'écriture du rapport {}", fichierRapportErreurs, ex);
+      }
+      rapportErreurs = null;
+    }
+  }
+
   /**
-   * Ajout d'une erreur si non exclue
+   * Ajout d'une erreur si non exclue. Elle est écrite dans le rapport des erreurs s'il est demandé, et conservée dans le fichier en cours si
+   * elle ne l'est pas ou si le cache de scan en a besoin.
    */
-  public boolean addErreur(String erreur) {
-    if (!isExclu(Exclusion.ERREUR, erreur)) {
-      getJarEnCours().addToClassesEnErreur(getFichierEnCours()).addErreur(erreur);
-      LOG.error(erreur);
+  public boolean addErreur(Erreur erreur) {
+    if (!isErreurExclue(erreur)) {
+      Fichier fichier = getJarEnCours().addToClassesEnErreur(getFichierEnCours());
+      enregistrerErreur(fichier, erreur);
+      LOG.error("{}", erreur);
       return true;
     }
     return false;
   }
 
+  /**
+   * Une exclusion trouvée dans un nom cité par le libellé l'est aussi dans le libellé : l'erreur est exclue sans que son libellé soit construit
+   * pour la recherche. Il ne l'est que pour être conservé dans les exclusions, comme celui d'une erreur exclue par son libellé.
+   */
+  private boolean isErreurExclue(Erreur erreur) {
+    if (erreur.isAppelantCite() && isExclu(Exclusion.ERREUR, erreur.getAppelant().getNom(), erreur::getLibelle)) {
+      return true;
+    }
+    if (isExcluParNom(erreur, erreur.getClasseReferencee()) || isExcluParNom(erreur, erreur.getMethode())) {
+      return true;
+    }
+    return !exclusionParChamps && isExclu(Exclusion.ERREUR, erreur.getLibelle());
+  }
+
+  private boolean isExcluParNom(Erreur erreur, String nom) {
+    return erreur.isCite(nom) && isExclu(Exclusion.ERREUR, nom, erreur::getLibelle);
+  }
+
+  private void enregistrerErreur(Fichier fichier, Erreur erreur) {
+    nombreErreursParType.get(erreur.getType()).increment();
+    if (rapportErreurs == null || isCacheActif()) {
+      fichier.addErreur(erreur);
+    } else {
+      fichier.compterErreur();
+    }
+    if (rapportErreurs != null) {
+      rapportErreurs.ecrire(fichier, erreur);
+    }
+  }
+
+  /**
+   * @return nombre d'erreurs non exclues par type, y compris celles reprises du cache de scan
+   */
+  public Map<TypeErreur, Long> getNombreErreursParType() {
+    Map<TypeErreur, Long> nombres = new EnumMap<>(TypeErreur.class);
+    nombreErreursParType.forEach((type, nombre) -> nombres.put(type, nombre.sum()));
+    return nombres;
+  }
+
+  public CacheVerdicts getCacheVerdicts() {
+    return cacheVerdicts;
+  }
+
+  public CacheEchecsChargement getCacheEchecsChargement() {
+    return cacheEchecsChargement;
+  }
+
+  /**
+   * Indique si les méthodes référencées sont résolues via l'index du classpath (aucun chargement de classe) plutôt que par réflexion
+   */
+  public boolean isResolutionParIndex() {
+    return resolutionParIndex;
+  }
+
+  /**
+   * Indique si le byte code est lu par javassist (ClassFile et CtClass complets) plutôt que par le lecteur de constant pool
+   */
+  public boolean isLecteurJavassist() {
+    return lecteurJavassist;
+  }
+
+  @Override
+  protected String getConfigurationCache() {
+    return super.getConfigurationCache() + "|" + resolutionParIndex + "|" + lecteurJavassist + "|" + classesMasqueesVerifiees + "|" + classesMasqueesDetectees + "|" + exclusionParChamps + "|" + VERSION_RESULTATS;
+  }
+
+  /**
+   * Conserve les erreurs de chaque classe du jar et les classes référencées non trouvées
+   */
+  @Override
+  protected void exporterResultats(Jar jar, Map<String, Object> resultats) {
+    super.exporterResultats(jar, resultats);
+    List<Map<String, Object>> erreurs = new ArrayList<>();
+    jar.getClassesEnErreur().stream().sorted(Comparator.comparing(Fichier::getNom)).forEach(fichier -> {
+      Map<String, Object> erreur = new LinkedHashMap<>();
+      erreur.put("nom", fichier.getNom());
+      erreur.put("extension", fichier.getExtension());
+      erreur.put(RESULTATS_ERREURS, fichier.getErreurs().stream().map(TestControleByteCode::exporterErreur).collect(Collectors.toList()));
+      erreurs.add(erreur);
+    });
+    resultats.put(RESULTATS_ERREURS, erreurs);
+    resultats.put(RESULTATS_CLASSES_NON_TROUVEES, new LinkedHashMap<>(jar.getClassesReferenceesNonTrouvees()));
+    resultats.put(RESULTATS_CLASSES_MASQUEES, new LinkedHashMap<>(jar.getClassesMasquees()));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void importerResultats(Jar jar, Map<String, Object> resultats) {
+    super.importerResultats(jar, resultats);
+    for (Map<String, Object> erreur : (List<Map<String, Object>>) resultats.get(RESULTATS_ERREURS)) {
+      Fichier fichier = jar.addToClassesEnErreur(new Fichier(jar, (String) erreur.get("nom"), (String) erreur.get("extension")));
+      ((List<Map<String, String>>) erreur.get(RESULTATS_ERREURS)).forEach(valeurs -> enregistrerErreur(fichier, importerErreur(valeurs)));
+    }
+    ((Map<String, String>) resultats.get(RESULTATS_CLASSES_NON_TROUVEES)).forEach(jar::addClasseReferenceeNonTrouvee);
+    ((Map<String, String>) resultats.get(RESULTATS_CLASSES_MASQUEES)).forEach(jar::addClasseMasquee);
+  }
+
+  private static Map<String, String> exporterErreur(Erreur erreur) {
+    Map<String, String> valeurs = new LinkedHashMap<>();
+    valeurs.put("type", erreur.getType().name());
+    valeurs.put("classeReferencee", erreur.getClasseReferencee());
+    valeurs.put("methode", erreur.getMethode());
+    valeurs.put("descripteur", erreur.getDescripteur());
+    valeurs.put("libelle", erreur.getLibelle());
+    return valeurs;
+  }
+
+  private static Erreur importerErreur(Map<String, String> valeurs) {
+    return new Erreur(TypeErreur.valueOf(valeurs.get("type")), valeurs.get("classeReferencee"), valeurs.get("methode"), valeurs.get("descripteur"), valeurs.get("libelle"));
+  }
+
   /**
    * Affiche le bilan du contrôle du byteCode
    */
@@ -71,7 +303,17 @@ public class TestControleByteCode extends ScanneClasspath {
     return FICHIER_CONFIGURATION;
   }
 
+  /**
+   * Les classes non trouvées sont collectées par jar (un jar n'est scanné que par un seul thread) puis fusionnées dans l'ordre du classpath :
+   * le bilan est ainsi identique que le scan soit séquentiel ou parallèle.
+   */
   public Map<String, String> getClassesReferenceesNonTrouveesOuChargees() {
+    Map<String, String> classesReferenceesNonTrouveesOuChargees = new LinkedHashMap<>();
+    getJarsTraites().forEach(jar -> jar.getClassesReferenceesNonTrouvees().forEach(classesReferenceesNonTrouveesOuChargees::putIfAbsent));
     return classesReferenceesNonTrouveesOuChargees;
   }
+
+  public void addClasseReferenceeNonTrouvee(String nomClasse, String libelle) {
+    getJarEnCours().addClasseReferenceeNonTrouvee(nomClasse, libelle);
+  }
 }
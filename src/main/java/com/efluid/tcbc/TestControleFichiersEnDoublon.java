@@ -2,25 +2,53 @@ package com.efluid.tcbc;
 
 import static com.efluid.tcbc.process.ScanneClasspath.Exclusion.ERREUR;
 
+import java.io.*;
+import java.security.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.*;
 
-import com.efluid.tcbc.object.Fichier;
+import com.efluid.tcbc.object.*;
 import com.efluid.tcbc.process.ScanneClasspath;
+import com.efluid.tcbc.utils.*;
 
 /**
  * Contrôle qu'il n'y ait pas de fichier en doublon dans le classpath
+ * <p>
+ * Avec -DclassificationDoublons=contenu, seuls les fichiers dont le nom est en doublon sont relus après le parcours et leur contenu comparé
+ * (empreinte SHA-256, calculée en parallèle par élément du classpath) : les doublons identiques sont distingués des doublons en conflit, seuls ces
+ * derniers sont en échec.
+ * <p>
+ * Avec -DseuilDoublonsEnMemoire=200000, les fichiers parcourus ne sont plus conservés en mémoire : chaque nom et l'identifiant entier de son jar
+ * sont écrits sur disque en séquences triées de ce nombre de fichiers, fusionnées en fin de scan pour trouver les doublons (mémoire bornée quel
+ * que soit le nombre de fichiers du classpath).
  */
 public class TestControleFichiersEnDoublon extends ScanneClasspath {
 
   private static final Logger LOG = LoggerFactory.getLogger(TestControleFichiersEnDoublon.class);
 
   private static final String FICHIER_CONFIGURATION = "controleClasseEnDoublon.yaml";
-  private Map<String, Fichier> fichiersParcourus = new HashMap<>();
-  protected Map<String, Set<Fichier>> fichiersEnDoublon = new HashMap<>();
+  private Map<String, Fichier> fichiersParcourus = new ConcurrentHashMap<>();
+  protected Map<String, Set<Fichier>> fichiersEnDoublon = new ConcurrentHashMap<>();
+
+  private static final String ENV_SEUIL_DOUBLONS_EN_MEMOIRE = "seuilDoublonsEnMemoire";
+  /* Détection sur disque des doublons, null si les fichiers parcourus sont conservés en mémoire */
+  private DetecteurDoublons detecteurDoublons;
+  private final IndexNoms identifiantsJars = new IndexNoms();
+  private final Map<Integer, Jar> jarsParIdentifiant = new ConcurrentHashMap<>();
+
+  private static final String ENV_CLASSIFICATION_DOUBLONS = "classificationDoublons";
+  private static final String CLASSIFICATION_CONTENU = "contenu";
+  /* Doublons dont toutes les copies ont le même contenu (classification par contenu) */
+  protected Map<String, Set<Fichier>> doublonsIdentiques = new ConcurrentHashMap<>();
+  /* Doublons dont les copies diffèrent (tous les doublons sans classification par contenu) */
+  protected Map<String, Set<Fichier>> doublonsEnConflit = fichiersEnDoublon;
 
   private static final String PROPERTIES_EXTENSION = "properties";
+  private static final String RESULTATS_FICHIERS = "fichiers";
+  /* Fichiers (nom et extension) de chaque jar, conservés pour le cache de scan */
+  private Map<String, List<List<String>>> fichiersParJar = new ConcurrentHashMap<>();
 
   public TestControleFichiersEnDoublon() {
     addToExtensions(PROPERTIES_EXTENSION);
@@ -41,30 +69,172 @@ public class TestControleFichiersEnDoublon extends ScanneClasspath {
     return true;
   }
 
+  @Override
+  protected void debutScan() {
+    super.debutScan();
+    int seuil = getSeuilDoublonsEnMemoire();
+    if (seuil > 0) {
+      detecteurDoublons = new DetecteurDoublons(seuil);
+    }
+  }
+
+  /**
+   * @return le nombre de fichiers conservés en mémoire avant l'écriture d'une séquence triée, 0 pour conserver en mémoire tous les fichiers
+   */
+  protected int getSeuilDoublonsEnMemoire() {
+    return Integer.getInteger(ENV_SEUIL_DOUBLONS_EN_MEMOIRE, 0);
+  }
+
+  @Override
+  protected void finScan() {
+    super.finScan();
+    if (detecteurDoublons != null) {
+      try {
+        detecteurDoublons.close();
+      } catch (IOException ex) {
+        LOG.error("Suppression des séquences triées impossible", ex);
+      }
+    }
+  }
+
   @Override
   protected void traitementFichierEnCours() {
     Fichier fichierEnCours = getFichierEnCours();
+    if (isCacheActif()) {
+      fichiersParJar.computeIfAbsent(fichierEnCours.getNomJar(), cle -> new ArrayList<>()).add(Arrays.asList(fichierEnCours.getNom(), fichierEnCours.getExtension()));
+    }
     if (isExclu(ERREUR, fichierEnCours.getNomEtExtension())) {
       return;
     }
-    Fichier fichierExistant = fichiersParcourus.get(fichierEnCours.getNomEtExtension());
+    if (detecteurDoublons != null) {
+      ajouterSurDisque(fichierEnCours);
+      return;
+    }
+    Fichier fichierExistant = fichiersParcourus.putIfAbsent(fichierEnCours.getNomEtExtension(), fichierEnCours);
     if (fichierExistant != null) {
-      fichiersEnDoublon.computeIfAbsent(fichierEnCours.getNomEtExtension(), cle -> new HashSet<>()).addAll(Arrays.asList(fichierEnCours, fichierExistant));
+      fichiersEnDoublon.computeIfAbsent(fichierEnCours.getNomEtExtension(), cle -> ConcurrentHashMap.newKeySet()).addAll(Arrays.asList(fichierEnCours, fichierExistant));
+    }
+  }
+
+  private void ajouterSurDisque(Fichier fichier) {
+    int identifiant = identifiantsJars.getIndex(fichier.getNomJar());
+    jarsParIdentifiant.putIfAbsent(identifiant, fichier.getJar());
+    try {
+      detecteurDoublons.ajouter(fichier.getNomEtExtension(), identifiant);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Fusionne les séquences triées : les fichiers en doublon sont recréés à partir du nom et des identifiants de leurs jars
+   */
+  private void fusionnerDoublons() {
+    try {
+      detecteurDoublons.parcourirDoublons((nomEtExtension, jars) -> {
+        int point = nomEtExtension.lastIndexOf('.');
+        Set<Fichier> fichiers = ConcurrentHashMap.newKeySet();
+        jars.forEach(jar -> fichiers.add(new Fichier(jarsParIdentifiant.get(jar), nomEtExtension.substring(0, point), nomEtExtension.substring(point + 1))));
+        fichiersEnDoublon.put(nomEtExtension, fichiers);
+      });
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  @Override
+  protected void exporterResultats(Jar jar, Map<String, Object> resultats) {
+    super.exporterResultats(jar, resultats);
+    resultats.put(RESULTATS_FICHIERS, fichiersParJar.getOrDefault(jar.getNom(), Collections.emptyList()));
+  }
+
+  /**
+   * Les fichiers du jar sont rejoués pour détecter les doublons avec les autres jars
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void importerResultats(Jar jar, Map<String, Object> resultats) {
+    super.importerResultats(jar, resultats);
+    ((List<List<String>>) resultats.get(RESULTATS_FICHIERS)).forEach(fichier -> rejouerFichier(new Fichier(jar, fichier.get(0), fichier.get(1))));
+  }
+
+  protected boolean isClassificationParContenu() {
+    return CLASSIFICATION_CONTENU.equals(System.getProperty(ENV_CLASSIFICATION_DOUBLONS));
+  }
+
+  /**
+   * Compare le contenu des copies de chaque fichier en doublon : chaque élément du classpath concerné est relu une seule fois, et seulement pour
+   * ses fichiers en doublon.<br>
+   * Un doublon dont une copie n'a pu être relue est considéré en conflit. Les éléments sont relus en parallèle par les threads du scan.
+   */
+  protected void classerDoublons() {
+    Map<String, Set<String>> doublonsParElement = new HashMap<>();
+    fichiersEnDoublon.forEach((nom, fichiers) -> fichiers.forEach(fichier -> doublonsParElement.computeIfAbsent(fichier.getNomJar(), cle -> new HashSet<>()).add(nom)));
+    /* Empreinte du contenu de chaque copie, par nom de fichier puis élément du classpath */
+    Map<String, Map<String, String>> empreintes = new ConcurrentHashMap<>();
+    traiterEnParallele(doublonsParElement.entrySet(), element -> {
+      MessageDigest sha256 = creerSha256();
+      try {
+        relireFichiers(element.getKey(), element.getValue(), (nomEtExtension, contenu) -> empreintes.computeIfAbsent(nomEtExtension, cle -> new ConcurrentHashMap<>())
+          .put(element.getKey(), calculerEmpreinte(sha256, contenu)));
+      } catch (IOException ex) {
+        LOG.error("Relecture des fichiers en doublon impossible : {}", element.getKey(), ex);
+      }
+    });
+    doublonsEnConflit = new ConcurrentHashMap<>();
+    fichiersEnDoublon.forEach((nom, fichiers) -> {
+      Map<String, String> empreintesFichier = empreintes.getOrDefault(nom, Collections.emptyMap());
+      boolean identiques = empreintesFichier.size() == fichiers.size() && new HashSet<>(empreintesFichier.values()).size() == 1;
+      (identiques ? doublonsIdentiques : doublonsEnConflit).put(nom, fichiers);
+    });
+  }
+
+  private static MessageDigest creerSha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
     }
-    fichiersParcourus.put(fichierEnCours.getNomEtExtension(), fichierEnCours);
+  }
+
+  private static String calculerEmpreinte(MessageDigest sha256, InputStream contenu) throws IOException {
+    byte[] tampon = new byte[8192];
+    int lus;
+    while ((lus = contenu.read(tampon)) != -1) {
+      sha256.update(tampon, 0, lus);
+    }
+    return Base64.getEncoder().encodeToString(sha256.digest());
   }
 
   @Override
   protected int logBilan() {
     super.logBilan();
-    LOG.debug("|=== Fichiers en doublon ===|");
-    fichiersEnDoublon.forEach((nom, fichiers) -> {
+    if (detecteurDoublons != null) {
+      fusionnerDoublons();
+    }
+    if (isClassificationParContenu()) {
+      classerDoublons();
+      LOG.debug("|=== Fichiers en doublon identiques ===|");
+      logDoublons(doublonsIdentiques);
+      LOG.debug("|=== Fichiers en doublon en conflit ===|");
+    } else {
+      LOG.debug("|=== Fichiers en doublon ===|");
+    }
+    logDoublons(doublonsEnConflit);
+    LOG.debug("Fichier trouves : {}", detecteurDoublons != null ? detecteurDoublons.getNombre() : fichiersParcourus.size());
+    LOG.debug("Fichiers en doublon : {}", fichiersEnDoublon.size());
+    if (isClassificationParContenu()) {
+      LOG.debug("Fichiers en doublon identiques : {}", doublonsIdentiques.size());
+      LOG.debug("Fichiers en doublon en conflit : {}", doublonsEnConflit.size());
+    }
+    LOG.debug("Fichiers en doublon exclus : {}", getExclusions().get(ERREUR).size());
+    return doublonsEnConflit.size();
+  }
+
+  private static void logDoublons(Map<String, Set<Fichier>> doublons) {
+    doublons.forEach((nom, fichiers) -> {
       LOG.debug("[{}]", nom);
       fichiers.forEach(fichier -> LOG.debug("\t{}", fichier.getNomJar()));
     });
-    LOG.debug("Fichier trouves : {}", fichiersParcourus.size());
-    LOG.debug("Fichiers en doublon : {}", fichiersEnDoublon.size());
-    LOG.debug("Fichiers en doublon exclus : {}", getExclusions().get(ERREUR).size());
-    return fichiersEnDoublon.size();
   }
 }
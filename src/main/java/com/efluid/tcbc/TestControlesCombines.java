@@ -0,0 +1,34 @@
+package com.efluid.tcbc;
+
+import com.efluid.tcbc.process.ScanneClasspath;
+
+/**
+ * Effectue plusieurs contrôles lors d'un seul parcours du classpath.<br>
+ * Chaque jar n'est ouvert qu'une fois et chaque classe n'est lue qu'une fois, ses références étant transmises à tous les contrôles.<br>
+ * Chaque contrôle conserve son fichier de configuration (jars, fichiers et erreurs exclus), son cache de scan, son bilan et sa validation.<br>
+ * <br>
+ * Exemple :
+ *
+ * <pre>
+ * public class TestControles extends TestControlesCombines {
+ *
+ *   public TestControles() {
+ *     super(new TestControleByteCode(), new TestDependenceJar(), new TestControleFichiersEnDoublon());
+ *   }
+ * }
+ * </pre>
+ */
+public class TestControlesCombines extends ScanneClasspath {
+
+  public TestControlesCombines(ScanneClasspath... controles) {
+    super(controles);
+  }
+
+  /**
+   * Chaque contrôle combiné charge son propre fichier de configuration
+   */
+  @Override
+  protected String getFichierConfiguration() {
+    return null;
+  }
+}
@@ -1,15 +1,16 @@
 package com.efluid.tcbc;
 
-import static java.lang.System.lineSeparator;
-
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.*;
 
-import com.efluid.tcbc.object.Jar;
-import com.efluid.tcbc.process.DependencyAnalysisBetweenLibraries;
+import com.efluid.tcbc.object.*;
+import com.efluid.tcbc.process.*;
+import com.efluid.tcbc.utils.*;
 
 /**
  * <pre>
@@ -22,28 +23,173 @@ import com.efluid.tcbc.process.DependencyAnalysisBetweenLibraries;
  * - Ne sont pas comptabilisé les dépendances internes
  * Si une classe appelle une classe contenue dans le même jar, cette dépendance n’est pas comptabilisée
  * - Le répertoire « classes » est considéré comme un jar
+ *
+ * Le graphe est écrit arc par arc dans le fichier défini par -DfichierGraphe=target/dependances.dot ("dependenceJar.dot" par défaut) :
+ * graphviz, liste d'arcs CSV (.csv) ou listes d'adjacence JSON (.json).
+ * Ses noeuds sont les jars, les groupId maven (-DagregationDependances=groupId) ou les packages (-DagregationDependances=package).
+ * Pour ne conserver que les arcs qui ne se déduisent pas d'un autre chemin du graphe : -DreductionTransitive=true
  * </pre>
  */
-public class TestDependenceJar extends TestControleByteCode {
+public class TestDependenceJar extends TestControleByteCode implements CompteurDependances {
 
   private static final Logger LOG = LoggerFactory.getLogger(TestDependenceJar.class);
 
   private static final String FICHIER_CONFIGURATION = "dependenceJar.yaml";
+  private static final String RESULTATS_DEPENDANCES = "dependances";
+  private static final String RESULTATS_DEPENDANCES_PACKAGES = "dependancesPackages";
+  private static final String ENV_FICHIER_GRAPHE = "fichierGraphe";
+  private static final String ENV_AGREGATION = "agregationDependances";
+  private static final String ENV_REDUCTION_TRANSITIVE = "reductionTransitive";
+  private static final String PACKAGE_PAR_DEFAUT = "(default)";
   public static String NOM_FICHIER_GRAPHVIZ = "dependenceJar.dot";
 
-  /** Nombre de dépendance total */
-  private Map<String, AtomicLong> dependances = new HashMap<String, AtomicLong>();
-  private StringBuffer fichierGraphViz = new StringBuffer("digraph dependence {" + lineSeparator() + "\tlayout=dot;concentrate=true;node [shape=box];edge [color=blue];classes [color=red];" + lineSeparator());
+  /**
+   * Noeuds du graphe exporté
+   */
+  public enum Agregation {
+    JAR,
+    GROUP_ID,
+    PACKAGE;
+
+    /**
+     * @return l'agrégation nommée sans tenir compte de la casse ni des "_" (ex : groupId), par jar par défaut
+     */
+    public static Agregation de(String nom) {
+      return Arrays.stream(values()).filter(agregation -> agregation.name().replace("_", "").equalsIgnoreCase(nom)).findFirst().orElse(JAR);
+    }
+  }
+
+  private final Agregation agregation = Agregation.de(System.getProperty(ENV_AGREGATION));
+  private final boolean reductionTransitive = Boolean.getBoolean(ENV_REDUCTION_TRANSITIVE);
+
+  /* Jars (origines des classes) et packages, indexés pour compter les dépendances sans map par chaîne */
+  private final IndexNoms origines = new IndexNoms();
+  private final IndexNoms packages = new IndexNoms();
+  /* Dépendances de tous les jars scannés, cumulées à la fin de chaque jar */
+  private final CompteursArcs dependancesJars = new CompteursArcs();
+  private final CompteursArcs dependancesPackages = new CompteursArcs();
+  /* Dépendances du jar en cours, comptées par le thread qui le scanne */
+  private final ThreadLocal<CompteursArcs> dependancesJarEnCours = new ThreadLocal<>();
+  private final ThreadLocal<CompteursArcs> dependancesPackagesJarEnCours = new ThreadLocal<>();
+  /* Dépendances entre packages de chaque jar, conservées pour le cache de scan */
+  private final Map<String, CompteursArcs> dependancesPackagesParJar = new ConcurrentHashMap<>();
 
   @Override
   protected void traitementFichierEnCours() {
     new DependencyAnalysisBetweenLibraries(this, getFichierEnCours()).execute();
   }
 
+  @Override
+  protected void debutTraitementJar() {
+    super.debutTraitementJar();
+    getJarEnCours().setCompteurDependances(this);
+    dependancesJarEnCours.set(new CompteursArcs());
+    dependancesPackagesJarEnCours.set(new CompteursArcs());
+  }
+
+  @Override
+  protected void finTraitementJar() {
+    super.finTraitementJar();
+    synchronized (dependancesJars) {
+      dependancesJars.ajouter(dependancesJarEnCours.get());
+      dependancesPackages.ajouter(dependancesPackagesJarEnCours.get());
+    }
+    if (isCacheActif()) {
+      dependancesPackagesParJar.put(getJarEnCours().getNom(), dependancesPackagesJarEnCours.get());
+    }
+    dependancesJarEnCours.remove();
+    dependancesPackagesJarEnCours.remove();
+  }
+
+  /**
+   * Référence par la classe en cours d'une classe du jar (ou répertoire) <code>origine</code>.
+   * On ne comptabilise pas les dépendances internes au jar ni au package.
+   */
+  public void addDependance(String origine, String nomClasse) {
+    String jarEnCours = getJarEnCours().getNom();
+    if (!origine.equals(jarEnCours)) {
+      dependancesJarEnCours.get().ajouter(origines.getIndex(jarEnCours), origines.getIndex(origine), 1);
+    }
+    if (agregation == Agregation.PACKAGE && !nomClasse.startsWith("[")) {
+      String source = getPackage(getFichierEnCours().getNom());
+      String cible = getPackage(nomClasse);
+      if (!source.equals(cible)) {
+        dependancesPackagesJarEnCours.get().ajouter(packages.getIndex(source), packages.getIndex(cible), 1);
+      }
+    }
+  }
+
+  private static String getPackage(String nomClasse) {
+    int separateur = nomClasse.lastIndexOf('.');
+    return separateur < 0 ? PACKAGE_PAR_DEFAUT : nomClasse.substring(0, separateur);
+  }
+
+  /**
+   * @return le graphe des dépendances entre jars (chemins complets)
+   */
+  public GrapheDependances getGrapheJars() {
+    synchronized (dependancesJars) {
+      return new GrapheDependances(origines, dependancesJars);
+    }
+  }
+
+  /**
+   * @return le nombre total de références vers chaque jar, du plus référencé au moins référencé
+   */
   public Map<String, AtomicLong> getDependances() {
+    Map<String, AtomicLong> dependances = new LinkedHashMap<>();
+    getGrapheJars().getNombresReferences().forEach((dependance, nombre) -> dependances.put(dependance, new AtomicLong(nombre)));
     return dependances;
   }
 
+  /**
+   * @return les dépendances du jar et leur nombre de références, de la plus référencée à la moins référencée
+   */
+  @Override
+  public Map<String, Long> getDependances(Jar jar) {
+    return getGrapheJars().getDependances(jar.getNom());
+  }
+
+  /**
+   * Références ajoutées aux dépendances du jar (voir {@link Jar#addDependence(String, long)})
+   */
+  @Override
+  public void ajouterDependance(Jar jar, String dependance, long nombre) {
+    synchronized (dependancesJars) {
+      dependancesJars.ajouter(origines.getIndex(jar.getNom()), origines.getIndex(dependance), nombre);
+    }
+  }
+
+  @Override
+  protected String getConfigurationCache() {
+    return super.getConfigurationCache() + "|" + agregation;
+  }
+
+  @Override
+  protected void exporterResultats(Jar jar, Map<String, Object> resultats) {
+    super.exporterResultats(jar, resultats);
+    resultats.put(RESULTATS_DEPENDANCES, new TreeMap<>(getDependances(jar)));
+    List<List<Object>> dependancesPackagesJar = new ArrayList<>();
+    CompteursArcs arcs = dependancesPackagesParJar.get(jar.getNom());
+    if (arcs != null) {
+      arcs.parcourir((source, cible, nombre) -> dependancesPackagesJar.add(Arrays.asList(packages.getNom(source), packages.getNom(cible), nombre)));
+    }
+    resultats.put(RESULTATS_DEPENDANCES_PACKAGES, dependancesPackagesJar);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void importerResultats(Jar jar, Map<String, Object> resultats) {
+    super.importerResultats(jar, resultats);
+    jar.setCompteurDependances(this);
+    synchronized (dependancesJars) {
+      int source = origines.getIndex(jar.getNom());
+      ((Map<String, Number>) resultats.get(RESULTATS_DEPENDANCES)).forEach((dependance, nombre) -> dependancesJars.ajouter(source, origines.getIndex(dependance), nombre.longValue()));
+      ((List<List<Object>>) resultats.get(RESULTATS_DEPENDANCES_PACKAGES)).forEach(arc -> dependancesPackages.ajouter(packages.getIndex((String) arc.get(0)),
+        packages.getIndex((String) arc.get(1)), ((Number) arc.get(2)).longValue()));
+    }
+  }
+
   @Override
   protected String getFichierConfiguration() {
     return FICHIER_CONFIGURATION;
@@ -56,53 +202,40 @@ public class TestDependenceJar extends TestControleByteCode {
 
   /** On ne souhaite gérer les erreurs de chargement */
   @Override
-  public boolean addErreur(final String erreur) {
+  public boolean addErreur(final Erreur erreur) {
     return false;
   }
 
   @Override
   protected int logBilan() {
+    GrapheDependances graphe = getGrapheJars();
     for (Jar jar : getJarsTraites()) {
-      logDependances("Dependences of " + jar.getNom(), jar.getDependences(), true);
+      logDependances("Dependences of " + jar.getNom(), graphe.getDependances(jar.getNom()));
     }
-    logDependances("Total reference", dependances, false);
-    logJarNonReference();
+    Map<String, Long> references = graphe.getNombresReferences();
+    logDependances("Total reference", references);
+    logJarNonReference(references);
     return 0;
   }
 
   @Override
   protected void terminate() {
-    creerFichierGraphViz();
+    ecrireGraphe();
   }
 
   /**
-   * Log les dépendances entre triant par le compteur (valeur desc)
+   * Log les dépendances, de la plus référencée à la moins référencée
    */
-  private void logDependances(String nom, Map<String, AtomicLong> dependances, boolean graphViz) {
-    TreeMap<String, AtomicLong> mapTrie;
+  private void logDependances(String nom, Map<String, Long> dependances) {
     if (!dependances.isEmpty()) {
       LOG.error(nom + " :");
-      mapTrie = new TreeMap<String, AtomicLong>(new ValueComparator(dependances));
-      mapTrie.putAll(dependances);
-      for (String cle : mapTrie.keySet()) {
-        LOG.debug("\treference {} type class of {}", mapTrie.get(cle), cle);
-        if (graphViz) {
-          addToFichierGraphViz(nom, cle, mapTrie.get(cle).toString());
-        }
-      }
+      dependances.forEach((dependance, nombre) -> LOG.debug("\treference {} type class of {}", nombre, dependance));
     }
   }
 
-  private void addToFichierGraphViz(String jar, String dependance, String nombre) {
-    String nomJar = jar.substring(jar.lastIndexOf(File.separator) + 1);
-    String nomDependance = dependance.substring(dependance.lastIndexOf(File.separator) + 1);
-
-    fichierGraphViz.append("\t" + "\"" + nomJar + "\" -> \"" + nomDependance + "\" [label=\"" + nombre + "\"];" + lineSeparator());
-  }
-
-  private void logJarNonReference() {
+  private void logJarNonReference(Map<String, Long> references) {
     LOG.error("");
-    getJarsTraites().stream().sorted().filter(jar -> !dependances.containsKey(jar.getNom())).forEach(jar -> LOG.error("jar not referenced : {}", jar.getNom()));
+    getJarsTraites().stream().sorted().filter(jar -> !references.containsKey(jar.getNom())).forEach(jar -> LOG.error("jar not referenced : {}", jar.getNom()));
   }
 
   @Override
@@ -111,29 +244,30 @@ public class TestDependenceJar extends TestControleByteCode {
   }
 
   /**
-   * Permet de trier une Map par ses valeurs en l'occurence un compteur
-   * On concatène la clé dans le cas où plusieurs valeurs seraient identique
-   * et qui aurait comme effet de considérer cette entrée (Map.Entry) comme déjà existante
+   * Graphe exporté, selon l'agrégation demandée et réduit transitivement si demandé
    */
-  class ValueComparator implements Comparator {
-
-    Map<String, AtomicLong> map;
-
-    public ValueComparator(Map<String, AtomicLong> base) {
-      this.map = base;
-    }
-
-    public int compare(Object a, Object b) {
-      String valA = "" + map.get(a) + a;
-      String valB = "" + map.get(b) + b;
-      return Comparator.<String> naturalOrder().compare(valB, valA);
+  public GrapheDependances getGraphe() {
+    GrapheDependances graphe;
+    switch (agregation) {
+      case GROUP_ID:
+        graphe = getGrapheJars().agreger(ScanneClasspathUtils::getGroupId);
+        break;
+      case PACKAGE:
+        synchronized (dependancesJars) {
+          graphe = new GrapheDependances(packages, dependancesPackages);
+        }
+        break;
+      default:
+        graphe = getGrapheJars().agreger(jar -> jar.substring(jar.lastIndexOf(File.separator) + 1));
     }
+    return reductionTransitive ? graphe.reduireTransitivement() : graphe;
   }
 
-  private void creerFichierGraphViz() {
-    fichierGraphViz.append("}");
-    try {
-      new BufferedWriter(new FileWriter(NOM_FICHIER_GRAPHVIZ, false)).append(fichierGraphViz.toString()).close();
+  private void ecrireGraphe() {
+    Path fichier = Paths.get(System.getProperty(ENV_FICHIER_GRAPHE, NOM_FICHIER_GRAPHVIZ));
+    try (ExportGraphe export = ExportGraphe.ouvrir(fichier)) {
+      getGraphe().ecrire(export);
+      LOG.info("Graphe des dépendances : {}", fichier);
     } catch (IOException ex) {
       LOG.error("", ex);
     }
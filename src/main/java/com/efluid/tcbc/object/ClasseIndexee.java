@@ -0,0 +1,71 @@
+package com.efluid.tcbc.object;
+
+import static com.efluid.tcbc.utils.Descripteurs.getParametres;
+
+import java.util.*;
+
+/**
+ * Représente une classe du classpath telle que décrite par son byte code, sans chargement dans le classLoader :
+ * classe mère, interfaces et méthodes déclarées avec leur descripteur.
+ */
+public class ClasseIndexee {
+
+  private final String nom;
+  private final String superClasse;
+  private final List<String> interfaces;
+  private final boolean isInterface;
+  /* Modificateurs (access flags) des méthodes déclarées, indexés par nom + descripteur */
+  private final Map<String, Integer> methodes = new HashMap<>();
+
+  public ClasseIndexee(String nom, String superClasse, String[] interfaces, boolean isInterface) {
+    this.nom = nom;
+    this.superClasse = superClasse;
+    this.interfaces = Arrays.asList(interfaces);
+    this.isInterface = isInterface;
+  }
+
+  public void addMethode(String nomMethode, String descripteur, int modificateurs) {
+    methodes.put(nomMethode + descripteur, modificateurs);
+  }
+
+  /**
+   * @return les modificateurs de la méthode déclarée ayant exactement ce nom et ce descripteur, <code>null</code> si elle n'existe pas
+   */
+  public Integer getModificateurs(String nomMethode, String descripteur) {
+    return methodes.get(nomMethode + descripteur);
+  }
+
+  /**
+   * Recherche une méthode déclarée de même nom et mêmes paramètres, quel que soit son type de retour
+   *
+   * @return le descripteur de la méthode trouvée, ou <code>null</code>
+   */
+  public String getDescripteurMemesParametres(String nomMethode, String descripteur) {
+    String prefixe = nomMethode + getParametres(descripteur);
+    return methodes.keySet().stream().filter(methode -> methode.startsWith(prefixe)).findFirst().map(methode -> methode.substring(nomMethode.length())).orElse(null);
+  }
+
+  public String getNom() {
+    return nom;
+  }
+
+  /**
+   * @return le nom de la classe mère, <code>null</code> pour java.lang.Object
+   */
+  public String getSuperClasse() {
+    return superClasse;
+  }
+
+  public List<String> getInterfaces() {
+    return interfaces;
+  }
+
+  public boolean isInterface() {
+    return isInterface;
+  }
+
+  @Override
+  public String toString() {
+    return nom;
+  }
+}
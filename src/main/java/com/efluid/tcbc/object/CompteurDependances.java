@@ -0,0 +1,16 @@
+package com.efluid.tcbc.object;
+
+import java.util.Map;
+
+/**
+ * Compte les références d'un jar vers les autres jars du classpath (ex : TestDependenceJar pour les jars qu'il scanne)
+ */
+public interface CompteurDependances {
+
+  void ajouterDependance(Jar jar, String dependance, long nombre);
+
+  /**
+   * @return les dépendances du jar et leur nombre de références
+   */
+  Map<String, Long> getDependances(Jar jar);
+}
@@ -0,0 +1,105 @@
+package com.efluid.tcbc.object;
+
+/**
+ * Erreur remontée sur un fichier : sa nature, la classe appelante, la référence en cause (classe, méthode et descripteur, s'ils sont connus) et
+ * son libellé.
+ * <p>
+ * Le libellé n'est construit qu'à sa première demande (log, rapport, cache) à partir de son modèle : texte partagé par toutes les erreurs d'une
+ * même référence, dans lequel {@link #APPELANT} et {@link #FICHIER_APPELANT} sont remplacés par la classe appelante.<br>
+ * Les noms de la référence sont internés : les erreurs d'une même référence partagent leurs chaînes.
+ */
+public class Erreur {
+
+  /** Emplacement du nom de la classe appelante dans le modèle du libellé */
+  public static final String APPELANT = "{appelant}";
+  /** Emplacement de la classe appelante et de son jar dans le modèle du libellé */
+  public static final String FICHIER_APPELANT = "{fichierAppelant}";
+
+  private final TypeErreur type;
+  private final Fichier appelant;
+  private final String classeReferencee;
+  private final String methode;
+  private final String descripteur;
+  private final String modele;
+  private String libelle;
+
+  /**
+   * Erreur dont le libellé est déjà construit (reprise du cache de scan)
+   */
+  public Erreur(TypeErreur type, String classeReferencee, String methode, String descripteur, String libelle) {
+    this(type, null, classeReferencee, methode, descripteur, libelle);
+  }
+
+  /**
+   * @param modele libellé dans lequel {@link #APPELANT} et {@link #FICHIER_APPELANT} seront remplacés par la classe appelante
+   */
+  public Erreur(TypeErreur type, Fichier appelant, String classeReferencee, String methode, String descripteur, String modele) {
+    this.type = type;
+    this.appelant = appelant;
+    this.classeReferencee = interner(classeReferencee);
+    this.methode = interner(methode);
+    this.descripteur = interner(descripteur);
+    this.modele = modele;
+    this.libelle = appelant == null ? modele : null;
+  }
+
+  private static String interner(String nom) {
+    return nom != null ? nom.intern() : null;
+  }
+
+  public TypeErreur getType() {
+    return type;
+  }
+
+  /**
+   * @return la classe appelante, null pour une erreur reprise du cache de scan
+   */
+  public Fichier getAppelant() {
+    return appelant;
+  }
+
+  public String getClasseReferencee() {
+    return classeReferencee;
+  }
+
+  public String getMethode() {
+    return methode;
+  }
+
+  public String getDescripteur() {
+    return descripteur;
+  }
+
+  /**
+   * @return true si le libellé contient le texte, sans le construire
+   */
+  public boolean isCite(String texte) {
+    return texte != null && (libelle != null ? libelle : modele).contains(texte);
+  }
+
+  /**
+   * @return true si le libellé contient le nom de la classe appelante, sans le construire
+   */
+  public boolean isAppelantCite() {
+    return appelant != null && (modele.contains(APPELANT) || modele.contains(FICHIER_APPELANT));
+  }
+
+  public String getLibelle() {
+    if (libelle == null) {
+      String rendu = modele;
+      if (rendu.contains(FICHIER_APPELANT)) {
+        rendu = rendu.replace(FICHIER_APPELANT, appelant.toString());
+      }
+      if (rendu.contains(APPELANT)) {
+        rendu = rendu.replace(APPELANT, appelant.getNom());
+      }
+      libelle = rendu;
+    }
+    return libelle;
+  }
+
+  @Override
+  public String toString() {
+    return getLibelle();
+  }
+}
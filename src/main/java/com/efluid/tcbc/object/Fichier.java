@@ -10,7 +10,9 @@ public class Fichier {
   private Jar jar;
   private String nom;
   private String extension;
-  private List<String> erreurs = new ArrayList<>();
+  /* Alloué à la première erreur : la plupart des fichiers n'en ont aucune */
+  private List<Erreur> erreurs;
+  private int nbErreurs;
 
   public Fichier(Jar jar, String nom, String extension) {
     this.jar = jar;
@@ -18,8 +20,19 @@ public class Fichier {
     this.extension = extension;
   }
 
-  public void addErreur(String erreur) {
+  public void addErreur(Erreur erreur) {
+    if (erreurs == null) {
+      erreurs = new ArrayList<>();
+    }
     erreurs.add(erreur);
+    nbErreurs++;
+  }
+
+  /**
+   * Comptabilise une erreur sans la conserver (erreurs écrites au fil de l'eau dans un rapport)
+   */
+  public void compterErreur() {
+    nbErreurs++;
   }
 
   @Override
@@ -36,7 +49,7 @@ public class Fichier {
   }
 
   public int getNbErreurs() {
-    return erreurs.size();
+    return nbErreurs;
   }
 
   public String getNom() {
@@ -68,7 +81,10 @@ public class Fichier {
     return "Fichier " + getNom() + "." + getExtension() + " contenue par la jar " + jar.getNom();
   }
 
-  public List<String> getErreurs() {
-    return erreurs;
+  /**
+   * @return les erreurs conservées, vide si elles ne sont que comptabilisées
+   */
+  public List<Erreur> getErreurs() {
+    return erreurs != null ? erreurs : Collections.emptyList();
   }
 }
@@ -10,7 +10,18 @@ public class Jar implements Comparable<Jar> {
 
   private String nom;
   private Set<Fichier> classesEnErreur = new HashSet<>();
-  private Map<String, AtomicLong> dependences = new HashMap<>();
+  /* Classes référencées non trouvées (ou non chargées) avec le libellé de la première erreur rencontrée */
+  private Map<String, String> classesReferenceesNonTrouvees = new LinkedHashMap<>();
+  /* Exclusions appliquées lors du scan du jar, par type d'exclusion */
+  private Map<String, Set<String>> exclusions = new TreeMap<>();
+  /* Jars et répertoires contenant les classes référencées (et leur hiérarchie), utilisés pour invalider le cache de scan */
+  private Set<String> jarsResolus = new TreeSet<>();
+  /* Classes référencées introuvables dans le classpath et le JDK */
+  private Set<String> classesAbsentes = new TreeSet<>();
+  /* Classes du jar masquées par une copie d'un jar précédent du classpath, avec le jar utilisé au runtime */
+  private Map<String, String> classesMasquees = new TreeMap<>();
+  /* Compteur des dépendances du jar : celui du contrôle qui le scanne, sinon propre au jar */
+  private CompteurDependances compteurDependances;
 
   public Jar(String nom) {
     this.nom = nom;
@@ -43,11 +54,100 @@ public class Jar implements Comparable<Jar> {
     return !classesEnErreur.isEmpty();
   }
 
+  public void setCompteurDependances(CompteurDependances compteurDependances) {
+    this.compteurDependances = compteurDependances;
+  }
+
+  /**
+   * @deprecated les dépendances sont comptées par le contrôle qui scanne le jar, voir TestDependenceJar#getDependances(Jar)
+   */
+  @Deprecated
   public void addDependence(String dependance) {
-    dependences.computeIfAbsent(dependance, k -> new AtomicLong(0)).incrementAndGet();
+    addDependence(dependance, 1);
+  }
+
+  /**
+   * @deprecated les dépendances sont comptées par le contrôle qui scanne le jar, voir TestDependenceJar#getDependances(Jar)
+   */
+  @Deprecated
+  public void addDependence(String dependance, long nombre) {
+    getCompteurDependances().ajouterDependance(this, dependance, nombre);
   }
 
+  /**
+   * @deprecated les dépendances sont comptées par le contrôle qui scanne le jar, voir TestDependenceJar#getDependances(Jar)
+   */
+  @Deprecated
   public Map<String, AtomicLong> getDependences() {
+    Map<String, AtomicLong> dependences = new LinkedHashMap<>();
+    getCompteurDependances().getDependances(this).forEach((dependance, nombre) -> dependences.put(dependance, new AtomicLong(nombre)));
     return Collections.unmodifiableMap(dependences);
   }
+
+  private synchronized CompteurDependances getCompteurDependances() {
+    if (compteurDependances == null) {
+      compteurDependances = new DependancesJar();
+    }
+    return compteurDependances;
+  }
+
+  public void addClasseReferenceeNonTrouvee(String nomClasse, String libelle) {
+    classesReferenceesNonTrouvees.putIfAbsent(nomClasse, libelle);
+  }
+
+  public Map<String, String> getClassesReferenceesNonTrouvees() {
+    return Collections.unmodifiableMap(classesReferenceesNonTrouvees);
+  }
+
+  public void addExclusion(String typeExclusion, String exclusion) {
+    exclusions.computeIfAbsent(typeExclusion, k -> new TreeSet<>()).add(exclusion);
+  }
+
+  public Map<String, Set<String>> getExclusions() {
+    return Collections.unmodifiableMap(exclusions);
+  }
+
+  public void addJarResolu(String chemin) {
+    if (!nom.equals(chemin)) {
+      jarsResolus.add(chemin);
+    }
+  }
+
+  public Set<String> getJarsResolus() {
+    return Collections.unmodifiableSet(jarsResolus);
+  }
+
+  public void addClasseAbsente(String nomClasse) {
+    classesAbsentes.add(nomClasse);
+  }
+
+  public Set<String> getClassesAbsentes() {
+    return Collections.unmodifiableSet(classesAbsentes);
+  }
+
+  public void addClasseMasquee(String nomClasse, String jarUtilise) {
+    classesMasquees.put(nomClasse, jarUtilise);
+  }
+
+  public Map<String, String> getClassesMasquees() {
+    return Collections.unmodifiableMap(classesMasquees);
+  }
+
+  /**
+   * Dépendances d'un jar qui n'est pas scanné par un contrôle des dépendances
+   */
+  private static final class DependancesJar implements CompteurDependances {
+
+    private final Map<String, Long> dependances = new HashMap<>();
+
+    @Override
+    public synchronized void ajouterDependance(Jar jar, String dependance, long nombre) {
+      dependances.merge(dependance, nombre, Long::sum);
+    }
+
+    @Override
+    public synchronized Map<String, Long> getDependances(Jar jar) {
+      return new HashMap<>(dependances);
+    }
+  }
 }
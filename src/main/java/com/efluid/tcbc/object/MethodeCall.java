@@ -3,18 +3,16 @@ package com.efluid.tcbc.object;
 import java.util.StringJoiner;
 
 /**
- * Représente l'appel d'une méthode.
+ * Représente l'appel d'une méthode, indépendamment de la classe appelante.
  */
 public class MethodeCall {
 
-  private Fichier classeReferencante;
   private Class<?> classeReferencee;
   private String nom;
   private Class<?>[] typesEntree;
   private Class<?> typeRetour;
 
-  public MethodeCall(Fichier classeReferencante, Class<?> classeReferencee, String nom, Class<?>[] typeEntree, Class<?> typeRetour) {
-    this.classeReferencante = classeReferencante;
+  public MethodeCall(Class<?> classeReferencee, String nom, Class<?>[] typeEntree, Class<?> typeRetour) {
     this.classeReferencee = classeReferencee;
     this.nom = nom;
     this.typesEntree = typeEntree;
@@ -37,19 +35,25 @@ public class MethodeCall {
     return typeRetour;
   }
 
-  @Override
-  public String toString() {
-    return "[" + classeReferencante.getNom() + " appelle la méthode " + typeRetour.getName() + " " + classeReferencee.getName() + "#" + nom + getStringParameterTypes(typesEntree) + "]";
+  /**
+   * @return le modèle du libellé de l'appel de la méthode, la classe appelante étant désignée par {@link Erreur#APPELANT}
+   */
+  public String getModeleLibelle() {
+    return "[" + Erreur.APPELANT + " appelle la méthode " + getNom(typeRetour) + " " + classeReferencee.getName() + "#" + nom + getStringParameterTypes(typesEntree) + "]";
   }
 
   /**
-   * Sert uniquement pour l'affichage dans le log
+   * Sert uniquement pour l'affichage dans le log. Un type qui n'a pu être chargé (erreur déjà remontée) est affiché "null"
    */
   private static String getStringParameterTypes(Class<?>[] parameterTypes) {
     StringJoiner retour = new StringJoiner(",", "(", ")");
     for (Class<?> parametre : parameterTypes) {
-      retour.add(parametre.toString());
+      retour.add(String.valueOf(parametre));
     }
     return retour.toString();
   }
+
+  private static String getNom(Class<?> type) {
+    return type != null ? type.getName() : String.valueOf((Object) null);
+  }
 }
@@ -0,0 +1,23 @@
+package com.efluid.tcbc.object;
+
+/**
+ * Nature d'une erreur remontée par le contrôle du byte code
+ */
+public enum TypeErreur {
+  LECTURE_BYTE_CODE("Byte code de la classe illisible"),
+  CHARGEMENT_CLASSE("Classe (ou type référencé) ne pouvant être chargée"),
+  CLASSE_NON_TROUVEE("Classe propriétaire de la méthode référencée non trouvée"),
+  METHODE_NON_TROUVEE("Méthode référencée non trouvée"),
+  TYPE_RETOUR_DIFFERENT("Type de retour de la méthode référencée différent"),
+  APPEL_METHODE("Erreur lors de la résolution de la méthode référencée");
+
+  private final String description;
+
+  TypeErreur(String description) {
+    this.description = description;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+}
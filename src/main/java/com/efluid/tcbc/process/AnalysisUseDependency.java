@@ -1,14 +1,15 @@
 package com.efluid.tcbc.process;
 
 import com.efluid.tcbc.TestAPIsDependenceJar;
-import com.efluid.tcbc.object.Fichier;
-import com.efluid.tcbc.utils.ScanneClasspathUtils;
-import javassist.NotFoundException;
+import com.efluid.tcbc.object.*;
 
 public class AnalysisUseDependency extends ReadByteCodeClass<TestAPIsDependenceJar> {
 
+  private final OriginesClasses originesClasses;
+
   public AnalysisUseDependency(TestAPIsDependenceJar control, Fichier currentReadingClass) {
     super(control, currentReadingClass);
+    this.originesClasses = control.getOriginesClasses();
   }
 
   /**
@@ -16,14 +17,18 @@ public class AnalysisUseDependency extends ReadByteCodeClass<TestAPIsDependenceJ
    * Si c'est le cas, alors on stocke l'API appelée.
    */
   @Override
-  protected void analyserMethode(String nomClasse, String nomMethode, String signature) throws NotFoundException {
-    final Class<?> aClass = toClass(nomClasse);
-    if (aClass == null) {
-      return;
-    }
-    String path = ScanneClasspathUtils.getCheminDeLaClasse(aClass);
+  protected void analyserMethode(String nomClasse, String nomMethode, String signature) {
+    String path = originesClasses.getOrigine(nomClasse);
     if (path != null && path.contains(getControl().getLibraryControl())) {
-      getControl().getApis().add(getControl().getFichierEnCours().getNom() + " use : " +aClass + " " + nomMethode + " " + signature);
+      getControl().addApi(getControl().getFichierEnCours().getNom() + " use : " + getLibelleClasse(nomClasse) + " " + nomMethode + " " + signature);
     }
   }
+
+  /**
+   * Libellé de la classe identique à <code>Class.toString()</code>, lu depuis l'index du classpath
+   */
+  private String getLibelleClasse(String nomClasse) {
+    ClasseIndexee classe = getControl().getIndexClasspath().getClasse(nomClasse);
+    return (classe != null && classe.isInterface() ? "interface " : "class ") + nomClasse;
+  }
 }
@@ -2,6 +2,8 @@ package com.efluid.tcbc.process;
 
 import static java.lang.System.lineSeparator;
 
+import java.util.Map;
+
 import org.slf4j.*;
 
 import com.efluid.tcbc.TestControleByteCode;
@@ -27,15 +29,32 @@ public class BilanControleByteCode {
   }
 
   private void loggerSynthese() {
-    TestControleByteCode.doLogList(controle.getClassesReferenceesNonTrouveesOuChargees().values(), "Classes référencées non trouvées :");
-    LOG.debug("Classes en erreur lors du chargement : {}", controle.getClassesReferenceesNonTrouveesOuChargees().size());
-    controle.getClassesReferenceesNonTrouveesOuChargees().values().forEach(classe ->
+    Map<String, String> classesReferenceesNonTrouveesOuChargees = controle.getClassesReferenceesNonTrouveesOuChargees();
+    TestControleByteCode.doLogList(classesReferenceesNonTrouveesOuChargees.values(), "Classes référencées non trouvées :");
+    LOG.debug("Classes en erreur lors du chargement : {}", classesReferenceesNonTrouveesOuChargees.size());
+    classesReferenceesNonTrouveesOuChargees.values().forEach(classe ->
       LOG.debug("\t{}", classe));
     LOG.debug("Jars en erreur : {}", controle.getJarsTraites().stream().filter(Jar::isErreur).count());
     LOG.debug("=== Synthèse classes en erreur ({}) ===", controle.getJarsTraites().stream().mapToLong(jar -> jar.getClassesEnErreur().size()).sum());
     controle.getJarsTraites().stream().filter(Jar::isErreur).forEach(jar ->
       LOG.debug("\t{} : {}", jar.getNom(), jar.getClassesEnErreur().size() + lineSeparator()));
+    loggerClassesMasquees();
+    CacheVerdicts cacheVerdicts = controle.getCacheVerdicts();
+    LOG.debug("Méthodes référencées distinctes vérifiées : {} (références déjà vérifiées : {}, à vérifier : {})", cacheVerdicts.getTaille(), cacheVerdicts.getSucces(),
+      cacheVerdicts.getEchecs());
+    CacheEchecsChargement cacheEchecsChargement = controle.getCacheEchecsChargement();
+    LOG.debug("Classes en échec de chargement : {} (chargements évités : {})", cacheEchecsChargement.getTaille(), cacheEchecsChargement.getChargementsEvites());
     LOG.debug("Nombre d'erreurs totales : {}", controle.getJarsTraites().stream().flatMap(jar -> jar.getClassesEnErreur().stream()).mapToInt(Fichier::getNbErreurs).sum());
+    controle.getNombreErreursParType().forEach((type, nombre) -> LOG.debug("\t{} : {}", type, nombre));
+  }
+
+  /**
+   * Classes jamais utilisées au runtime : une copie d'un jar précédent du classpath l'emporte
+   */
+  private void loggerClassesMasquees() {
+    LOG.debug("Classes masquées par un jar précédent du classpath : {}", controle.getJarsTraites().stream().mapToInt(jar -> jar.getClassesMasquees().size()).sum());
+    controle.getJarsTraites().forEach(jar -> jar.getClassesMasquees().forEach((classe, jarUtilise) ->
+      LOG.debug("\t{} ({}) masquée par {}", classe, jar.getNom(), jarUtilise)));
   }
 
   private void loggerJar(Jar jar) {
@@ -0,0 +1,71 @@
+package com.efluid.tcbc.process;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.*;
+
+import org.slf4j.*;
+
+import com.efluid.tcbc.object.Jar;
+
+/**
+ * Cache de scan d'un contrôle : les résultats des jars inchangés sont repris du cache, ceux des jars scannés y sont conservés (voir
+ * {@link CacheScan}). Un fichier par classe de contrôle.
+ */
+class CacheControle {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CacheControle.class);
+
+  private final CacheScan cache;
+  /* Classes déjà référencées par le jar en cours, dont la hiérarchie a été enregistrée */
+  private final ThreadLocal<Set<String>> classesReferencees = ThreadLocal.withInitial(HashSet::new);
+
+  CacheControle(Path fichier, String configuration, String... classpath) {
+    cache = new CacheScan(fichier, configuration, classpath);
+    cache.charger();
+    cache.preparerEmpreintes();
+  }
+
+  /**
+   * @return les résultats du jar conservés dans le cache s'ils sont toujours valides, <code>null</code> si le jar doit être scanné
+   */
+  Map<String, Object> getResultats(Jar jar, Supplier<IndexClasspath> index) {
+    Map<String, Object> resultats = cache.getResultats(jar, index);
+    if (resultats != null) {
+      LOG.debug("Jar servi par le cache : {}", jar);
+    }
+    return resultats;
+  }
+
+  /**
+   * Enregistre l'origine de la classe référencée par le jar et de toute sa hiérarchie, une seule fois par jar
+   */
+  void enregistrerReference(String nomClasse, Jar jar, IndexClasspath index) {
+    if (!nomClasse.startsWith("[") && classesReferencees.get().add(nomClasse)) {
+      index.enregistrerHierarchie(nomClasse, jar);
+    }
+  }
+
+  /**
+   * Fin du jar en cours du thread
+   */
+  void finJar() {
+    classesReferencees.remove();
+  }
+
+  /**
+   * Conserve les résultats des jars scannés, fournis par le contrôle
+   */
+  void sauvegarder(List<Jar> jarsScannes, BiConsumer<Jar, Map<String, Object>> exportResultats) {
+    for (Jar jar : jarsScannes) {
+      Map<String, Object> resultats = new LinkedHashMap<>();
+      exportResultats.accept(jar, resultats);
+      cache.enregistrer(jar, resultats);
+    }
+    cache.sauvegarder();
+  }
+
+  void logBilan() {
+    LOG.info("Cache de scan : {} jar(s) servi(s) par le cache, {} jar(s) scanné(s)", cache.getNbJarsServis(), cache.getNbJarsScannes());
+  }
+}
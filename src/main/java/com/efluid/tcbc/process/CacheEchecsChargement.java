@@ -0,0 +1,48 @@
+package com.efluid.tcbc.process;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Echecs de chargement de classe rencontrés pendant le scan, partagés par tous les threads.
+ * <p>
+ * Une classe manquante est souvent référencée des milliers de fois : seul le premier chargement sollicite le classLoader (et construit
+ * l'exception avec sa pile d'appels), les suivants réutilisent le libellé de l'échec. Un chargement abandonné (celui de la même classe est
+ * bloqué dans un autre thread) est un échec temporaire : il n'est pas conservé, la classe sera de nouveau chargée.
+ */
+public class CacheEchecsChargement {
+
+  private final Map<String, String> echecs = new ConcurrentHashMap<>();
+  private final LongAdder chargementsEvites = new LongAdder();
+
+  /**
+   * @return le libellé de l'échec de chargement de la classe, <code>null</code> si aucun échec n'a été rencontré
+   */
+  String get(String nomClasse) {
+    String echec = echecs.get(nomClasse);
+    if (echec != null) {
+      chargementsEvites.increment();
+    }
+    return echec;
+  }
+
+  /**
+   * @return true si l'échec est conservé, false s'il est temporaire
+   */
+  boolean put(String nomClasse, Throwable cause, String echec) {
+    if (cause instanceof ChargeurClasspath.ChargementAbandonneException) {
+      return false;
+    }
+    echecs.putIfAbsent(nomClasse, echec);
+    return true;
+  }
+
+  public long getChargementsEvites() {
+    return chargementsEvites.sum();
+  }
+
+  public int getTaille() {
+    return echecs.size();
+  }
+}
@@ -0,0 +1,302 @@
+package com.efluid.tcbc.process;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.*;
+
+import org.slf4j.*;
+import org.yaml.snakeyaml.*;
+
+import com.efluid.tcbc.object.Jar;
+
+/**
+ * Cache persistant des résultats du scan, par élément du classpath (jar ou répertoire classes).
+ * <p>
+ * Les résultats d'un jar sont réutilisés si :
+ * <ul>
+ * <li>le contenu du jar est inchangé (empreinte SHA-256),</li>
+ * <li>le contenu de chaque jar contenant une classe référencée (ou une classe de sa hiérarchie) est inchangé,</li>
+ * <li>les éléments placés avant le jar et avant chacun de ces jars sont les mêmes, dans le même ordre (un élément inséré ou déplacé pourrait
+ * masquer leurs classes),</li>
+ * <li>les classes référencées introuvables le sont toujours.</li>
+ * </ul>
+ * Tout le cache est invalidé si la configuration du contrôle change (fichier yaml, options, version de java).<br>
+ * Pour éviter de recalculer les empreintes à chaque exécution, elles sont conservées avec la taille et la date de modification du fichier.
+ */
+public class CacheScan {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CacheScan.class);
+
+  private static final String CONFIGURATION = "configuration";
+  private static final String EMPREINTES = "empreintes";
+  private static final String JARS = "jars";
+  private static final String SIGNATURE = "signature";
+  private static final String EMPREINTE = "empreinte";
+  private static final String CONTEXTE = "contexte";
+  private static final String PREFIXES = "prefixes";
+  private static final String CLASSES_ABSENTES = "classesAbsentes";
+  private static final String RESULTATS = "resultats";
+
+  private final Path fichier;
+  private final String configuration;
+  private final List<String> classpath;
+  /* Empreinte des éléments placés avant chaque élément du classpath, dans l'ordre */
+  private final Map<String, String> prefixes = new HashMap<>();
+
+  private Map<String, Map<String, Object>> entreesPrecedentes = Collections.emptyMap();
+  private Map<String, Map<String, Object>> empreintesPrecedentes = Collections.emptyMap();
+
+  private final Map<String, Map<String, Object>> entrees = new LinkedHashMap<>();
+  private final Map<String, Map<String, Object>> empreintes = new ConcurrentHashMap<>();
+
+  private int nbJarsServis;
+  private int nbJarsScannes;
+
+  /**
+   * @param fichier fichier du cache
+   * @param configuration description de la configuration du contrôle, le cache est invalidé si elle change
+   * @param classpath éléments du classpath dans l'ordre
+   */
+  public CacheScan(Path fichier, String configuration, String... classpath) {
+    this.fichier = fichier;
+    this.configuration = empreinte(configuration.getBytes(UTF_8));
+    this.classpath = Arrays.asList(classpath);
+    // Un élément présent plusieurs fois dans le classpath est retenu à sa première position
+    for (int position = classpath.length - 1; position >= 0; position--) {
+      prefixes.put(classpath[position], empreinte(String.join(File.pathSeparator, this.classpath.subList(0, position)).getBytes(UTF_8)));
+    }
+  }
+
+  /**
+   * Lit le cache de l'exécution précédente s'il existe et si la configuration est identique
+   */
+  @SuppressWarnings("unchecked")
+  public void charger() {
+    if (!Files.isRegularFile(fichier)) {
+      LOG.debug("Cache de scan absent : {}", fichier);
+      return;
+    }
+    try (Reader reader = Files.newBufferedReader(fichier, UTF_8)) {
+      Map<String, Object> contenu = new Yaml().load(reader);
+      if (contenu == null || !configuration.equals(contenu.get(CONFIGURATION))) {
+        LOG.debug("Configuration modifiée, cache de scan ignoré : {}", fichier);
+        return;
+      }
+      entreesPrecedentes = (Map<String, Map<String, Object>>) contenu.get(JARS);
+      empreintesPrecedentes = (Map<String, Map<String, Object>>) contenu.get(EMPREINTES);
+    } catch (Exception ex) {
+      LOG.error("Cache de scan illisible, il est ignoré : {}", fichier, ex);
+    }
+  }
+
+  /**
+   * @return les résultats conservés pour le jar s'ils sont toujours valides, <code>null</code> sinon
+   */
+  @SuppressWarnings("unchecked")
+  public Map<String, Object> getResultats(Jar jar, Supplier<IndexClasspath> index) {
+    Map<String, Object> entree = entreesPrecedentes.get(jar.getNom());
+    if (entree == null || !isValide(jar.getNom(), entree, index)) {
+      nbJarsScannes++;
+      return null;
+    }
+    entrees.put(jar.getNom(), entree);
+    ((Map<String, String>) entree.get(CONTEXTE)).keySet().forEach(jar::addJarResolu);
+    ((List<String>) entree.get(CLASSES_ABSENTES)).forEach(jar::addClasseAbsente);
+    nbJarsServis++;
+    return (Map<String, Object>) entree.get(RESULTATS);
+  }
+
+  @SuppressWarnings("unchecked")
+  private boolean isValide(String chemin, Map<String, Object> entree, Supplier<IndexClasspath> index) {
+    Map<String, String> prefixesEntree = (Map<String, String>) entree.get(PREFIXES);
+    if (prefixesEntree == null || !Objects.equals(entree.get(EMPREINTE), getEmpreinte(chemin)) || isMasquable(chemin, prefixesEntree)) {
+      return false;
+    }
+    Map<String, String> contexte = (Map<String, String>) entree.get(CONTEXTE);
+    for (Map.Entry<String, String> jarResolu : contexte.entrySet()) {
+      if (!jarResolu.getValue().equals(getEmpreinte(jarResolu.getKey())) || isMasquable(jarResolu.getKey(), prefixesEntree)) {
+        return false;
+      }
+    }
+    List<String> classesAbsentes = (List<String>) entree.get(CLASSES_ABSENTES);
+    return classesAbsentes.isEmpty() || classesAbsentes.stream().allMatch(classe -> index.get().getClasse(classe) == null);
+  }
+
+  /**
+   * Un élément du classpath inséré ou déplacé avant le jar peut masquer certaines de ses classes
+   */
+  private boolean isMasquable(String chemin, Map<String, String> prefixesEntree) {
+    String prefixe = prefixes.get(chemin);
+    return prefixe == null || !prefixe.equals(prefixesEntree.get(chemin));
+  }
+
+  /**
+   * Conserve les résultats d'un jar scanné, avec les empreintes des jars qu'il a résolus
+   */
+  public void enregistrer(Jar jar, Map<String, Object> resultats) {
+    Map<String, Object> entree = new LinkedHashMap<>();
+    entree.put(EMPREINTE, getEmpreinte(jar.getNom()));
+    Map<String, String> contexte = new TreeMap<>();
+    jar.getJarsResolus().forEach(chemin -> contexte.put(chemin, getEmpreinte(chemin)));
+    entree.put(CONTEXTE, contexte);
+    Map<String, String> prefixesEntree = new TreeMap<>();
+    Stream.concat(Stream.of(jar.getNom()), contexte.keySet().stream()).filter(prefixes::containsKey)
+      .forEach(chemin -> prefixesEntree.put(chemin, prefixes.get(chemin)));
+    entree.put(PREFIXES, prefixesEntree);
+    entree.put(CLASSES_ABSENTES, new ArrayList<>(jar.getClassesAbsentes()));
+    entree.put(RESULTATS, resultats);
+    entrees.put(jar.getNom(), entree);
+  }
+
+  /**
+   * Ecrit le cache : seuls les jars du scan en cours sont conservés
+   */
+  public void sauvegarder() {
+    Map<String, Object> contenu = new LinkedHashMap<>();
+    contenu.put(CONFIGURATION, configuration);
+    contenu.put(EMPREINTES, new TreeMap<>(empreintes));
+    contenu.put(JARS, entrees);
+    DumperOptions options = new DumperOptions();
+    options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    try {
+      if (fichier.getParent() != null) {
+        Files.createDirectories(fichier.getParent());
+      }
+      Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(temporaire, UTF_8)) {
+        new Yaml(options).dump(contenu, writer);
+      }
+      Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException ex) {
+      LOG.error("Erreur lors de l'écriture du cache de scan {}", fichier, ex);
+    }
+  }
+
+  /**
+   * Calcule en parallèle les empreintes des éléments du classpath non encore connues
+   */
+  public void preparerEmpreintes() {
+    classpath.parallelStream().forEach(this::getEmpreinte);
+  }
+
+  /**
+   * @return l'empreinte du contenu du jar ou du répertoire, <code>null</code> s'il n'existe pas
+   */
+  String getEmpreinte(String chemin) {
+    Path path = Paths.get(chemin);
+    if (!Files.exists(path)) {
+      return null;
+    }
+    Map<String, Object> empreinte = empreintes.computeIfAbsent(chemin, cle -> calculerEmpreinte(path));
+    return (String) empreinte.get(EMPREINTE);
+  }
+
+  /**
+   * L'empreinte de l'exécution précédente est reprise si la taille et la date de modification sont inchangées
+   */
+  private Map<String, Object> calculerEmpreinte(Path path) {
+    try {
+      String signature = getSignature(path);
+      Map<String, Object> precedente = empreintesPrecedentes.get(path.toString());
+      if (precedente != null && signature.equals(precedente.get(SIGNATURE))) {
+        return precedente;
+      }
+      Map<String, Object> empreinte = new LinkedHashMap<>();
+      empreinte.put(SIGNATURE, signature);
+      empreinte.put(EMPREINTE, Files.isDirectory(path) ? empreinteRepertoire(path) : empreinteFichier(path));
+      return empreinte;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Taille et date de modification d'un fichier, nombre de fichiers, taille totale et date de modification la plus récente d'un répertoire
+   */
+  private static String getSignature(Path path) throws IOException {
+    if (!Files.isDirectory(path)) {
+      return Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis();
+    }
+    long[] signature = new long[3];
+    Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+
+      @Override
+      public FileVisitResult visitFile(Path fichier, BasicFileAttributes attrs) {
+        signature[0]++;
+        signature[1] += attrs.size();
+        signature[2] = Math.max(signature[2], attrs.lastModifiedTime().toMillis());
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return signature[0] + ":" + signature[1] + ":" + signature[2];
+  }
+
+  private static String empreinteFichier(Path path) throws IOException {
+    MessageDigest digest = newDigest();
+    try (InputStream is = Files.newInputStream(path)) {
+      mettreAJour(digest, is);
+    }
+    return toHexa(digest.digest());
+  }
+
+  /**
+   * Empreinte des chemins relatifs et du contenu de chaque fichier du répertoire, parcourus dans un ordre stable
+   */
+  private static String empreinteRepertoire(Path repertoire) throws IOException {
+    MessageDigest digest = newDigest();
+    List<Path> fichiers;
+    try (Stream<Path> parcours = Files.walk(repertoire)) {
+      fichiers = parcours.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+    for (Path fichier : fichiers) {
+      digest.update(repertoire.relativize(fichier).toString().getBytes(UTF_8));
+      try (InputStream is = Files.newInputStream(fichier)) {
+        mettreAJour(digest, is);
+      }
+    }
+    return toHexa(digest.digest());
+  }
+
+  private static void mettreAJour(MessageDigest digest, InputStream is) throws IOException {
+    byte[] tampon = new byte[64 * 1024];
+    int lus;
+    while ((lus = is.read(tampon)) != -1) {
+      digest.update(tampon, 0, lus);
+    }
+  }
+
+  private static String empreinte(byte[] contenu) {
+    return toHexa(newDigest().digest(contenu));
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static String toHexa(byte[] octets) {
+    StringBuilder hexa = new StringBuilder(octets.length * 2);
+    for (byte octet : octets) {
+      hexa.append(Character.forDigit((octet >> 4) & 0xF, 16)).append(Character.forDigit(octet & 0xF, 16));
+    }
+    return hexa.toString();
+  }
+
+  public int getNbJarsServis() {
+    return nbJarsServis;
+  }
+
+  public int getNbJarsScannes() {
+    return nbJarsScannes;
+  }
+}
@@ -0,0 +1,51 @@
+package com.efluid.tcbc.process;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verdicts des méthodes référencées déjà vérifiées pendant le scan, partagés par tous les threads.
+ * <p>
+ * Une même référence (ex : java.lang.String#equals(Ljava/lang/Object;)Z) apparaît dans le constant pool d'un grand nombre de classes : elle n'est
+ * vérifiée qu'une fois, les références suivantes réutilisent le verdict. Un verdict temporaire (chargement de classe abandonné) n'est pas conservé :
+ * la référence sera de nouveau vérifiée.
+ */
+public class CacheVerdicts {
+
+  private final Map<String, VerdictMethode> verdicts = new ConcurrentHashMap<>();
+  private final LongAdder succes = new LongAdder();
+  private final LongAdder echecs = new LongAdder();
+
+  static String cle(String nomClasse, String nomMethode, String descripteur) {
+    return nomClasse + '#' + nomMethode + descripteur;
+  }
+
+  /**
+   * @return le verdict de la référence, <code>null</code> si elle n'a pas encore été vérifiée
+   */
+  VerdictMethode get(String cle) {
+    VerdictMethode verdict = verdicts.get(cle);
+    (verdict != null ? succes : echecs).increment();
+    return verdict;
+  }
+
+  void put(String cle, VerdictMethode verdict) {
+    if (verdict.isTemporaire()) {
+      return;
+    }
+    verdicts.putIfAbsent(cle, verdict.isValide() ? VerdictMethode.VALIDE : verdict);
+  }
+
+  public long getSucces() {
+    return succes.sum();
+  }
+
+  public long getEchecs() {
+    return echecs.sum();
+  }
+
+  public int getTaille() {
+    return verdicts.size();
+  }
+}
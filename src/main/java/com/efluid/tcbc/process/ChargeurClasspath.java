@@ -0,0 +1,310 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.security.ProtectionDomain;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.*;
+
+import com.efluid.tcbc.utils.TableMethodes;
+
+/**
+ * Chargeur isolé des classes du classpath scanné, utilisé pour vérifier par réflexion les méthodes référencées.
+ * <p>
+ * Les classes sont chargées par un URLClassLoader construit depuis le classpath scanné (et non par le classLoader du test), sans être
+ * initialisées : aucun bloc static n'est exécuté (drivers JDBC, configuration des logs, pools de threads...). Seules les classes du JDK sont
+ * déléguées au classLoader de la JVM.<br>
+ * Chaque classe chargée est liée : son byte code est vérifié (VerifyError) comme lors d'un chargement par <code>Class.forName</code>.<br>
+ * La classe en cours de traitement est définie depuis le contenu déjà lu par le scan ({@link ContenuFichier}) plutôt que recherchée et relue
+ * dans le classpath.<br>
+ * Le chargeur est remplacé après un nombre de jars ou de classes traités : l'ancien est fermé dès qu'aucune classe en cours de traitement ne
+ * l'utilise plus, ses classes peuvent alors être déchargées (metaspace).<br>
+ * Un thread de surveillance signale tout chargement qui dépasse le délai, avec la pile du thread bloqué. Le chargement bloqué n'est ni
+ * interrompu ni abandonné (la lecture d'un jar ou la définition d'une classe ne réagit pas à l'interruption) : son thread reste bloqué jusqu'à
+ * sa fin. En attendant, le chargeur est remplacé pour que les autres threads ne se bloquent pas sur ses verrous, et les chargements de la même
+ * classe échouent aussitôt ({@link ChargementAbandonneException}). Une fois le chargement bloqué terminé, la classe peut de nouveau être
+ * chargée.
+ */
+public class ChargeurClasspath implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ChargeurClasspath.class);
+
+  private final URL[] urls;
+  private final int nbJarsParChargeur;
+  private final int nbClassesParChargeur;
+  private final long delaiChargement;
+
+  private Chargeur chargeur;
+  private int nbJars;
+  private int nbClasses;
+  private int nbChargeurs;
+
+  /* Chargement en cours de chaque thread de scan, surveillé si un délai est défini */
+  private final Map<Thread, Chargement> chargementsEnCours = new ConcurrentHashMap<>();
+  /* Classes dont un chargement dépasse le délai, tant qu'il n'est pas terminé */
+  private final Set<String> chargementsBloques = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService surveillance;
+
+  /**
+   * @param nbJarsParChargeur nombre de jars après lesquels le chargeur est remplacé, 0 pour ne jamais le remplacer
+   * @param nbClassesParChargeur nombre de classes après lesquelles le chargeur est remplacé, 0 pour ne jamais le remplacer
+   * @param delaiChargement délai en millisecondes au-delà duquel un chargement est signalé, 0 pour ne pas surveiller les chargements
+   */
+  public ChargeurClasspath(String[] classpath, int nbJarsParChargeur, int nbClassesParChargeur, long delaiChargement) {
+    this.urls = Arrays.stream(classpath).map(ChargeurClasspath::toUrl).filter(Objects::nonNull).toArray(URL[]::new);
+    this.nbJarsParChargeur = nbJarsParChargeur;
+    this.nbClassesParChargeur = nbClassesParChargeur;
+    this.delaiChargement = TimeUnit.MILLISECONDS.toNanos(delaiChargement);
+    if (delaiChargement > 0) {
+      surveillance = Executors.newSingleThreadScheduledExecutor(tache -> {
+        Thread thread = new Thread(tache, "tcbc-surveillance-chargements");
+        thread.setDaemon(true);
+        return thread;
+      });
+      long periode = Math.max(delaiChargement / 4, 10);
+      surveillance.scheduleAtFixedRate(this::surveiller, periode, periode, TimeUnit.MILLISECONDS);
+    } else {
+      surveillance = null;
+    }
+  }
+
+  private static URL toUrl(String chemin) {
+    try {
+      return new File(chemin).toURI().toURL();
+    } catch (MalformedURLException ex) {
+      LOG.error("Element du classpath ignoré : {}", chemin, ex);
+      return null;
+    }
+  }
+
+  /**
+   * @return le chargeur courant, utilisé jusqu'à sa libération (fin du traitement de la classe en cours)
+   */
+  public synchronized Chargeur acquerir() {
+    if (chargeur == null || chargeur.retire) {
+      chargeur = new Chargeur();
+      nbChargeurs++;
+      nbClasses = 0;
+      nbJars = 0;
+    }
+    chargeur.utilisateurs++;
+    Chargeur acquis = chargeur;
+    if (nbClassesParChargeur > 0 && ++nbClasses >= nbClassesParChargeur) {
+      retirer(acquis);
+    }
+    return acquis;
+  }
+
+  /**
+   * Fin d'un jar : le chargeur est remplacé si le nombre de jars par chargeur est atteint
+   */
+  public synchronized void finJar() {
+    if (chargeur != null && nbJarsParChargeur > 0 && ++nbJars >= nbJarsParChargeur) {
+      retirer(chargeur);
+    }
+  }
+
+  /**
+   * Le chargeur n'est plus fourni, il est fermé dès qu'il n'est plus utilisé
+   */
+  private synchronized void retirer(Chargeur retire) {
+    retire.retire = true;
+    if (retire.utilisateurs == 0) {
+      retire.fermer();
+    }
+  }
+
+  private synchronized void liberer(Chargeur libere) {
+    if (--libere.utilisateurs == 0 && libere.retire) {
+      libere.fermer();
+    }
+  }
+
+  /**
+   * Signale les chargements qui dépassent le délai : la classe est mise en échec jusqu'à la fin du chargement et le chargeur remplacé
+   */
+  private void surveiller() {
+    long maintenant = System.nanoTime();
+    chargementsEnCours.forEach((thread, chargement) -> {
+      if (!chargement.signale && maintenant - chargement.debut > delaiChargement) {
+        chargement.signale = true;
+        chargementsBloques.add(chargement.nomClasse);
+        retirer(chargement.chargeur);
+        Throwable pile = new Throwable("Pile du thread " + thread.getName());
+        pile.setStackTrace(thread.getStackTrace());
+        LOG.warn("Chargement de la classe {} bloqué depuis plus de {} ms", chargement.nomClasse, TimeUnit.NANOSECONDS.toMillis(delaiChargement), pile);
+      }
+    });
+  }
+
+  public synchronized int getNbChargeurs() {
+    return nbChargeurs;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (surveillance != null) {
+      surveillance.shutdownNow();
+    }
+    if (chargeur != null) {
+      retirer(chargeur);
+      chargeur = null;
+    }
+    if (nbChargeurs > 0) {
+      LOG.debug("Chargeurs isolés du classpath créés : {}", nbChargeurs);
+    }
+  }
+
+  /**
+   * Un chargeur du classpath, utilisé par les classes en cours de traitement
+   */
+  public final class Chargeur implements AutoCloseable {
+
+    private final ChargeurUrls classLoader = new ChargeurUrls(urls);
+    private int utilisateurs;
+    private boolean retire;
+
+    /**
+     * Charge et lie la classe sans l'initialiser
+     */
+    public Class<?> charger(String nomClasse) throws ClassNotFoundException {
+      return surveiller(nomClasse, () -> lier(Class.forName(nomClasse, false, classLoader)));
+    }
+
+    /**
+     * Définit et lie la classe depuis son contenu déjà lu (sans l'initialiser), sauf si elle est déjà chargée par ce chargeur
+     */
+    public Class<?> definir(String nomClasse, ContenuFichier contenu) throws ClassNotFoundException {
+      return surveiller(nomClasse, () -> lier(classLoader.definir(nomClasse, contenu.getOctets())));
+    }
+
+    /**
+     * Ni Class.forName sans initialisation ni defineClass ne lient la classe : la réflexion sur ses méthodes l'impose, sans exécuter son bloc
+     * static. La table des méthodes ainsi construite est celle utilisée ensuite par la résolution des méthodes référencées.<br>
+     * Un type introuvable dans la signature d'une méthode n'empêche pas le chargement : il est signalé par le contrôle des appels à cette méthode.
+     */
+    private Class<?> lier(Class<?> classe) {
+      try {
+        TableMethodes.de(classe);
+      } catch (NoClassDefFoundError ex) {
+        LOG.debug("Table des méthodes de {} incomplète : {}", classe.getName(), ex.toString());
+      }
+      return classe;
+    }
+
+    private Class<?> surveiller(String nomClasse, Chargement.Action chargement) throws ClassNotFoundException {
+      if (surveillance == null) {
+        return chargement.executer();
+      }
+      if (chargementsBloques.contains(nomClasse)) {
+        throw new ChargementAbandonneException(nomClasse + " : chargement abandonné, délai de " + TimeUnit.NANOSECONDS.toMillis(delaiChargement) + " ms dépassé");
+      }
+      Thread thread = Thread.currentThread();
+      Chargement enCours = new Chargement(nomClasse, this);
+      chargementsEnCours.put(thread, enCours);
+      try {
+        return chargement.executer();
+      } finally {
+        chargementsEnCours.remove(thread);
+        if (enCours.signale) {
+          chargementsBloques.remove(nomClasse);
+        }
+      }
+    }
+
+    /**
+     * Libère le chargeur : la classe en cours est traitée
+     */
+    @Override
+    public void close() {
+      liberer(this);
+    }
+
+    private void fermer() {
+      try {
+        classLoader.close();
+      } catch (IOException ex) {
+        LOG.error("Erreur lors de la fermeture du chargeur du classpath", ex);
+      }
+    }
+  }
+
+  /**
+   * Chargement refusé : celui de la même classe dépasse le délai et n'est pas terminé. L'échec est temporaire, il ne doit pas être conservé.
+   */
+  public static class ChargementAbandonneException extends ClassNotFoundException {
+
+    private static final long serialVersionUID = 1L;
+
+    ChargementAbandonneException(String message) {
+      super(message);
+    }
+  }
+
+  private static class Chargement {
+
+    private final String nomClasse;
+    private final Chargeur chargeur;
+    private final long debut = System.nanoTime();
+    private volatile boolean signale;
+
+    private Chargement(String nomClasse, Chargeur chargeur) {
+      this.nomClasse = nomClasse;
+      this.chargeur = chargeur;
+    }
+
+    @FunctionalInterface
+    private interface Action {
+
+      Class<?> executer() throws ClassNotFoundException;
+    }
+  }
+
+  /**
+   * Chargeur des jars et répertoires du classpath scanné, pouvant définir une classe depuis un contenu déjà lu
+   */
+  private static final class ChargeurUrls extends URLClassLoader {
+
+    static {
+      registerAsParallelCapable();
+    }
+
+    private ChargeurUrls(URL[] urls) {
+      super(urls, new ChargeurJdk());
+    }
+
+    private Class<?> definir(String nomClasse, ByteBuffer octets) {
+      synchronized (getClassLoadingLock(nomClasse)) {
+        Class<?> classe = findLoadedClass(nomClasse);
+        return classe != null ? classe : defineClass(nomClasse, octets, (ProtectionDomain) null);
+      }
+    }
+  }
+
+  /**
+   * Parent du chargeur isolé : classes du JDK uniquement, y compris celles des modules du JDK chargés par le classLoader applicatif (ex :
+   * jdk.jdi, jdk.attach)
+   */
+  private static final class ChargeurJdk extends ClassLoader {
+
+    static {
+      registerAsParallelCapable();
+    }
+
+    private ChargeurJdk() {
+      super(ClassLoader.getSystemClassLoader().getParent());
+    }
+
+    @Override
+    protected Class<?> findClass(String nomClasse) throws ClassNotFoundException {
+      URL ressource = ClassLoader.getSystemResource(nomClasse.replace('.', '/') + ".class");
+      if (ressource != null && "jrt".equals(ressource.getProtocol())) {
+        return ClassLoader.getSystemClassLoader().loadClass(nomClasse);
+      }
+      throw new ClassNotFoundException(nomClasse);
+    }
+  }
+}
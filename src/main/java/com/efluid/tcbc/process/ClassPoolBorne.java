@@ -0,0 +1,51 @@
+package com.efluid.tcbc.process;
+
+import java.util.*;
+
+import javassist.*;
+
+/**
+ * ClassPool dont le cache de CtClass est borné : au-delà de la capacité, les classes les moins récemment utilisées sont évincées.
+ * <p>
+ * Le ClassPool par défaut de javassist conserve toutes les classes lues pendant toute la vie de la JVM, la mémoire consommée croît alors avec
+ * la taille du classpath. Un ClassPool borné est créé pour chaque jar scanné puis abandonné en fin de jar.
+ */
+public class ClassPoolBorne extends ClassPool {
+
+  private final Map<String, CtClass> cache;
+
+  public ClassPoolBorne(final int capacite) {
+    super(null);
+    appendSystemPath();
+    cache = new LinkedHashMap<String, CtClass>(capacite, 0.75f, true) {
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CtClass> eldest) {
+        return size() > capacite;
+      }
+    };
+  }
+
+  /**
+   * Les types primitifs restent dans le cache d'origine du ClassPool
+   */
+  @Override
+  protected synchronized CtClass getCached(String nomClasse) {
+    CtClass classe = cache.get(nomClasse);
+    return classe != null ? classe : super.getCached(nomClasse);
+  }
+
+  @Override
+  protected synchronized void cacheCtClass(String nomClasse, CtClass classe, boolean dynamique) {
+    cache.put(nomClasse, classe);
+  }
+
+  @Override
+  protected synchronized CtClass removeCached(String nomClasse) {
+    return cache.remove(nomClasse);
+  }
+
+  public synchronized int getTailleCache() {
+    return cache.size();
+  }
+}
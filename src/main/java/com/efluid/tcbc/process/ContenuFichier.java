@@ -0,0 +1,90 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Contenu du fichier en cours de traitement par un thread de scan, lu (décompressé) une seule fois dans un tampon réutilisé d'un fichier à
+ * l'autre.
+ * <p>
+ * Le même contenu alimente la lecture du byte code et, si la classe doit être chargée, sa définition par le chargeur isolé du classpath : l'entrée
+ * n'est ni recherchée dans le classpath ni décompressée une seconde fois.<br>
+ * Le contenu peut aussi être un buffer fourni par le lecteur de jars mappés en mémoire (tranche du fichier pour une entrée non compressée) : il
+ * n'est alors pas copié.
+ */
+public final class ContenuFichier {
+
+  private static final int TAILLE_INITIALE = 64 * 1024;
+
+  private byte[] tampon = new byte[TAILLE_INITIALE];
+  private ByteBuffer contenu = ByteBuffer.wrap(tampon, 0, 0);
+
+  /**
+   * Lit tout le flux dans le tampon (agrandi si nécessaire), le contenu précédent est remplacé
+   */
+  public ContenuFichier lire(InputStream is) throws IOException {
+    int longueur = 0;
+    int lus;
+    while ((lus = is.read(tampon, longueur, tampon.length - longueur)) != -1) {
+      longueur += lus;
+      if (longueur == tampon.length) {
+        tampon = Arrays.copyOf(tampon, tampon.length * 2);
+      }
+    }
+    contenu = ByteBuffer.wrap(tampon, 0, longueur);
+    return this;
+  }
+
+  /**
+   * Le contenu est le buffer fourni, de sa position à sa limite, sans copie
+   */
+  ContenuFichier utiliser(ByteBuffer octets) {
+    contenu = octets.slice();
+    return this;
+  }
+
+  /**
+   * @return le contenu du fichier, de la position 0 à la limite. Il ne doit pas être conservé au-delà du traitement du fichier.
+   */
+  public ByteBuffer getOctets() {
+    return contenu.duplicate();
+  }
+
+  public int getLongueur() {
+    return contenu.remaining();
+  }
+
+  public InputStream ouvrir() {
+    return ouvrir(contenu);
+  }
+
+  static InputStream ouvrir(ByteBuffer octets) {
+    ByteBuffer lecture = octets.duplicate();
+    return new InputStream() {
+
+      @Override
+      public int read() {
+        return lecture.hasRemaining() ? lecture.get() & 0xFF : -1;
+      }
+
+      @Override
+      public int read(byte[] destination, int debut, int longueur) {
+        if (longueur == 0) {
+          return 0;
+        }
+        if (!lecture.hasRemaining()) {
+          return -1;
+        }
+        int lus = Math.min(longueur, lecture.remaining());
+        lecture.get(destination, debut, lus);
+        return lus;
+      }
+
+      @Override
+      public int available() {
+        return lecture.remaining();
+      }
+    };
+  }
+}
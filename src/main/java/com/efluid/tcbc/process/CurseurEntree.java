@@ -0,0 +1,72 @@
+package com.efluid.tcbc.process;
+
+import java.util.*;
+
+/**
+ * Curseur sur l'entrée de jar en cours de parcours, réutilisé d'une entrée à l'autre par un thread de scan.
+ * <p>
+ * L'extension est reconnue sur place parmi les extensions scannées : aucune chaîne n'est créée pour une entrée qui n'est pas scannée, et
+ * l'extension retournée est l'instance partagée de l'ensemble des extensions.<br>
+ * Le nom (chemin séparé par des points, sans extension) n'est construit qu'à la première demande, en une seule copie dans un tampon réutilisé.
+ */
+public final class CurseurEntree {
+
+  private char[] tampon = new char[256];
+  private String entree;
+  private String extension;
+  private String nom;
+
+  /**
+   * Positionne le curseur sur l'entrée
+   *
+   * @param nomEntree nom logique de l'entrée dans le jar (chemin séparé par des '/')
+   * @return false si l'extension de l'entrée n'est pas scannée
+   */
+  public boolean positionner(String nomEntree, Collection<String> extensionsScannees) {
+    entree = nomEntree;
+    nom = null;
+    extension = getExtensionScannee(nomEntree, extensionsScannees);
+    return extension != null;
+  }
+
+  /**
+   * @return l'extension scannée de l'entrée (après le premier point de son chemin), null si elle n'est pas scannée
+   */
+  public static String getExtensionScannee(String nomEntree, Collection<String> extensionsScannees) {
+    int debut = nomEntree.indexOf('.') + 1;
+    if (debut == 0) {
+      return null;
+    }
+    int longueur = nomEntree.length() - debut;
+    for (String extensionScannee : extensionsScannees) {
+      if (extensionScannee.length() == longueur && nomEntree.regionMatches(debut, extensionScannee, 0, longueur)) {
+        return extensionScannee;
+      }
+    }
+    return null;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  /**
+   * @return le chemin de l'entrée séparé par des points, sans extension (après le dernier point)
+   */
+  public String getNom() {
+    if (nom == null) {
+      int longueur = entree.lastIndexOf('.');
+      if (tampon.length < longueur) {
+        tampon = new char[Math.max(longueur, tampon.length * 2)];
+      }
+      entree.getChars(0, longueur, tampon, 0);
+      for (int i = 0; i < longueur; i++) {
+        if (tampon[i] == '/') {
+          tampon[i] = '.';
+        }
+      }
+      nom = new String(tampon, 0, longueur);
+    }
+    return nom;
+  }
+}
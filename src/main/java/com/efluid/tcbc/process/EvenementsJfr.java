@@ -0,0 +1,120 @@
+package com.efluid.tcbc.process;
+
+import jdk.jfr.*;
+
+import com.efluid.tcbc.object.Fichier;
+
+/**
+ * Evènements JDK Flight Recorder du scan, catégorie "Test Control Byte Code".
+ * <p>
+ * Cette classe n'est chargée que si l'API jdk.jfr est disponible dans la JVM (voir {@link MesuresScan}). Les évènements des fichiers, très
+ * nombreux, sont désactivés par défaut : les activer dans le fichier de configuration de l'enregistrement
+ * (<code>com.efluid.tcbc.Fichier#enabled=true</code>).
+ */
+final class EvenementsJfr {
+
+  private static final String CATEGORIE = "Test Control Byte Code";
+
+  private EvenementsJfr() {
+  }
+
+  static void jar(String nom, long duree, int nbFichiers, long[] durees) {
+    EvenementJar evenement = new EvenementJar();
+    if (evenement.isEnabled()) {
+      evenement.jar = nom;
+      evenement.duree = duree;
+      evenement.nbFichiers = nbFichiers;
+      evenement.parcoursJar = durees[MesuresScan.Phase.PARCOURS_JAR.ordinal()];
+      evenement.traitementFichier = durees[MesuresScan.Phase.TRAITEMENT_FICHIER.ordinal()];
+      evenement.lectureClasse = durees[MesuresScan.Phase.LECTURE_CLASSE.ordinal()];
+      evenement.analyseConstantPool = durees[MesuresScan.Phase.ANALYSE_CONSTANT_POOL.ordinal()];
+      evenement.chargementClasse = durees[MesuresScan.Phase.CHARGEMENT_CLASSE.ordinal()];
+      evenement.resolutionMethode = durees[MesuresScan.Phase.RESOLUTION_METHODE.ordinal()];
+      evenement.commit();
+    }
+  }
+
+  static void fichier(Fichier fichier, long duree) {
+    EvenementFichier evenement = new EvenementFichier();
+    if (evenement.isEnabled()) {
+      evenement.fichier = fichier.getNomEtExtension();
+      evenement.jar = fichier.getNomJar();
+      evenement.duree = duree;
+      evenement.commit();
+    }
+  }
+
+  static void phase(String phase, long duree, long nombre) {
+    EvenementPhase evenement = new EvenementPhase();
+    if (evenement.isEnabled()) {
+      evenement.phase = phase;
+      evenement.duree = duree;
+      evenement.nombre = nombre;
+      evenement.commit();
+    }
+  }
+
+  @Name("com.efluid.tcbc.Jar")
+  @Label("Jar scanné")
+  @Category(CATEGORIE)
+  @StackTrace(false)
+  static class EvenementJar extends Event {
+
+    @Label("Jar")
+    String jar;
+    @Label("Durée")
+    @Timespan
+    long duree;
+    @Label("Nombre de fichiers")
+    int nbFichiers;
+    @Label("Ouverture et parcours")
+    @Timespan
+    long parcoursJar;
+    @Label("Traitement des fichiers")
+    @Timespan
+    long traitementFichier;
+    @Label("Lecture du byte code")
+    @Timespan
+    long lectureClasse;
+    @Label("Analyse du constant pool")
+    @Timespan
+    long analyseConstantPool;
+    @Label("Chargement des classes")
+    @Timespan
+    long chargementClasse;
+    @Label("Résolution des méthodes")
+    @Timespan
+    long resolutionMethode;
+  }
+
+  @Name("com.efluid.tcbc.Fichier")
+  @Label("Fichier traité")
+  @Category(CATEGORIE)
+  @StackTrace(false)
+  @Enabled(false)
+  static class EvenementFichier extends Event {
+
+    @Label("Fichier")
+    String fichier;
+    @Label("Jar")
+    String jar;
+    @Label("Durée")
+    @Timespan
+    long duree;
+  }
+
+  @Name("com.efluid.tcbc.Phase")
+  @Label("Phase du scan")
+  @Category(CATEGORIE)
+  @StackTrace(false)
+  static class EvenementPhase extends Event {
+
+    @Label("Phase")
+    String phase;
+    @Label("Durée totale")
+    @Timespan
+    long duree;
+    @Label("Nombre d'exécutions")
+    long nombre;
+  }
+}
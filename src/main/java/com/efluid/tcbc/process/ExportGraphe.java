@@ -0,0 +1,58 @@
+package com.efluid.tcbc.process;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Export d'un graphe de dépendances écrit au fil de l'eau, arc par arc : le fichier n'est jamais construit en mémoire.
+ * <p>
+ * Le format dépend de l'extension du fichier : liste d'arcs CSV pour <code>.csv</code>, listes d'adjacence JSON pour <code>.json</code>, graphviz
+ * sinon.<br>
+ * Les arcs doivent être transmis groupés par noeud source.
+ */
+public abstract class ExportGraphe implements Closeable {
+
+  private static final String EXTENSION_CSV = ".csv";
+  private static final String EXTENSION_JSON = ".json";
+
+  protected final Writer writer;
+
+  protected ExportGraphe(Writer writer) {
+    this.writer = writer;
+  }
+
+  public static ExportGraphe ouvrir(Path fichier) throws IOException {
+    if (fichier.getParent() != null) {
+      Files.createDirectories(fichier.getParent());
+    }
+    Writer writer = Files.newBufferedWriter(fichier, UTF_8);
+    String nom = fichier.getFileName().toString();
+    if (nom.endsWith(EXTENSION_CSV)) {
+      return new ExportGrapheCsv(writer);
+    }
+    return nom.endsWith(EXTENSION_JSON) ? new ExportGrapheJson(writer) : new ExportGrapheGraphviz(writer);
+  }
+
+  /**
+   * Ecrit l'arc : la source dépend de la cible, référencée <code>nombre</code> fois
+   */
+  public abstract void ecrireArc(String source, String cible, long nombre) throws IOException;
+
+  /**
+   * Termine le document
+   */
+  protected void ecrireFin() throws IOException {
+    /* Aucune fin de document par défaut */
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      ecrireFin();
+    } finally {
+      writer.close();
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+
+/**
+ * Liste des arcs au format CSV : source, cible et nombre de références
+ */
+class ExportGrapheCsv extends ExportGraphe {
+
+  ExportGrapheCsv(Writer writer) throws IOException {
+    super(writer);
+    writer.write("source,cible,nombre\n");
+  }
+
+  @Override
+  public void ecrireArc(String source, String cible, long nombre) throws IOException {
+    ecrireValeur(source);
+    writer.write(',');
+    ecrireValeur(cible);
+    writer.write(',');
+    writer.write(Long.toString(nombre));
+    writer.write('\n');
+  }
+
+  private void ecrireValeur(String valeur) throws IOException {
+    if (valeur.indexOf(',') < 0 && valeur.indexOf('"') < 0 && valeur.indexOf('\n') < 0) {
+      writer.write(valeur);
+    } else {
+      writer.write('"');
+      writer.write(valeur.replace("\"", "\"\""));
+      writer.write('"');
+    }
+  }
+}
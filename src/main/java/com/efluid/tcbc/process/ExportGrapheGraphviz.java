@@ -0,0 +1,30 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+
+/**
+ * Graphe graphviz (.dot) : un arc par ligne, étiqueté par son nombre de références
+ */
+class ExportGrapheGraphviz extends ExportGraphe {
+
+  ExportGrapheGraphviz(Writer writer) throws IOException {
+    super(writer);
+    writer.write("digraph dependence {\n\tlayout=dot;concentrate=true;node [shape=box];edge [color=blue];classes [color=red];\n");
+  }
+
+  @Override
+  public void ecrireArc(String source, String cible, long nombre) throws IOException {
+    writer.write("\t\"");
+    writer.write(source.replace("\"", "\\\""));
+    writer.write("\" -> \"");
+    writer.write(cible.replace("\"", "\\\""));
+    writer.write("\" [label=\"");
+    writer.write(Long.toString(nombre));
+    writer.write("\"];\n");
+  }
+
+  @Override
+  protected void ecrireFin() throws IOException {
+    writer.write("}\n");
+  }
+}
@@ -0,0 +1,39 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+
+import com.efluid.tcbc.utils.Json;
+
+/**
+ * Listes d'adjacence au format JSON : un objet par noeud source, associant chacune de ses cibles à son nombre de références.<br>
+ * Exemple : <code>{"classes":{"slf4j-api.jar":23,"javassist.jar":20}}</code>
+ */
+class ExportGrapheJson extends ExportGraphe {
+
+  private String sourceEnCours;
+
+  ExportGrapheJson(Writer writer) throws IOException {
+    super(writer);
+    writer.write('{');
+  }
+
+  @Override
+  public void ecrireArc(String source, String cible, long nombre) throws IOException {
+    if (source.equals(sourceEnCours)) {
+      writer.write(',');
+    } else {
+      writer.write(sourceEnCours == null ? "\n" : "},\n");
+      Json.ecrireChaine(writer, source);
+      writer.write(":{");
+      sourceEnCours = source;
+    }
+    Json.ecrireChaine(writer, cible);
+    writer.write(':');
+    writer.write(Long.toString(nombre));
+  }
+
+  @Override
+  protected void ecrireFin() throws IOException {
+    writer.write(sourceEnCours == null ? "}\n" : "}\n}\n");
+  }
+}
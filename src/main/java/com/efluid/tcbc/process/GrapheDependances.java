@@ -0,0 +1,217 @@
+package com.efluid.tcbc.process;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+
+import com.efluid.tcbc.utils.*;
+
+/**
+ * Graphe des dépendances : noeuds indexés par des entiers, arcs comptant le nombre de références de la source vers la cible.
+ * <p>
+ * Le graphe peut être agrégé (jar vers groupId maven par exemple) et réduit transitivement avant d'être exporté.
+ */
+public class GrapheDependances {
+
+  private final IndexNoms noeuds;
+  private final CompteursArcs arcs;
+
+  public GrapheDependances(IndexNoms noeuds, CompteursArcs arcs) {
+    this.noeuds = noeuds;
+    this.arcs = arcs;
+  }
+
+  /**
+   * Regroupe les noeuds ayant le même nom agrégé, les arcs entre noeuds d'un même groupe ne sont pas conservés
+   */
+  public GrapheDependances agreger(Function<String, String> agregation) {
+    IndexNoms noeudsAgreges = new IndexNoms();
+    CompteursArcs arcsAgreges = new CompteursArcs();
+    int[] groupes = new int[noeuds.taille()];
+    for (int noeud = 0; noeud < groupes.length; noeud++) {
+      groupes[noeud] = noeudsAgreges.getIndex(agregation.apply(noeuds.getNom(noeud)));
+    }
+    arcs.parcourir((source, cible, nombre) -> {
+      if (groupes[source] != groupes[cible]) {
+        arcsAgreges.ajouter(groupes[source], groupes[cible], nombre);
+      }
+    });
+    return new GrapheDependances(noeudsAgreges, arcsAgreges);
+  }
+
+  /**
+   * Retire les arcs déjà déduits d'un autre chemin : A -> C est retiré si A -> B -> C existe.
+   * <p>
+   * La réduction est calculée sur le graphe des composantes fortement connexes (les cycles sont conservés tels quels) : un arc entre deux
+   * composantes est retiré si la composante cible est atteignable depuis une autre composante suivante de la source.
+   */
+  public GrapheDependances reduireTransitivement() {
+    int[][] successeurs = getSuccesseurs();
+    int[] composantes = new int[successeurs.length];
+    int nbComposantes = calculerComposantes(successeurs, composantes);
+
+    BitSet[] successeursComposantes = new BitSet[nbComposantes];
+    BitSet[] atteignables = new BitSet[nbComposantes];
+    for (int composante = 0; composante < nbComposantes; composante++) {
+      successeursComposantes[composante] = new BitSet();
+      atteignables[composante] = new BitSet();
+    }
+    arcs.parcourir((source, cible, nombre) -> {
+      if (composantes[source] != composantes[cible]) {
+        successeursComposantes[composantes[source]].set(composantes[cible]);
+      }
+    });
+    // Les composantes sont numérotées dans l'ordre topologique inverse : les suivantes d'une composante sont déjà calculées
+    for (int composante = 0; composante < nbComposantes; composante++) {
+      BitSet suivantes = successeursComposantes[composante];
+      for (int suivante = suivantes.nextSetBit(0); suivante >= 0; suivante = suivantes.nextSetBit(suivante + 1)) {
+        atteignables[composante].set(suivante);
+        atteignables[composante].or(atteignables[suivante]);
+      }
+    }
+
+    CompteursArcs arcsReduits = new CompteursArcs();
+    arcs.parcourir((source, cible, nombre) -> {
+      if (!isDeduit(composantes[source], composantes[cible], successeursComposantes, atteignables)) {
+        arcsReduits.ajouter(source, cible, nombre);
+      }
+    });
+    return new GrapheDependances(noeuds, arcsReduits);
+  }
+
+  private static boolean isDeduit(int source, int cible, BitSet[] successeursComposantes, BitSet[] atteignables) {
+    if (source == cible) {
+      return false;
+    }
+    BitSet suivantes = successeursComposantes[source];
+    for (int suivante = suivantes.nextSetBit(0); suivante >= 0; suivante = suivantes.nextSetBit(suivante + 1)) {
+      if (suivante != cible && atteignables[suivante].get(cible)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int[][] getSuccesseurs() {
+    int[] nbSuccesseurs = new int[noeuds.taille()];
+    arcs.parcourir((source, cible, nombre) -> nbSuccesseurs[source]++);
+    int[][] successeurs = new int[nbSuccesseurs.length][];
+    for (int noeud = 0; noeud < successeurs.length; noeud++) {
+      successeurs[noeud] = new int[nbSuccesseurs[noeud]];
+      nbSuccesseurs[noeud] = 0;
+    }
+    arcs.parcourir((source, cible, nombre) -> successeurs[source][nbSuccesseurs[source]++] = cible);
+    return successeurs;
+  }
+
+  /**
+   * Composantes fortement connexes (algorithme de Tarjan, sans récursion). Une composante n'est numérotée qu'après toutes celles qu'elle atteint.
+   *
+   * @return le nombre de composantes
+   */
+  private static int calculerComposantes(int[][] successeurs, int[] composantes) {
+    int nbNoeuds = successeurs.length;
+    int[] ordres = new int[nbNoeuds];
+    int[] bas = new int[nbNoeuds];
+    boolean[] surPile = new boolean[nbNoeuds];
+    int[] pile = new int[nbNoeuds];
+    int[] appels = new int[nbNoeuds];
+    int[] positions = new int[nbNoeuds];
+    Arrays.fill(ordres, -1);
+    int hautPile = 0;
+    int ordre = 0;
+    int nbComposantes = 0;
+    for (int depart = 0; depart < nbNoeuds; depart++) {
+      if (ordres[depart] >= 0) {
+        continue;
+      }
+      int hautAppels = 0;
+      appels[hautAppels] = depart;
+      positions[hautAppels++] = 0;
+      ordres[depart] = bas[depart] = ordre++;
+      pile[hautPile++] = depart;
+      surPile[depart] = true;
+      while (hautAppels > 0) {
+        int noeud = appels[hautAppels - 1];
+        if (positions[hautAppels - 1] < successeurs[noeud].length) {
+          int suivant = successeurs[noeud][positions[hautAppels - 1]++];
+          if (ordres[suivant] < 0) {
+            ordres[suivant] = bas[suivant] = ordre++;
+            pile[hautPile++] = suivant;
+            surPile[suivant] = true;
+            appels[hautAppels] = suivant;
+            positions[hautAppels++] = 0;
+          } else if (surPile[suivant]) {
+            bas[noeud] = Math.min(bas[noeud], ordres[suivant]);
+          }
+          continue;
+        }
+        hautAppels--;
+        if (bas[noeud] == ordres[noeud]) {
+          int membre;
+          do {
+            membre = pile[--hautPile];
+            surPile[membre] = false;
+            composantes[membre] = nbComposantes;
+          } while (membre != noeud);
+          nbComposantes++;
+        }
+        if (hautAppels > 0) {
+          int parent = appels[hautAppels - 1];
+          bas[parent] = Math.min(bas[parent], bas[noeud]);
+        }
+      }
+    }
+    return nbComposantes;
+  }
+
+  /**
+   * @return les dépendances du noeud et leur nombre de références, de la plus référencée à la moins référencée
+   */
+  public Map<String, Long> getDependances(String source) {
+    int index = noeuds.chercher(source);
+    List<long[]> dependances = new ArrayList<>();
+    if (index >= 0) {
+      arcs.parcourir((arcSource, cible, nombre) -> {
+        if (arcSource == index) {
+          dependances.add(new long[] { cible, nombre });
+        }
+      });
+    }
+    return trier(dependances);
+  }
+
+  /**
+   * @return le nombre total de références vers chaque noeud, du plus référencé au moins référencé
+   */
+  public Map<String, Long> getNombresReferences() {
+    long[] references = new long[noeuds.taille()];
+    arcs.parcourir((source, cible, nombre) -> references[cible] += nombre);
+    List<long[]> noeudsReferences = new ArrayList<>();
+    for (int noeud = 0; noeud < references.length; noeud++) {
+      if (references[noeud] > 0) {
+        noeudsReferences.add(new long[] { noeud, references[noeud] });
+      }
+    }
+    return trier(noeudsReferences);
+  }
+
+  private Map<String, Long> trier(List<long[]> nombres) {
+    nombres.sort(Comparator.comparingLong((long[] nombre) -> -nombre[1]).thenComparing(nombre -> noeuds.getNom((int) nombre[0])));
+    Map<String, Long> tries = new LinkedHashMap<>();
+    nombres.forEach(nombre -> tries.put(noeuds.getNom((int) nombre[0]), nombre[1]));
+    return tries;
+  }
+
+  /**
+   * Ecrit les arcs, groupés par source (dans l'ordre des noms), de la cible la plus référencée à la moins référencée
+   */
+  public void ecrire(ExportGraphe export) throws IOException {
+    List<long[]> tries = new ArrayList<>(arcs.taille());
+    arcs.parcourir((source, cible, nombre) -> tries.add(new long[] { source, cible, nombre }));
+    tries.sort(Comparator.comparing((long[] arc) -> noeuds.getNom((int) arc[0])).thenComparingLong(arc -> -arc[2]).thenComparing(arc -> noeuds.getNom((int) arc[1])));
+    for (long[] arc : tries) {
+      export.ecrireArc(noeuds.getNom((int) arc[0]), noeuds.getNom((int) arc[1]), arc[2]);
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package com.efluid.tcbc.process;
+
+import static java.nio.file.FileVisitResult.CONTINUE;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.*;
+
+import org.slf4j.*;
+
+import com.efluid.tcbc.object.*;
+import com.efluid.tcbc.utils.EntreesJar;
+import javassist.bytecode.*;
+
+/**
+ * Index des classes du classpath scanné, permettant de résoudre les références de méthodes sans charger aucune classe.
+ * <p>
+ * A la construction, seuls les noms des entrées des jars et répertoires sont parcourus (nom de classe vers jar d'origine, le premier du classpath
+ * l'emporte comme au runtime, un jar multi-release fournit la version utilisée par la version de Java cible). Le byte code d'une classe n'est lu que lorsqu'elle est demandée, puis conservé.<br>
+ * Les classes absentes du classpath scanné sont recherchées parmi celles du JDK.
+ */
+public class IndexClasspath implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IndexClasspath.class);
+  private static final String CLASSE_EXTENSION = ".class";
+  private static final ClasseIndexee CLASSE_ABSENTE = new ClasseIndexee("", null, new String[0], false);
+
+  /* Nom de classe vers chemin de l'élément du classpath la contenant */
+  private final Map<String, String> origines = new HashMap<>();
+  /* Nom de classe vers entrée versionnée d'un jar multi-release, lorsqu'elle remplace l'entrée de base */
+  private final Map<String, String> entreesVersionnees = new HashMap<>();
+  private final int versionJava = EntreesJar.getVersionCible();
+  private final Map<String, ClasseIndexee> classes = new ConcurrentHashMap<>();
+  private final Map<String, JarFile> jarsOuverts = new ConcurrentHashMap<>();
+
+  public IndexClasspath(String... chemins) {
+    for (String chemin : chemins) {
+      try {
+        if (chemin.endsWith(".jar")) {
+          indexerJar(chemin);
+        } else if (new File(chemin).isDirectory()) {
+          indexerRepertoire(chemin);
+        }
+      } catch (IOException ex) {
+        LOG.error("Erreur lors de l'indexation de {}", chemin, ex);
+      }
+    }
+    LOG.debug("Classes indexées : {}", origines.size());
+  }
+
+  private void indexerJar(String chemin) throws IOException {
+    if (!new File(chemin).isFile()) {
+      return;
+    }
+    try (JarFile jar = new JarFile(chemin)) {
+      for (Map.Entry<String, JarEntry> entree : EntreesJar.selectionner(jar, versionJava).entrySet()) {
+        String nomEntree = entree.getKey();
+        if (nomEntree.endsWith(CLASSE_EXTENSION) && !nomEntree.startsWith("META-INF/") && !EntreesJar.isMetadonnee(toNomClasse(nomEntree))
+          && origines.putIfAbsent(toNomClasse(nomEntree), chemin) == null && !nomEntree.equals(entree.getValue().getName())) {
+          entreesVersionnees.put(toNomClasse(nomEntree), entree.getValue().getName());
+        }
+      }
+    }
+  }
+
+  private void indexerRepertoire(String chemin) throws IOException {
+    Path racine = Paths.get(chemin);
+    Files.walkFileTree(racine, new SimpleFileVisitor<Path>() {
+
+      @Override
+      public FileVisitResult visitFile(Path fichier, BasicFileAttributes attrs) {
+        String nomEntree = racine.relativize(fichier).toString().replace(File.separatorChar, '/');
+        if (nomEntree.endsWith(CLASSE_EXTENSION)) {
+          origines.putIfAbsent(toNomClasse(nomEntree), chemin);
+        }
+        return CONTINUE;
+      }
+    });
+  }
+
+  private static String toNomClasse(String nomEntree) {
+    return nomEntree.substring(0, nomEntree.length() - CLASSE_EXTENSION.length()).replace('/', '.');
+  }
+
+  /**
+   * @return le chemin du jar ou du répertoire contenant la classe, <code>null</code> si elle n'est pas dans le classpath scanné
+   */
+  public String getOrigine(String nomClasse) {
+    return origines.get(nomClasse);
+  }
+
+  /**
+   * @return la description de la classe lue depuis son byte code, ou <code>null</code> si elle est introuvable
+   */
+  public ClasseIndexee getClasse(String nomClasse) {
+    ClasseIndexee classe = classes.computeIfAbsent(nomClasse, this::lireClasse);
+    return classe == CLASSE_ABSENTE ? null : classe;
+  }
+
+  /**
+   * Enregistre dans le jar l'origine de la classe et de toute sa hiérarchie (classes mères et interfaces), ainsi que les classes introuvables.
+   * Les classes du JDK n'ont pas d'origine.
+   */
+  public void enregistrerHierarchie(String nomClasse, Jar jar) {
+    Deque<String> aVisiter = new ArrayDeque<>(Collections.singleton(nomClasse));
+    Set<String> visitees = new HashSet<>();
+    while (!aVisiter.isEmpty()) {
+      String nom = aVisiter.pop();
+      if (!visitees.add(nom)) {
+        continue;
+      }
+      String origine = origines.get(nom);
+      if (origine != null) {
+        jar.addJarResolu(origine);
+      }
+      ClasseIndexee classe = getClasse(nom);
+      if (classe == null) {
+        jar.addClasseAbsente(nom);
+        continue;
+      }
+      if (classe.getSuperClasse() != null) {
+        aVisiter.push(classe.getSuperClasse());
+      }
+      classe.getInterfaces().forEach(aVisiter::push);
+    }
+  }
+
+  private ClasseIndexee lireClasse(String nomClasse) {
+    try (InputStream is = ouvrir(nomClasse)) {
+      return is != null ? lireClasse(new ClassFile(new DataInputStream(new BufferedInputStream(is)))) : CLASSE_ABSENTE;
+    } catch (IOException ex) {
+      LOG.error("Erreur lors de la lecture de la classe {}", nomClasse, ex);
+      return CLASSE_ABSENTE;
+    }
+  }
+
+  private static ClasseIndexee lireClasse(ClassFile classFile) {
+    ClasseIndexee classe = new ClasseIndexee(classFile.getName(), classFile.getSuperclass(), classFile.getInterfaces(), classFile.isInterface());
+    for (MethodInfo methode : classFile.getMethods()) {
+      classe.addMethode(methode.getName(), methode.getDescriptor(), methode.getAccessFlags());
+    }
+    return classe;
+  }
+
+  private InputStream ouvrir(String nomClasse) throws IOException {
+    String nomEntree = nomClasse.replace('.', '/') + CLASSE_EXTENSION;
+    String origine = origines.get(nomClasse);
+    if (origine == null) {
+      return ouvrirClasseJdk(nomEntree);
+    }
+    if (origine.endsWith(".jar")) {
+      JarFile jar = getJar(origine);
+      return jar.getInputStream(jar.getEntry(entreesVersionnees.getOrDefault(nomClasse, nomEntree)));
+    }
+    return Files.newInputStream(Paths.get(origine, nomEntree));
+  }
+
+  private JarFile getJar(String chemin) {
+    return jarsOuverts.computeIfAbsent(chemin, cle -> {
+      try {
+        return new JarFile(cle);
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    });
+  }
+
+  /**
+   * Les classes du JDK sont recherchées via le classLoader parent du classLoader système, puis parmi les modules du JDK chargés par le classLoader
+   * système (jdk.jdi, jdk.attach...). Les classes de l'application ne doivent pas être trouvées ici.
+   */
+  private static InputStream ouvrirClasseJdk(String nomEntree) throws IOException {
+    ClassLoader systeme = ClassLoader.getSystemClassLoader();
+    InputStream is = systeme.getParent() != null ? systeme.getParent().getResourceAsStream(nomEntree) : null;
+    if (is == null) {
+      URL url = systeme.getResource(nomEntree);
+      is = url != null && "jrt".equals(url.getProtocol()) ? url.openStream() : null;
+    }
+    return is;
+  }
+
+  @Override
+  public void close() {
+    jarsOuverts.values().forEach(jar -> {
+      try {
+        jar.close();
+      } catch (IOException ex) {
+        LOG.error("", ex);
+      }
+    });
+    jarsOuverts.clear();
+  }
+}
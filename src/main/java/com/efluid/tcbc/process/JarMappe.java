@@ -0,0 +1,182 @@
+package com.efluid.tcbc.process;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.jar.*;
+import java.util.zip.*;
+
+/**
+ * Jar mappé en mémoire, dont le répertoire central est lu directement (sans {@link JarFile}).
+ * <p>
+ * Le contenu d'une entrée non compressée (STORED) est une tranche du fichier mappé, sans copie. Celui d'une entrée compressée (DEFLATED) est
+ * décompressé par l'appelant ({@link LecteurJarsMappes}).<br>
+ * Les jars ZIP64 et ceux de plus de 2 Go ne sont pas supportés : l'ouverture échoue et le jar doit être lu par {@link JarFile}.
+ */
+final class JarMappe {
+
+  private static final int SIGNATURE_FIN_REPERTOIRE = 0x06054b50;
+  private static final int SIGNATURE_REPERTOIRE = 0x02014b50;
+  private static final int SIGNATURE_ENTETE_LOCAL = 0x04034b50;
+  private static final int TAILLE_FIN_REPERTOIRE = 22;
+  private static final int TAILLE_ENTETE_REPERTOIRE = 46;
+  private static final int TAILLE_ENTETE_LOCAL = 30;
+  private static final int TAILLE_MAX_COMMENTAIRE = 0xFFFF;
+
+  private final String chemin;
+  private final ByteBuffer fichier;
+  private final List<Entree> entrees;
+
+  private JarMappe(String chemin, ByteBuffer fichier) throws ZipException {
+    this.chemin = chemin;
+    this.fichier = fichier;
+    this.entrees = lireRepertoireCentral();
+  }
+
+  /**
+   * @throws IOException si le jar ne peut être mappé (trop volumineux, ZIP64, corrompu...)
+   */
+  static JarMappe ouvrir(String chemin) throws IOException {
+    try (FileChannel canal = FileChannel.open(Paths.get(chemin), StandardOpenOption.READ)) {
+      if (canal.size() > Integer.MAX_VALUE) {
+        throw new ZipException("Jar de plus de 2 Go non mappé : " + chemin);
+      }
+      // Le mapping reste valide après la fermeture du canal
+      return new JarMappe(chemin, canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()).order(ByteOrder.LITTLE_ENDIAN));
+    }
+  }
+
+  private List<Entree> lireRepertoireCentral() throws ZipException {
+    int fin = chercherFinRepertoire();
+    int nbEntrees = getU2(fin + 10);
+    long taille = getU4(fin + 12);
+    long debut = getU4(fin + 16);
+    if (nbEntrees == 0xFFFF || debut == 0xFFFFFFFFL || debut + taille > fin) {
+      throw new ZipException("Jar ZIP64 ou répertoire central invalide : " + chemin);
+    }
+    List<Entree> lues = new ArrayList<>(nbEntrees);
+    int position = (int) debut;
+    for (int i = 0; i < nbEntrees; i++) {
+      if (fichier.getInt(position) != SIGNATURE_REPERTOIRE) {
+        throw new ZipException("Entrée du répertoire central invalide : " + chemin);
+      }
+      int longueurNom = getU2(position + 28);
+      byte[] nom = new byte[longueurNom];
+      ByteBuffer lecture = fichier.duplicate();
+      ((Buffer) lecture).position(position + TAILLE_ENTETE_REPERTOIRE);
+      lecture.get(nom);
+      lues.add(new Entree(new String(nom, UTF_8), getU2(position + 10), getU4(position + 20), getU4(position + 24), getU4(position + 42)));
+      position += TAILLE_ENTETE_REPERTOIRE + longueurNom + getU2(position + 30) + getU2(position + 32);
+    }
+    return lues;
+  }
+
+  private int chercherFinRepertoire() throws ZipException {
+    int limite = Math.max(0, fichier.capacity() - TAILLE_FIN_REPERTOIRE - TAILLE_MAX_COMMENTAIRE);
+    for (int position = fichier.capacity() - TAILLE_FIN_REPERTOIRE; position >= limite; position--) {
+      if (fichier.getInt(position) == SIGNATURE_FIN_REPERTOIRE) {
+        return position;
+      }
+    }
+    throw new ZipException("Fin du répertoire central introuvable : " + chemin);
+  }
+
+  private int getU2(int position) {
+    return fichier.getShort(position) & 0xFFFF;
+  }
+
+  private long getU4(int position) {
+    return fichier.getInt(position) & 0xFFFFFFFFL;
+  }
+
+  String getChemin() {
+    return chemin;
+  }
+
+  /**
+   * @return les entrées dans l'ordre du répertoire central
+   */
+  List<Entree> getEntrees() {
+    return entrees;
+  }
+
+  /**
+   * @return les données de l'entrée telles que stockées dans le jar (compressées ou non), sans copie
+   */
+  ByteBuffer getDonnees(Entree entree) throws ZipException {
+    int entete = (int) entree.positionEntete;
+    if (fichier.getInt(entete) != SIGNATURE_ENTETE_LOCAL) {
+      throw new ZipException("Entête local invalide : " + entree.nom + " (" + chemin + ")");
+    }
+    int debut = entete + TAILLE_ENTETE_LOCAL + getU2(entete + 26) + getU2(entete + 28);
+    ByteBuffer donnees = fichier.duplicate();
+    // Buffer : compatible avec l'exécution en java 8
+    ((Buffer) donnees).limit(debut + (int) entree.tailleCompressee).position(debut);
+    return donnees.slice();
+  }
+
+  /**
+   * @return le manifeste du jar, null s'il n'en a pas
+   */
+  Manifest getManifeste() throws IOException {
+    for (Entree entree : entrees) {
+      if (JarFile.MANIFEST_NAME.equalsIgnoreCase(entree.nom)) {
+        Inflater inflater = new Inflater(true);
+        InputStream donnees = ContenuFichier.ouvrir(getDonnees(entree));
+        try (InputStream is = entree.isCompressee() ? new InflaterInputStream(donnees, inflater) : donnees) {
+          return new Manifest(is);
+        } finally {
+          inflater.end();
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Entrée du répertoire central
+   */
+  static final class Entree {
+
+    private final String nom;
+    private final int methode;
+    private final long tailleCompressee;
+    private final long taille;
+    private final long positionEntete;
+
+    private Entree(String nom, int methode, long tailleCompressee, long taille, long positionEntete) {
+      this.nom = nom;
+      this.methode = methode;
+      this.tailleCompressee = tailleCompressee;
+      this.taille = taille;
+      this.positionEntete = positionEntete;
+    }
+
+    String getNom() {
+      return nom;
+    }
+
+    boolean isCompressee() {
+      return methode == ZipEntry.DEFLATED;
+    }
+
+    /**
+     * @return true si le contenu est lisible : non compressé ou compressé par deflate
+     */
+    boolean isSupportee() {
+      return methode == ZipEntry.STORED || methode == ZipEntry.DEFLATED;
+    }
+
+    int getTailleCompressee() {
+      return (int) tailleCompressee;
+    }
+
+    int getTaille() {
+      return (int) taille;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.jar.*;
+
+import org.slf4j.*;
+
+import com.efluid.tcbc.utils.EntreesJar;
+
+/**
+ * Lecture des éléments du classpath scanné : chaque fichier d'un jar (par {@link JarFile} ou mappé en mémoire) ou d'un répertoire classes dont
+ * l'extension est scannée est transmis au traitement avec sa source, sous son nom logique.
+ */
+class LecteurClasspath {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LecteurClasspath.class);
+  private static final String CLASSES_EXTENSION = "class";
+
+  private final OptionsScan options;
+  private final RessourcesClasspath ressources;
+  /* Curseur sur l'entrée de jar en cours, réutilisé par le thread */
+  private final ThreadLocal<CurseurEntree> curseursEntree = ThreadLocal.withInitial(CurseurEntree::new);
+
+  /**
+   * Traitement d'un fichier lu
+   */
+  @FunctionalInterface
+  interface TraitementFichier {
+
+    void traiter(String nom, String extension, SourceFichier source);
+  }
+
+  LecteurClasspath(OptionsScan options, RessourcesClasspath ressources) {
+    this.options = options;
+    this.ressources = ressources;
+  }
+
+  /**
+   * Lit le jar ou le répertoire classes, les erreurs de lecture sont tracées
+   */
+  void lire(String chemin, Set<String> extensionsScannees, TraitementFichier traitement) {
+    if (chemin.endsWith(".jar")) {
+      lireJar(chemin, extensionsScannees, traitement);
+    } else {
+      lireRepertoireClasses(chemin, extensionsScannees, traitement);
+    }
+  }
+
+  /**
+   * Chaque fichier du répertoire classes est traité dès qu'il est trouvé par le parcours parallèle du répertoire
+   */
+  private void lireRepertoireClasses(String chemin, Set<String> extensionsScannees, TraitementFichier traitement) {
+    try {
+      parcourirRepertoireClasses(chemin, extensionsScannees::contains,
+        (nom, extension, fichier) -> traitement.traiter(nom, extension, () -> Files.newInputStream(fichier)));
+    } catch (Throwable ex) {
+      LOG.error("", ex);
+    }
+  }
+
+  void parcourirRepertoireClasses(String repertoireClasses, Predicate<String> extensionScannee, ParcoursRepertoire.TraitementFichier traitement)
+    throws IOException {
+    new ParcoursRepertoire(options.getNombreThreadsParcours()).parcourir(Paths.get(repertoireClasses), extensionScannee, traitement);
+  }
+
+  /**
+   * Parcours toutes les classes du jar utilisées par la version de Java cible (jar multi-release)
+   */
+  private void lireJar(String chemin, Set<String> extensionsScannees, TraitementFichier traitement) {
+    LOG.debug("Scans jar : " + chemin);
+    if (options.isLecteurJarMappe() && lireJarMappe(chemin, extensionsScannees, traitement)) {
+      return;
+    }
+    try (JarFile jar = new JarFile(chemin)) {
+      // Boucle sur les fichiers contenus dans le JAR, sous leur nom logique
+      CurseurEntree curseur = curseursEntree.get();
+      for (Map.Entry<String, JarEntry> entree : EntreesJar.selectionner(jar, options.getVersionJava()).entrySet()) {
+        if (curseur.positionner(entree.getKey(), extensionsScannees)) {
+          traitement.traiter(curseur.getNom(), curseur.getExtension(), () -> jar.getInputStream(entree.getValue()));
+        }
+      }
+    } catch (Throwable ex) {
+      LOG.error("", ex);
+    }
+  }
+
+  /**
+   * Parcours du jar mappé en mémoire, les classes étant décompressées en parallèle
+   *
+   * @return false si le jar ne peut être mappé (ZIP64, plus de 2 Go...) : il doit alors être lu par {@link JarFile}
+   */
+  private boolean lireJarMappe(String chemin, Set<String> extensionsScannees, TraitementFichier traitement) {
+    JarMappe jar;
+    try {
+      jar = JarMappe.ouvrir(chemin);
+    } catch (IOException ex) {
+      LOG.debug("Jar lu sans mapping mémoire : {}", ex.getMessage());
+      return false;
+    }
+    try {
+      CurseurEntree curseur = curseursEntree.get();
+      ressources.getLecteurJarsMappes().parcourir(jar, nom -> CurseurEntree.getExtensionScannee(nom, extensionsScannees) != null,
+        nom -> CLASSES_EXTENSION.equals(CurseurEntree.getExtensionScannee(nom, extensionsScannees)),
+        (nom, source) -> {
+          curseur.positionner(nom, extensionsScannees);
+          traitement.traiter(curseur.getNom(), curseur.getExtension(), source);
+        });
+    } catch (Throwable ex) {
+      LOG.error("", ex);
+    }
+    return true;
+  }
+
+  /**
+   * Relit les fichiers demandés du jar, identifiés par leur nom et extension tels que nommés lors du parcours
+   */
+  void relireJar(String chemin, Set<String> extensions, Set<String> nomsEtExtensions, ScanneClasspath.LectureFichier lecture) throws IOException {
+    try (JarFile jar = new JarFile(chemin)) {
+      CurseurEntree curseur = new CurseurEntree();
+      for (Map.Entry<String, JarEntry> entree : EntreesJar.selectionner(jar, options.getVersionJava()).entrySet()) {
+        if (!curseur.positionner(entree.getKey(), extensions)) {
+          continue;
+        }
+        String nomEtExtension = curseur.getNom() + "." + curseur.getExtension();
+        if (nomsEtExtensions.contains(nomEtExtension)) {
+          try (InputStream is = jar.getInputStream(entree.getValue())) {
+            lecture.lire(nomEtExtension, is);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package com.efluid.tcbc.process;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Lecteur du constant pool d'une classe, directement depuis son byte code.
+ * <p>
+ * Seul le constant pool est lu, le reste de la classe (champs, méthodes, attributs) est ignoré. Les références de méthodes (Methodref,
+ * InterfaceMethodref) et les appels dynamiques (InvokeDynamic) sont transmis à un visiteur, dans l'ordre du constant pool.<br>
+ * Les tableaux de travail sont réutilisés d'une classe à l'autre et seules les chaînes effectivement référencées sont décodées (une seule fois par
+ * classe) : aucune allocation n'est faite par entrée du constant pool. Une instance n'est donc pas thread-safe.
+ */
+public final class LecteurConstantPool {
+
+  private static final int MAGIC = 0xCAFEBABE;
+
+  private static final int CONST_UTF8 = 1;
+  private static final int CONST_INTEGER = 3;
+  private static final int CONST_FLOAT = 4;
+  private static final int CONST_LONG = 5;
+  private static final int CONST_DOUBLE = 6;
+  private static final int CONST_CLASS = 7;
+  private static final int CONST_STRING = 8;
+  private static final int CONST_FIELDREF = 9;
+  private static final int CONST_METHODREF = 10;
+  private static final int CONST_INTERFACE_METHODREF = 11;
+  private static final int CONST_NAME_AND_TYPE = 12;
+  private static final int CONST_METHOD_HANDLE = 15;
+  private static final int CONST_METHOD_TYPE = 16;
+  private static final int CONST_DYNAMIC = 17;
+  private static final int CONST_INVOKE_DYNAMIC = 18;
+  private static final int CONST_MODULE = 19;
+  private static final int CONST_PACKAGE = 20;
+
+  /**
+   * Reçoit les références lues dans le constant pool
+   */
+  public interface Visiteur {
+
+    /**
+     * @param classe nom de la classe propriétaire au format java (ex : java.lang.String, [Ljava.lang.Object; pour un tableau)
+     * @param nom nom de la méthode
+     * @param descripteur descripteur de la méthode, ex : (Ljava/lang/String;)V
+     * @param methodeInterface true pour une InterfaceMethodref
+     */
+    void methode(String classe, String nom, String descripteur, boolean methodeInterface);
+
+    /**
+     * @param descripteur descripteur de l'appel dynamique (lambda, concaténation...)
+     */
+    void invokeDynamic(String descripteur);
+  }
+
+  private byte[] tags = new byte[256];
+  private int[] positions = new int[256];
+  private String[] chaines = new String[256];
+  private String[] nomsClasses = new String[256];
+  private char[] caracteres = new char[256];
+  private ByteBuffer octets;
+
+  /**
+   * Lit le constant pool de la classe contenue dans le tableau
+   */
+  public void lire(byte[] byteCode, int longueur, Visiteur visiteur) {
+    lire(ByteBuffer.wrap(byteCode, 0, longueur), visiteur);
+  }
+
+  /**
+   * Lit le constant pool de la classe contenue dans le buffer, à partir de sa position (la position du buffer n'est pas modifiée)
+   */
+  public void lire(ByteBuffer byteCode, Visiteur visiteur) {
+    octets = byteCode;
+    try {
+      int debut = byteCode.position();
+      if (byteCode.remaining() < 10 || (getU2(debut) << 16 | getU2(debut + 2)) != MAGIC) {
+        throw new IllegalArgumentException("Le fichier n'est pas une classe java");
+      }
+      int taille = getU2(debut + 8);
+      preparer(taille);
+      indexer(debut + 10, taille);
+      visiter(taille, visiteur);
+    } finally {
+      octets = null;
+    }
+  }
+
+  private void preparer(int taille) {
+    if (tags.length < taille) {
+      int capacite = Math.max(taille, tags.length * 2);
+      tags = new byte[capacite];
+      positions = new int[capacite];
+      chaines = new String[capacite];
+      nomsClasses = new String[capacite];
+    } else {
+      Arrays.fill(chaines, 0, taille, null);
+      Arrays.fill(nomsClasses, 0, taille, null);
+    }
+  }
+
+  /**
+   * Mémorise le tag et la position de chaque entrée
+   */
+  private void indexer(int debut, int taille) {
+    int position = debut;
+    for (int index = 1; index < taille; index++) {
+      int tag = octets.get(position);
+      tags[index] = (byte) tag;
+      positions[index] = position + 1;
+      position += 1 + getTailleEntree(tag, position + 1);
+      if (tag == CONST_LONG || tag == CONST_DOUBLE) {
+        tags[++index] = 0;
+      }
+    }
+  }
+
+  private int getTailleEntree(int tag, int position) {
+    switch (tag) {
+      case CONST_UTF8:
+        return 2 + getU2(position);
+      case CONST_CLASS:
+      case CONST_STRING:
+      case CONST_METHOD_TYPE:
+      case CONST_MODULE:
+      case CONST_PACKAGE:
+        return 2;
+      case CONST_METHOD_HANDLE:
+        return 3;
+      case CONST_INTEGER:
+      case CONST_FLOAT:
+      case CONST_FIELDREF:
+      case CONST_METHODREF:
+      case CONST_INTERFACE_METHODREF:
+      case CONST_NAME_AND_TYPE:
+      case CONST_DYNAMIC:
+      case CONST_INVOKE_DYNAMIC:
+        return 4;
+      case CONST_LONG:
+      case CONST_DOUBLE:
+        return 8;
+      default:
+        throw new IllegalArgumentException("Tag du constant pool inconnu : " + tag);
+    }
+  }
+
+  private void visiter(int taille, Visiteur visiteur) {
+    for (int index = 1; index < taille; index++) {
+      int tag = tags[index];
+      if (tag == CONST_METHODREF || tag == CONST_INTERFACE_METHODREF) {
+        int position = positions[index];
+        int nomEtType = positions[getU2(position + 2)];
+        visiteur.methode(getNomClasse(getU2(position)), getChaine(getU2(nomEtType)), getChaine(getU2(nomEtType + 2)), tag == CONST_INTERFACE_METHODREF);
+      } else if (tag == CONST_INVOKE_DYNAMIC) {
+        int nomEtType = positions[getU2(positions[index] + 2)];
+        visiteur.invokeDynamic(getChaine(getU2(nomEtType + 2)));
+      }
+    }
+  }
+
+  /**
+   * @return le nom de la classe référencée par l'entrée CONST_Class, au format java
+   */
+  private String getNomClasse(int indexClasse) {
+    String nom = nomsClasses[indexClasse];
+    if (nom == null) {
+      nom = decoder(getU2(positions[indexClasse]), true);
+      nomsClasses[indexClasse] = nom;
+    }
+    return nom;
+  }
+
+  private String getChaine(int indexUtf8) {
+    String chaine = chaines[indexUtf8];
+    if (chaine == null) {
+      chaine = decoder(indexUtf8, false);
+      chaines[indexUtf8] = chaine;
+    }
+    return chaine;
+  }
+
+  /**
+   * Décode une chaîne au format "UTF-8 modifié" du byte code
+   *
+   * @param nomClasse si true, les séparateurs "/" sont remplacés par des "."
+   */
+  private String decoder(int indexUtf8, boolean nomClasse) {
+    int position = positions[indexUtf8];
+    int longueur = getU2(position);
+    if (caracteres.length < longueur) {
+      caracteres = new char[Math.max(longueur, caracteres.length * 2)];
+    }
+    int fin = position + 2 + longueur;
+    int nbCaracteres = 0;
+    for (int i = position + 2; i < fin; ) {
+      int c = octets.get(i++) & 0xFF;
+      if (c < 0x80) {
+        caracteres[nbCaracteres++] = (char) (nomClasse && c == '/' ? '.' : c);
+      } else if ((c & 0xE0) == 0xC0) {
+        caracteres[nbCaracteres++] = (char) (((c & 0x1F) << 6) | (octets.get(i++) & 0x3F));
+      } else {
+        caracteres[nbCaracteres++] = (char) (((c & 0x0F) << 12) | ((octets.get(i++) & 0x3F) << 6) | (octets.get(i++) & 0x3F));
+      }
+    }
+    return new String(caracteres, 0, nbCaracteres);
+  }
+
+  /**
+   * Lecture big-endian quel que soit l'ordre configuré sur le buffer
+   */
+  private int getU2(int position) {
+    return (octets.get(position) & 0xFF) << 8 | (octets.get(position + 1) & 0xFF);
+  }
+}
@@ -0,0 +1,220 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+import java.util.zip.*;
+
+import com.efluid.tcbc.process.JarMappe.Entree;
+import com.efluid.tcbc.utils.EntreesJar;
+
+/**
+ * Lecteur des jars mappés en mémoire ({@link JarMappe}) : les entrées compressées à lire sont décompressées en parallèle, en avance sur leur
+ * traitement, dans des tampons réutilisés.
+ * <p>
+ * Les entrées sont transmises au traitement dans l'ordre du jar, par le thread qui parcourt le jar. Au plus quatre entrées par thread de
+ * décompression sont décompressées en avance, chacune dans un tampon emprunté à la réserve et rendu après son traitement : la mémoire utilisée
+ * est bornée quelle que soit la taille du jar.<br>
+ * Le contenu d'une entrée non compressée est une tranche du fichier mappé (aucune copie). Les entrées qui ne sont pas décompressées en avance le
+ * sont à la demande, par le thread de traitement.
+ */
+final class LecteurJarsMappes implements Closeable {
+
+  private final int versionJava;
+  private final int fenetre;
+  private final ExecutorService decompression;
+  private final Queue<Tampon> tampons = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Traitement d'une entrée sous son nom logique (voir {@link EntreesJar})
+   */
+  @FunctionalInterface
+  interface TraitementEntree {
+
+    void traiter(String nom, SourceFichier source);
+  }
+
+  /**
+   * @param nbThreads nombre de threads décompressant les entrées
+   */
+  LecteurJarsMappes(int nbThreads, int versionJava) {
+    this.versionJava = versionJava;
+    this.fenetre = 4 * nbThreads;
+    this.decompression = Executors.newFixedThreadPool(nbThreads, tache -> {
+      Thread thread = new Thread(tache, "tcbc-decompression");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Transmet au traitement les entrées du jar retenues (version de Java cible pour un jar multi-release) dont le nom est accepté
+   *
+   * @param aTraiter entrées à transmettre, selon leur nom logique
+   * @param aDecompresserEnAvance entrées dont le contenu sera lu, décompressées en parallèle
+   */
+  void parcourir(JarMappe jar, Predicate<String> aTraiter, Predicate<String> aDecompresserEnAvance, TraitementEntree traitement) throws IOException {
+    List<Map.Entry<String, Entree>> entrees = new ArrayList<>();
+    EntreesJar.selectionner(jar.getEntrees(), Entree::getNom, EntreesJar.isMultiRelease(jar.getManifeste()), versionJava).entrySet().stream()
+      .filter(entree -> !entree.getKey().endsWith("/") && entree.getValue().isSupportee() && aTraiter.test(entree.getKey()))
+      .forEach(entrees::add);
+    List<Future<Tampon>> decompressions = new ArrayList<>(Collections.nCopies(entrees.size(), null));
+    int suivante = 0;
+    int courante = 0;
+    try {
+      for (; courante < entrees.size(); courante++) {
+        // Décompressions en avance, dans la limite de la fenêtre
+        for (; suivante < entrees.size() && suivante < courante + fenetre; suivante++) {
+          Entree entree = entrees.get(suivante).getValue();
+          if (entree.isCompressee() && aDecompresserEnAvance.test(entrees.get(suivante).getKey())) {
+            ByteBuffer donnees = jar.getDonnees(entree);
+            decompressions.set(suivante, decompression.submit(() -> decompresser(donnees, entree)));
+          }
+        }
+        traiter(jar, entrees.get(courante), decompressions.set(courante, null), traitement);
+      }
+    } finally {
+      // Interruption du parcours : les tampons des décompressions déjà lancées sont rendus
+      for (int restante = courante; restante < suivante; restante++) {
+        rendre(decompressions.get(restante));
+      }
+    }
+  }
+
+  private void traiter(JarMappe jar, Map.Entry<String, Entree> entree, Future<Tampon> decompressee, TraitementEntree traitement) throws IOException {
+    if (decompressee != null) {
+      Tampon tampon = attendre(decompressee);
+      try {
+        traitement.traiter(entree.getKey(), source(tampon.getContenu()));
+      } finally {
+        tampons.offer(tampon);
+      }
+    } else if (!entree.getValue().isCompressee()) {
+      traitement.traiter(entree.getKey(), source(jar.getDonnees(entree.getValue())));
+    } else {
+      traitement.traiter(entree.getKey(), () -> decompresserALaDemande(jar, entree.getValue()));
+    }
+  }
+
+  private InputStream decompresserALaDemande(JarMappe jar, Entree entree) throws IOException {
+    Tampon tampon = decompresser(jar.getDonnees(entree), entree);
+    try {
+      ByteBuffer contenu = tampon.getContenu();
+      byte[] copie = new byte[contenu.remaining()];
+      contenu.get(copie);
+      return new ByteArrayInputStream(copie);
+    } finally {
+      tampons.offer(tampon);
+    }
+  }
+
+  /**
+   * Le contenu est transmis au scan sans copie
+   */
+  private static SourceFichier source(ByteBuffer contenu) {
+    return new SourceFichier() {
+
+      @Override
+      public InputStream ouvrir() {
+        return ContenuFichier.ouvrir(contenu);
+      }
+
+      @Override
+      public ContenuFichier lire(ContenuFichier tampon) {
+        return tampon.utiliser(contenu);
+      }
+    };
+  }
+
+  private static Tampon attendre(Future<Tampon> decompressee) throws IOException {
+    try {
+      return decompressee.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException ex) {
+      throw ex.getCause() instanceof IOException ? (IOException) ex.getCause() : new IOException(ex.getCause());
+    }
+  }
+
+  private void rendre(Future<Tampon> decompressee) {
+    if (decompressee != null) {
+      try {
+        tampons.offer(attendre(decompressee));
+      } catch (IOException ex) {
+        // Le tampon a été rendu par la décompression en échec
+      }
+    }
+  }
+
+  /**
+   * @return le tampon emprunté contenant l'entrée décompressée, à rendre après son traitement
+   */
+  private Tampon decompresser(ByteBuffer donnees, Entree entree) throws ZipException {
+    Tampon tampon = emprunter();
+    try {
+      return tampon.decompresser(donnees, entree);
+    } catch (ZipException ex) {
+      tampons.offer(tampon);
+      throw ex;
+    }
+  }
+
+  private Tampon emprunter() {
+    Tampon tampon = tampons.poll();
+    return tampon != null ? tampon : new Tampon();
+  }
+
+  @Override
+  public void close() {
+    decompression.shutdownNow();
+    Tampon tampon;
+    while ((tampon = tampons.poll()) != null) {
+      tampon.inflater.end();
+    }
+  }
+
+  /**
+   * Tampons et Inflater d'une décompression, réutilisés d'une entrée à l'autre
+   */
+  private static final class Tampon {
+
+    private final Inflater inflater = new Inflater(true);
+    private byte[] compresse = new byte[16 * 1024];
+    private byte[] decompresse = new byte[64 * 1024];
+    private int longueur;
+
+    private Tampon decompresser(ByteBuffer donnees, Entree entree) throws ZipException {
+      try {
+        // Un octet supplémentaire est requis par l'Inflater sans entête (nowrap)
+        if (compresse.length < entree.getTailleCompressee() + 1) {
+          compresse = new byte[Math.max(entree.getTailleCompressee() + 1, compresse.length * 2)];
+        }
+        if (decompresse.length < entree.getTaille()) {
+          decompresse = new byte[Math.max(entree.getTaille(), decompresse.length * 2)];
+        }
+        donnees.duplicate().get(compresse, 0, entree.getTailleCompressee());
+        compresse[entree.getTailleCompressee()] = 0;
+        inflater.reset();
+        inflater.setInput(compresse, 0, entree.getTailleCompressee() + 1);
+        longueur = 0;
+        while (longueur < entree.getTaille() && !inflater.finished()) {
+          int lus = inflater.inflate(decompresse, longueur, entree.getTaille() - longueur);
+          if (lus == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            throw new ZipException("Entrée tronquée : " + entree.getNom());
+          }
+          longueur += lus;
+        }
+        return this;
+      } catch (DataFormatException ex) {
+        throw new ZipException(entree.getNom() + " : " + ex.getMessage());
+      }
+    }
+
+    private ByteBuffer getContenu() {
+      return ByteBuffer.wrap(decompresse, 0, longueur);
+    }
+  }
+}
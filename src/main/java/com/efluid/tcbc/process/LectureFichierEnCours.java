@@ -0,0 +1,85 @@
+package com.efluid.tcbc.process;
+
+import static com.efluid.tcbc.process.MesuresScan.Phase.LECTURE_CLASSE;
+
+import java.io.*;
+import java.util.concurrent.Callable;
+
+/**
+ * Lectures du fichier en cours de parcours, propres à chaque thread de scan et partagées par les contrôles d'un scan combiné jusqu'à la fin
+ * du traitement du fichier.
+ */
+class LectureFichierEnCours {
+
+  /* Entrée du jar ou fichier du répertoire en cours de parcours */
+  private final ThreadLocal<SourceFichier> source = new ThreadLocal<>();
+  /* Contenu du fichier en cours, lu une seule fois dans le tampon réutilisé par le thread */
+  private final ThreadLocal<ContenuFichier> contenu = new ThreadLocal<>();
+  private final ThreadLocal<ContenuFichier> tampons = ThreadLocal.withInitial(ContenuFichier::new);
+  /* Résultat de la lecture partagée par les contrôles du scan combiné */
+  private final ThreadLocal<Object> lecturePartagee = new ThreadLocal<>();
+
+  /**
+   * Début du traitement du fichier du thread, lu depuis la source à la première demande
+   */
+  void debut(SourceFichier sourceFichier) {
+    source.set(sourceFichier);
+  }
+
+  /**
+   * @param fichier fichier en cours, pour signaler son absence
+   * @return le contenu du fichier en cours, lu depuis sa source
+   */
+  InputStream ouvrir(Object fichier) throws IOException {
+    return getSource(fichier).ouvrir();
+  }
+
+  /**
+   * @param fichier fichier en cours, pour signaler son absence
+   * @return le contenu du fichier en cours, lu dans le tampon du thread à la première demande puis partagé jusqu'à la fin de son traitement
+   */
+  ContenuFichier getContenu(Object fichier, MesuresScan mesures) throws IOException {
+    ContenuFichier resultat = contenu.get();
+    if (resultat == null) {
+      SourceFichier sourceFichier = getSource(fichier);
+      long marque = mesures.debut();
+      try {
+        resultat = sourceFichier.lire(tampons.get());
+      } finally {
+        mesures.fin(LECTURE_CLASSE, marque);
+      }
+      contenu.set(resultat);
+    }
+    return resultat;
+  }
+
+  private SourceFichier getSource(Object fichier) throws FileNotFoundException {
+    SourceFichier sourceFichier = source.get();
+    if (sourceFichier == null) {
+      throw new FileNotFoundException(String.valueOf(fichier));
+    }
+    return sourceFichier;
+  }
+
+  /**
+   * Seule la première demande réalise la lecture, les suivantes reçoivent son résultat s'il est du type demandé
+   */
+  <R> R getLecturePartagee(Class<R> type, Callable<R> lecture) throws Exception {
+    Object lu = lecturePartagee.get();
+    if (type.isInstance(lu)) {
+      return type.cast(lu);
+    }
+    R resultat = lecture.call();
+    lecturePartagee.set(resultat);
+    return resultat;
+  }
+
+  /**
+   * Fin du traitement du fichier en cours du thread
+   */
+  void fin() {
+    lecturePartagee.remove();
+    source.remove();
+    contenu.remove();
+  }
+}
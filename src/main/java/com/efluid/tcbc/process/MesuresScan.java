@@ -0,0 +1,319 @@
+package com.efluid.tcbc.process;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.slf4j.*;
+import org.yaml.snakeyaml.*;
+
+import com.efluid.tcbc.object.*;
+
+/**
+ * Temps et nombre d'exécutions de chaque phase du scan, par jar et pour tout le scan.
+ * <p>
+ * Les phases sont imbriquées (la résolution d'une méthode a lieu pendant l'analyse du constant pool, qui a lieu pendant le traitement d'un
+ * fichier...) : le temps d'une phase exclut celui des phases mesurées pendant son exécution, la somme des phases est donc le temps total.<br>
+ * Un jar étant scanné par un seul thread, les mesures sont cumulées par thread puis fusionnées à la fin de chaque jar.<br>
+ * Chaque jar (et, si activé, chaque fichier) est également émis comme évènement JDK Flight Recorder lorsque celui-ci est disponible.
+ */
+public class MesuresScan {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MesuresScan.class);
+
+  private static final boolean JFR_DISPONIBLE = isJfrDisponible();
+
+  public enum Phase {
+    PARCOURS_JAR("Ouverture et parcours des jars"),
+    TRAITEMENT_FICHIER("Traitement des fichiers"),
+    LECTURE_CLASSE("Lecture du byte code des classes"),
+    ANALYSE_CONSTANT_POOL("Analyse du constant pool"),
+    CHARGEMENT_CLASSE("Chargement des classes"),
+    RESOLUTION_METHODE("Résolution des méthodes"),
+    BILAN("Bilan");
+
+    private final String libelle;
+
+    Phase(String libelle) {
+      this.libelle = libelle;
+    }
+
+    public String getLibelle() {
+      return libelle;
+    }
+  }
+
+  private final int nbPlusLents;
+
+  private final ThreadLocal<MesuresThread> mesuresThread = ThreadLocal.withInitial(MesuresThread::new);
+  private final LongAdder[] durees = creerCompteurs();
+  private final LongAdder[] nombres = creerCompteurs();
+  private final LongAdder nbFichiers = new LongAdder();
+  private final Queue<MesureJar> jars = new ConcurrentLinkedQueue<>();
+  /* Fichiers les plus lents, le plus rapide d'entre eux en tête */
+  private final PriorityQueue<MesureFichier> fichiersLesPlusLents = new PriorityQueue<>(Comparator.comparingLong((MesureFichier mesure) -> mesure.duree));
+  private volatile long seuilFichiersLesPlusLents;
+  private long debutScan;
+  private long dureeScan;
+
+  /**
+   * @param nbPlusLents nombre de jars et de fichiers les plus lents conservés
+   */
+  public MesuresScan(int nbPlusLents) {
+    this.nbPlusLents = nbPlusLents;
+  }
+
+  private static LongAdder[] creerCompteurs() {
+    LongAdder[] compteurs = new LongAdder[Phase.values().length];
+    Arrays.setAll(compteurs, i -> new LongAdder());
+    return compteurs;
+  }
+
+  private static boolean isJfrDisponible() {
+    try {
+      Class.forName("jdk.jfr.Event", false, MesuresScan.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError ex) {
+      return false;
+    }
+  }
+
+  public void debutScan() {
+    debutScan = System.nanoTime();
+  }
+
+  public void finScan() {
+    dureeScan = System.nanoTime() - debutScan;
+  }
+
+  /**
+   * @return la marque de début d'une phase, à transmettre à {@link #fin(Phase, long)}
+   */
+  public long debut() {
+    return System.nanoTime() - mesuresThread.get().tempsMesure;
+  }
+
+  /**
+   * Termine la phase : seul le temps écoulé depuis la marque et non attribué à une phase imbriquée lui est attribué
+   *
+   * @return le temps attribué à la phase
+   */
+  public long fin(Phase phase, long marque) {
+    MesuresThread mesures = mesuresThread.get();
+    long duree = System.nanoTime() - mesures.tempsMesure - marque;
+    mesures.tempsMesure += duree;
+    mesures.durees[phase.ordinal()] += duree;
+    mesures.nombres[phase.ordinal()]++;
+    return duree;
+  }
+
+  /**
+   * Fichier traité par le thread courant, sa durée inclut toutes les phases imbriquées
+   */
+  public void ajouterFichier(Fichier fichier, long duree) {
+    mesuresThread.get().nbFichiers++;
+    if (JFR_DISPONIBLE) {
+      EvenementsJfr.fichier(fichier, duree);
+    }
+    if (nbPlusLents <= 0 || duree <= seuilFichiersLesPlusLents) {
+      return;
+    }
+    synchronized (fichiersLesPlusLents) {
+      fichiersLesPlusLents.add(new MesureFichier(fichier, duree));
+      if (fichiersLesPlusLents.size() > nbPlusLents) {
+        fichiersLesPlusLents.poll();
+        seuilFichiersLesPlusLents = fichiersLesPlusLents.peek().duree;
+      }
+    }
+  }
+
+  /**
+   * Termine le jar scanné par le thread courant : ses mesures sont conservées puis cumulées à celles du scan
+   */
+  public void finJar(Jar jar, long duree) {
+    MesuresThread mesures = mesuresThread.get();
+    MesureJar mesure = new MesureJar(jar.getNom(), duree, mesures.nbFichiers, mesures.durees.clone());
+    jars.add(mesure);
+    if (JFR_DISPONIBLE) {
+      EvenementsJfr.jar(mesure.nom, mesure.duree, mesure.nbFichiers, mesure.durees);
+    }
+    fusionner();
+  }
+
+  /**
+   * Cumule aux mesures du scan celles du thread courant
+   */
+  public void fusionner() {
+    MesuresThread mesures = mesuresThread.get();
+    for (Phase phase : Phase.values()) {
+      durees[phase.ordinal()].add(mesures.durees[phase.ordinal()]);
+      nombres[phase.ordinal()].add(mesures.nombres[phase.ordinal()]);
+    }
+    nbFichiers.add(mesures.nbFichiers);
+    mesuresThread.remove();
+  }
+
+  /**
+   * @return le nombre de mesures de la phase cumulées au scan
+   */
+  public long getNombre(Phase phase) {
+    return nombres[phase.ordinal()].sum();
+  }
+
+  /**
+   * Termine le scan depuis le thread l'ayant lancé : cumule ses mesures, affiche la synthèse et l'écrit si le fichier est défini
+   *
+   * @param fichier fichier des mesures, <code>null</code> pour ne pas les écrire
+   */
+  public void terminerScan(Path fichier) {
+    fusionner();
+    finScan();
+    logSynthese();
+    if (fichier != null) {
+      ecrire(fichier);
+    }
+  }
+
+  /**
+   * Emet les évènements JFR des phases et affiche la synthèse des mesures
+   */
+  public void logSynthese() {
+    if (JFR_DISPONIBLE) {
+      for (Phase phase : Phase.values()) {
+        EvenementsJfr.phase(phase.getLibelle(), durees[phase.ordinal()].sum(), nombres[phase.ordinal()].sum());
+      }
+    }
+    LOG.info("Durée du scan : {} ms, {} fichier(s), {} fichier(s)/s", millis(dureeScan), nbFichiers.sum(), getFichiersParSeconde());
+    for (Phase phase : Phase.values()) {
+      LOG.debug("\t{} : {} ms ({})", phase.getLibelle(), millis(durees[phase.ordinal()].sum()), nombres[phase.ordinal()].sum());
+    }
+    LOG.debug("Jars les plus lents :");
+    getJarsLesPlusLents().forEach(jar -> LOG.debug("\t{} : {} ms, {} fichier(s)", jar.nom, millis(jar.duree), jar.nbFichiers));
+    LOG.debug("Fichiers les plus lents :");
+    getFichiersLesPlusLents().forEach(fichier -> LOG.debug("\t{} ({}) : {} ms", fichier.nom, fichier.jar, millis(fichier.duree)));
+  }
+
+  /**
+   * Ecrit la synthèse des mesures au format yaml
+   */
+  public void ecrire(Path fichier) {
+    DumperOptions options = new DumperOptions();
+    options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    try {
+      if (fichier.getParent() != null) {
+        Files.createDirectories(fichier.getParent());
+      }
+      try (Writer writer = Files.newBufferedWriter(fichier, UTF_8)) {
+        new Yaml(options).dump(getSynthese(), writer);
+      }
+      LOG.info("Mesures du scan : {}", fichier);
+    } catch (IOException ex) {
+      LOG.error("Erreur lors de l'écriture des mesures {}", fichier, ex);
+    }
+  }
+
+  /**
+   * Synthèse des mesures : durées en millisecondes
+   */
+  Map<String, Object> getSynthese() {
+    Map<String, Object> synthese = new LinkedHashMap<>();
+    synthese.put("duree", millis(dureeScan));
+    synthese.put("nbJars", jars.size());
+    synthese.put("nbFichiers", nbFichiers.sum());
+    synthese.put("fichiersParSeconde", getFichiersParSeconde());
+    Map<String, Object> phases = new LinkedHashMap<>();
+    for (Phase phase : Phase.values()) {
+      Map<String, Object> mesure = new LinkedHashMap<>();
+      mesure.put("duree", millis(durees[phase.ordinal()].sum()));
+      mesure.put("nombre", nombres[phase.ordinal()].sum());
+      phases.put(phase.name(), mesure);
+    }
+    synthese.put("phases", phases);
+    synthese.put("jarsLesPlusLents", getJarsLesPlusLents().stream().map(jar -> {
+      Map<String, Object> mesure = new LinkedHashMap<>();
+      mesure.put("jar", jar.nom);
+      mesure.put("duree", millis(jar.duree));
+      mesure.put("nbFichiers", jar.nbFichiers);
+      Map<String, Object> phasesJar = new LinkedHashMap<>();
+      for (Phase phase : Phase.values()) {
+        if (jar.durees[phase.ordinal()] > 0) {
+          phasesJar.put(phase.name(), millis(jar.durees[phase.ordinal()]));
+        }
+      }
+      mesure.put("phases", phasesJar);
+      return mesure;
+    }).collect(Collectors.toList()));
+    synthese.put("fichiersLesPlusLents", getFichiersLesPlusLents().stream().map(fichier -> {
+      Map<String, Object> mesure = new LinkedHashMap<>();
+      mesure.put("fichier", fichier.nom);
+      mesure.put("jar", fichier.jar);
+      mesure.put("duree", millis(fichier.duree));
+      return mesure;
+    }).collect(Collectors.toList()));
+    return synthese;
+  }
+
+  private long getFichiersParSeconde() {
+    return dureeScan > 0 ? nbFichiers.sum() * TimeUnit.SECONDS.toNanos(1) / dureeScan : 0;
+  }
+
+  private List<MesureJar> getJarsLesPlusLents() {
+    return jars.stream().sorted(Comparator.comparingLong((MesureJar jar) -> jar.duree).reversed()).limit(nbPlusLents).collect(Collectors.toList());
+  }
+
+  private List<MesureFichier> getFichiersLesPlusLents() {
+    synchronized (fichiersLesPlusLents) {
+      return fichiersLesPlusLents.stream().sorted(Comparator.comparingLong((MesureFichier fichier) -> fichier.duree).reversed()).collect(Collectors.toList());
+    }
+  }
+
+  private static double millis(long nanos) {
+    return Math.round(nanos / 10_000d) / 100d;
+  }
+
+  /**
+   * Mesures du thread courant depuis le début du jar en cours
+   */
+  private static class MesuresThread {
+
+    /* Temps déjà attribué à une phase */
+    private long tempsMesure;
+    private final long[] durees = new long[Phase.values().length];
+    private final long[] nombres = new long[Phase.values().length];
+    private int nbFichiers;
+  }
+
+  private static class MesureJar {
+
+    private final String nom;
+    private final long duree;
+    private final int nbFichiers;
+    private final long[] durees;
+
+    private MesureJar(String nom, long duree, int nbFichiers, long[] durees) {
+      this.nom = nom;
+      this.duree = duree;
+      this.nbFichiers = nbFichiers;
+      this.durees = durees;
+    }
+  }
+
+  private static class MesureFichier {
+
+    private final String nom;
+    private final String jar;
+    private final long duree;
+
+    private MesureFichier(Fichier fichier, long duree) {
+      this.nom = fichier.getNomEtExtension();
+      this.jar = fichier.getNomJar();
+      this.duree = duree;
+    }
+  }
+}
@@ -1,59 +1,41 @@
 package com.efluid.tcbc.process;
 
+import static com.efluid.tcbc.object.TypeErreur.*;
+
 import java.lang.reflect.Method;
-import java.util.Arrays;
 
-import com.efluid.tcbc.TestControleByteCode;
 import com.efluid.tcbc.object.MethodeCall;
-import com.efluid.tcbc.utils.MethodLookup;
+import com.efluid.tcbc.utils.TableMethodes;
 
 public class MethodExistControl {
 
-  private TestControleByteCode controle;
+  private VerdictMethode verdict;
   private MethodeCall methodeCall;
 
-  MethodExistControl(TestControleByteCode controle, MethodeCall methodeCall) {
-    this.controle = controle;
+  MethodExistControl(VerdictMethode verdict, MethodeCall methodeCall) {
+    this.verdict = verdict;
     this.methodeCall = methodeCall;
   }
 
   /**
-   * Test l'appel de la méthode
+   * Test l'appel de la méthode, les erreurs sont ajoutées au verdict
    */
   void execute() {
     try {
-      Method method = new MethodLookup(methodeCall.getClasseReferencee(), methodeCall.getNom(), methodeCall.getTypesEntree()).findMethodInHierarchy();
-      if (method == null) {
-        method = getMethod(methodeCall.getClasseReferencee());
-      }
-      if (null == method && isPolymorphicSignature()) {
+      TableMethodes tableMethodes = TableMethodes.de(methodeCall.getClasseReferencee());
+      Method method = tableMethodes.get(methodeCall.getNom(), methodeCall.getTypesEntree());
+      if (null == method && tableMethodes.isSignaturePolymorphique(methodeCall.getNom())) {
         return;
       }
       if (method == null) {
-        controle.addErreur("Methode referencee non trouvee : " + methodeCall);
+        verdict.addErreur(METHODE_NON_TROUVEE, "Methode referencee non trouvee : " + methodeCall.getModeleLibelle());
       } else {
         testerTypeDeRetour(method);
       }
     } catch (NoClassDefFoundError errNoClassDefFound) {
-      controle.addErreur("Classe non trouvee lors de la récuperation de la méthode " + errNoClassDefFound + methodeCall);
-    } catch (Throwable ex) {
-      controle.addErreur("Erreur d'appel de methode : " + ex + methodeCall);
-    }
-  }
-
-  /**
-   * Test d'accès "polymorphique" : le MethodHandle.invoke ne peut être retrouvé par réflexion.
-   * <p>
-   * On se base sur le marqueur interne du compilo.
-   * MethodHandle.PolymorphicSugnature est une annotation interne à la classe, non publique.
-   */
-  private boolean isPolymorphicSignature() {
-    try {
-      Method method = methodeCall.getClasseReferencee().getMethod(methodeCall.getNom(), Object[].class);
-      return method != null && Arrays.stream(method.getAnnotations()).map(Object::toString).anyMatch("@java.lang.invoke.MethodHandle$PolymorphicSignature()"::equals);
+      verdict.addErreur(CHARGEMENT_CLASSE, "Classe non trouvee lors de la récuperation de la méthode " + errNoClassDefFound + methodeCall.getModeleLibelle());
     } catch (Throwable ex) {
-      controle.addErreur("Methode (polymorphique) non trouvee : " + ex);
-      return false;
+      verdict.addErreur(APPEL_METHODE, "Erreur d'appel de methode : " + ex + methodeCall.getModeleLibelle());
     }
   }
 
@@ -63,22 +45,10 @@ public class MethodExistControl {
   private void testerTypeDeRetour(Method method) {
     try {
       if (methodeCall.getTypeRetour() != method.getReturnType()) {
-        controle.addErreur("Type de retour [" + method.getReturnType().getSimpleName() + "] different de " + methodeCall);
+        verdict.addErreur(TYPE_RETOUR_DIFFERENT, "Type de retour [" + method.getReturnType().getSimpleName() + "] different de " + methodeCall.getModeleLibelle());
       }
     } catch (Throwable ex) {
-      controle.addErreur("Erreur lors du chargement de la classe du type de retour : " + methodeCall);
-    }
-  }
-
-  /**
-   * Récupère la méthode en appliquant la récursivité (sur les classes parents)
-   */
-  private Method getMethod(Class<?> classe) {
-    try {
-      return classe.getMethod(methodeCall.getNom(), methodeCall.getTypesEntree());
-    } catch (NoSuchMethodException ex) {
-      Class<?> supClass = classe.getSuperclass();
-      return supClass != null ? getMethod(supClass) : null;
+      verdict.addErreur(CHARGEMENT_CLASSE, "Erreur lors du chargement de la classe du type de retour : " + methodeCall.getModeleLibelle());
     }
   }
 }
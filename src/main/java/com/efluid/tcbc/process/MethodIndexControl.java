@@ -0,0 +1,137 @@
+package com.efluid.tcbc.process;
+
+import static com.efluid.tcbc.object.TypeErreur.*;
+import static com.efluid.tcbc.utils.Descripteurs.*;
+
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+import com.efluid.tcbc.object.*;
+
+/**
+ * Contrôle l'existence d'une méthode référencée à partir de l'index du classpath, sans charger aucune classe.
+ * <p>
+ * La résolution suit celle de la JVM : la méthode (nom + descripteur) est recherchée sur la classe, ses classes mères puis toutes ses interfaces.
+ * Le contrôle du type de retour devient une comparaison de descripteurs.
+ */
+public class MethodIndexControl {
+
+  private static final String CLASSE_NON_TROUVEE = "java.lang.ClassNotFoundException: ";
+  private static final List<String> CLASSES_SIGNATURE_POLYMORPHIQUE = Arrays.asList("java.lang.invoke.MethodHandle", "java.lang.invoke.VarHandle");
+  private static final String DESCRIPTEUR_SIGNATURE_POLYMORPHIQUE = "([Ljava/lang/Object;)Ljava/lang/Object;";
+  private static final int ACC_VARARGS = 0x0080;
+
+  private final IndexClasspath index;
+  private final VerdictMethode verdict;
+  private final String nomClasse;
+  private final String nomMethode;
+  private final String descripteur;
+
+  MethodIndexControl(IndexClasspath index, VerdictMethode verdict, String nomClasse, String nomMethode, String descripteur) {
+    this.index = index;
+    this.verdict = verdict;
+    // La méthode d'un tableau (clone) est portée par java.lang.Object
+    this.nomClasse = nomClasse.startsWith("[") ? Object.class.getName() : nomClasse;
+    this.nomMethode = nomMethode;
+    this.descripteur = descripteur;
+  }
+
+  /**
+   * Test l'appel de la méthode, les erreurs sont ajoutées au verdict
+   */
+  void execute() {
+    ClasseIndexee classe = index.getClasse(nomClasse);
+    if (classe == null) {
+      addErreurClasseNonTrouvee();
+      return;
+    }
+    if (!verifierTypes()) {
+      return;
+    }
+    List<ClasseIndexee> hierarchie = new ArrayList<>();
+    String classeManquante = getHierarchie(classe, hierarchie);
+    if (hierarchie.stream().anyMatch(parent -> parent.getModificateurs(nomMethode, descripteur) != null) || isSignaturePolymorphique(classe)) {
+      return;
+    }
+    if (classeManquante != null) {
+      verdict.addErreur(CHARGEMENT_CLASSE, "Classe non trouvee lors de la récuperation de la méthode " + CLASSE_NON_TROUVEE + classeManquante + " " + getModeleLibelle());
+      return;
+    }
+    Optional<String> descripteurTrouve = hierarchie.stream().map(parent -> parent.getDescripteurMemesParametres(nomMethode, descripteur)).filter(Objects::nonNull).findFirst();
+    if (descripteurTrouve.isPresent()) {
+      verdict.addErreur(TYPE_RETOUR_DIFFERENT, "Type de retour [" + getNomSimple(getTypeRetour(descripteurTrouve.get())) + "] different de " + getModeleLibelle());
+    } else {
+      verdict.addErreur(METHODE_NON_TROUVEE, "Methode referencee non trouvee : " + getModeleLibelle());
+    }
+  }
+
+  private void addErreurClasseNonTrouvee() {
+    verdict.addClasseNonTrouvee(nomClasse, nomClasse + "#" + nomMethode + " - " + CLASSE_NON_TROUVEE + nomClasse);
+  }
+
+  /**
+   * Les types des paramètres et du retour doivent exister dans le classpath
+   */
+  private boolean verifierTypes() {
+    boolean typesPresents = true;
+    for (String type : getClassesReferencees(descripteur)) {
+      if (index.getClasse(type) == null) {
+        verdict.addErreur(CHARGEMENT_CLASSE, type + "# - " + CLASSE_NON_TROUVEE + type);
+        typesPresents = false;
+      }
+    }
+    return typesPresents;
+  }
+
+  /**
+   * Alimente la hiérarchie dans l'ordre de résolution de la JVM : la classe, ses classes mères puis toutes les interfaces (sans doublons)
+   *
+   * @return le nom de la première classe de la hiérarchie introuvable, <code>null</code> si la hiérarchie est complète
+   */
+  private String getHierarchie(ClasseIndexee classe, List<ClasseIndexee> hierarchie) {
+    String classeManquante = null;
+    for (ClasseIndexee parent = classe; parent != null; ) {
+      hierarchie.add(parent);
+      String superClasse = parent.getSuperClasse();
+      parent = superClasse != null ? index.getClasse(superClasse) : null;
+      if (superClasse != null && parent == null) {
+        classeManquante = superClasse;
+      }
+    }
+    Set<String> interfacesVues = new HashSet<>();
+    Deque<String> interfaces = new ArrayDeque<>();
+    hierarchie.forEach(parent -> interfaces.addAll(parent.getInterfaces()));
+    while (!interfaces.isEmpty()) {
+      String nomInterface = interfaces.poll();
+      if (interfacesVues.add(nomInterface)) {
+        ClasseIndexee iface = index.getClasse(nomInterface);
+        if (iface == null) {
+          classeManquante = classeManquante != null ? classeManquante : nomInterface;
+        } else {
+          hierarchie.add(iface);
+          interfaces.addAll(iface.getInterfaces());
+        }
+      }
+    }
+    return classeManquante;
+  }
+
+  /**
+   * Méthodes à signature polymorphique (MethodHandle.invoke...) : natives, varargs, prenant et retournant des Object.
+   */
+  private boolean isSignaturePolymorphique(ClasseIndexee classe) {
+    if (!CLASSES_SIGNATURE_POLYMORPHIQUE.contains(classe.getNom())) {
+      return false;
+    }
+    Integer modificateurs = classe.getModificateurs(nomMethode, DESCRIPTEUR_SIGNATURE_POLYMORPHIQUE);
+    return modificateurs != null && Modifier.isNative(modificateurs) && (modificateurs & ACC_VARARGS) != 0;
+  }
+
+  private static String getNomSimple(String nomJava) {
+    return nomJava.substring(nomJava.lastIndexOf('.') + 1);
+  }
+
+  private String getModeleLibelle() {
+    return "[" + Erreur.APPELANT + " appelle la méthode " + getTypeRetour(descripteur) + " " + nomClasse + "#" + nomMethode + "(" + String.join(",", getTypesParametres(descripteur)) + ")]";
+  }
+}
@@ -0,0 +1,99 @@
+package com.efluid.tcbc.process;
+
+import java.io.File;
+import java.nio.file.*;
+
+import com.efluid.tcbc.utils.EntreesJar;
+
+/**
+ * Options du parcours du classpath, lues dans les propriétés système à la création du contrôle (voir {@link ScanneClasspath}).
+ */
+public class OptionsScan {
+
+  private static final String ENV_CLASSEPATH = "classpath";
+  private static final String ENV_NOMBRE_THREADS = "nbThreads";
+  private static final String ENV_NOMBRE_THREADS_PARCOURS = "nbThreadsParcours";
+  private static final String ENV_REPERTOIRE_CACHE = "repertoireCache";
+  private static final String ENV_FICHIER_MESURES = "fichierMesures";
+  private static final String ENV_NOMBRE_PLUS_LENTS = "nbPlusLents";
+  private static final String ENV_NOMBRE_JARS_PAR_CHARGEUR = "nbJarsParChargeur";
+  /* Par défaut, le chargeur isolé est remplacé régulièrement pour que les classes des jars déjà traités puissent être déchargées */
+  private static final int NOMBRE_JARS_PAR_CHARGEUR = 50;
+  private static final String ENV_NOMBRE_CLASSES_PAR_CHARGEUR = "nbClassesParChargeur";
+  private static final String ENV_DELAI_CHARGEMENT = "delaiChargement";
+  private static final String ENV_LECTEUR_JAR = "lecteurJar";
+  private static final String LECTEUR_JAR_MAPPE = "mappe";
+  private static final String ENV_NOMBRE_THREADS_DECOMPRESSION = "nbThreadsDecompression";
+
+  private final String classpath = System.getProperty(ENV_CLASSEPATH);
+  /* Nombre de threads scannant les jars en parallèle (1 par défaut : scan séquentiel) */
+  private final int nombreThreads = Integer.getInteger(ENV_NOMBRE_THREADS, 1);
+  /* Threads parcourant en parallèle les sous-répertoires d'un répertoire classes */
+  private final int nombreThreadsParcours = Integer.getInteger(ENV_NOMBRE_THREADS_PARCOURS, Runtime.getRuntime().availableProcessors());
+  private final String repertoireCache = System.getProperty(ENV_REPERTOIRE_CACHE);
+  private final String fichierMesures = System.getProperty(ENV_FICHIER_MESURES);
+  private final int nombrePlusLents = Integer.getInteger(ENV_NOMBRE_PLUS_LENTS, 10);
+  private final int nombreJarsParChargeur = Integer.getInteger(ENV_NOMBRE_JARS_PAR_CHARGEUR, NOMBRE_JARS_PAR_CHARGEUR);
+  private final int nombreClassesParChargeur = Integer.getInteger(ENV_NOMBRE_CLASSES_PAR_CHARGEUR, 0);
+  private final long delaiChargement = Long.getLong(ENV_DELAI_CHARGEMENT, 30_000);
+  private final boolean lecteurJarMappe = LECTEUR_JAR_MAPPE.equalsIgnoreCase(System.getProperty(ENV_LECTEUR_JAR));
+  private final int nombreThreadsDecompression = Integer.getInteger(ENV_NOMBRE_THREADS_DECOMPRESSION, Runtime.getRuntime().availableProcessors());
+  private final int versionJava = EntreesJar.getVersionCible();
+
+  /**
+   * @return les éléments du classpath à scanner, <code>null</code> pour scanner celui de la JVM en cours
+   */
+  public String[] getClasspath() {
+    return classpath != null ? classpath.split(File.pathSeparator) : null;
+  }
+
+  public int getNombreThreads() {
+    return nombreThreads;
+  }
+
+  public int getNombreThreadsParcours() {
+    return nombreThreadsParcours;
+  }
+
+  /**
+   * @return le fichier du cache de scan du contrôle, <code>null</code> si le cache n'est pas actif
+   */
+  public Path getFichierCache(Class<?> controle) {
+    return ScanneClasspath.isNullOrEmpty(repertoireCache) ? null : Paths.get(repertoireCache, controle.getName() + ".yaml");
+  }
+
+  /**
+   * @return le fichier des mesures du scan, <code>null</code> si elles ne sont pas écrites
+   */
+  public Path getFichierMesures() {
+    return ScanneClasspath.isNullOrEmpty(fichierMesures) ? null : Paths.get(fichierMesures);
+  }
+
+  public int getNombrePlusLents() {
+    return nombrePlusLents;
+  }
+
+  public int getNombreJarsParChargeur() {
+    return nombreJarsParChargeur;
+  }
+
+  public int getNombreClassesParChargeur() {
+    return nombreClassesParChargeur;
+  }
+
+  public long getDelaiChargement() {
+    return delaiChargement;
+  }
+
+  public boolean isLecteurJarMappe() {
+    return lecteurJarMappe;
+  }
+
+  public int getNombreThreadsDecompression() {
+    return nombreThreadsDecompression;
+  }
+
+  public int getVersionJava() {
+    return versionJava;
+  }
+}
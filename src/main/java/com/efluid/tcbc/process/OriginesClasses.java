@@ -0,0 +1,65 @@
+package com.efluid.tcbc.process;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.efluid.tcbc.utils.ScanneClasspathUtils;
+
+/**
+ * Origine (jar ou répertoire) des classes référencées, sans charger les classes du classpath scanné.
+ * <p>
+ * Les classes du classpath scanné sont résolues par l'index du classpath (simple accès à une map). Pour les autres (JDK, classes hors du
+ * classpath scanné), l'origine est celle du CodeSource de la classe comme auparavant : une seule classe est chargée par source (jar, répertoire ou
+ * module du JDK), les autres classes de la même source réutilisent son origine.
+ */
+public class OriginesClasses {
+
+  /* Classe ou source sans origine (classes du JDK chargées par le classLoader bootstrap) */
+  private static final String AUCUNE = "";
+
+  private final IndexClasspath index;
+  /* Nom de classe hors classpath scanné vers son origine */
+  private final Map<String, String> originesHorsIndex = new ConcurrentHashMap<>();
+  /* Source (jar, répertoire, module) vers l'origine de ses classes */
+  private final Map<String, String> originesParSource = new ConcurrentHashMap<>();
+
+  public OriginesClasses(IndexClasspath index) {
+    this.index = index;
+  }
+
+  /**
+   * @return le chemin du jar ou du répertoire contenant la classe, <code>null</code> si elle est sans origine ou introuvable
+   */
+  public String getOrigine(String nomClasse) {
+    String origine = index.getOrigine(nomClasse);
+    if (origine == null) {
+      origine = originesHorsIndex.computeIfAbsent(nomClasse, this::rechercherOrigine);
+    }
+    return origine.isEmpty() ? null : origine;
+  }
+
+  private String rechercherOrigine(String nomClasse) {
+    String ressource = nomClasse.replace('.', '/') + ".class";
+    URL url = ClassLoader.getSystemResource(ressource);
+    if (url == null) {
+      return AUCUNE;
+    }
+    String source = url.toString();
+    source = source.substring(0, source.length() - ressource.length());
+    String origine = originesParSource.computeIfAbsent(source, cle -> getOrigineCodeSource(nomClasse));
+    return origine != null ? origine : AUCUNE;
+  }
+
+  /**
+   * @return l'origine de la classe d'après son CodeSource, <code>null</code> si elle ne peut être chargée (la source n'est alors pas conservée)
+   */
+  private static String getOrigineCodeSource(String nomClasse) {
+    try {
+      String origine = ScanneClasspathUtils.getCheminDeLaClasse(Class.forName(nomClasse, false, ClassLoader.getSystemClassLoader()));
+      return origine != null ? origine : AUCUNE;
+    } catch (Throwable ex) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Parcours d'un répertoire classes : les sous-répertoires sont parcourus en parallèle et chaque fichier trouvé est transmis au traitement sans
+ * attendre la fin du parcours.
+ * <p>
+ * Le traitement est exécuté par le thread appelant, dans l'ordre où les fichiers sont trouvés. Au plus {@link #CAPACITE} fichiers trouvés sont
+ * en attente de traitement : les threads de parcours sont suspendus au-delà. Le délai avant le premier fichier et la mémoire utilisée ne
+ * dépendent pas de la taille du répertoire.<br>
+ * Le nom de chaque fichier est construit au fil du parcours (préfixe du répertoire parent, séparé par des points), sans expression régulière.<br>
+ * Comme <code>Files.walkFileTree</code>, les liens symboliques ne sont pas suivis.
+ */
+final class ParcoursRepertoire {
+
+  static final int CAPACITE = 1024;
+  private static final long ATTENTE_MILLIS = 50;
+
+  private final int nbThreads;
+
+  /**
+   * Traitement d'un fichier trouvé
+   */
+  @FunctionalInterface
+  interface TraitementFichier {
+
+    /**
+     * @param nom chemin relatif au répertoire, séparé par des points, sans extension
+     * @param extension extension du fichier (après le premier point de son nom)
+     */
+    void traiter(String nom, String extension, Path fichier) throws IOException;
+  }
+
+  /**
+   * @param nbThreads nombre de threads parcourant les sous-répertoires
+   */
+  ParcoursRepertoire(int nbThreads) {
+    this.nbThreads = Math.max(1, nbThreads);
+  }
+
+  /**
+   * Transmet au traitement les fichiers du répertoire (et de ses sous-répertoires) dont l'extension est acceptée. Aucun fichier si le répertoire
+   * n'existe pas.
+   */
+  void parcourir(Path repertoire, Predicate<String> extensionAcceptee, TraitementFichier traitement) throws IOException {
+    if (!Files.isDirectory(repertoire)) {
+      return;
+    }
+    BlockingQueue<FichierTrouve> trouves = new ArrayBlockingQueue<>(CAPACITE);
+    ForkJoinPool pool = new ForkJoinPool(nbThreads);
+    try {
+      ForkJoinTask<Void> parcours = pool.submit(new ParcoursSousRepertoire(repertoire, "", extensionAcceptee, trouves));
+      while (true) {
+        FichierTrouve trouve = trouves.poll(ATTENTE_MILLIS, TimeUnit.MILLISECONDS);
+        if (trouve != null) {
+          traitement.traiter(trouve.nom, trouve.extension, trouve.fichier);
+        } else if (parcours.isDone()) {
+          // Parcours terminé : les derniers fichiers trouvés sont déjà dans la file
+          while ((trouve = trouves.poll()) != null) {
+            traitement.traiter(trouve.nom, trouve.extension, trouve.fichier);
+          }
+          attendre(parcours);
+          return;
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } finally {
+      // Interrompt les threads de parcours en attente si le traitement a échoué
+      pool.shutdownNow();
+    }
+  }
+
+  private static void attendre(ForkJoinTask<Void> parcours) throws IOException, InterruptedException {
+    try {
+      parcours.get();
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause() instanceof UncheckedIOException ? ex.getCause().getCause() : ex.getCause();
+      throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    }
+  }
+
+  private static final class FichierTrouve {
+
+    private final String nom;
+    private final String extension;
+    private final Path fichier;
+
+    private FichierTrouve(String nom, String extension, Path fichier) {
+      this.nom = nom;
+      this.extension = extension;
+      this.fichier = fichier;
+    }
+  }
+
+  /**
+   * Parcours d'un sous-répertoire : ses fichiers sont transmis, ses sous-répertoires parcourus par des tâches parallèles
+   */
+  private static final class ParcoursSousRepertoire extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Path repertoire;
+    private final String prefixe;
+    private final transient Predicate<String> extensionAcceptee;
+    private final transient BlockingQueue<FichierTrouve> trouves;
+
+    private ParcoursSousRepertoire(Path repertoire, String prefixe, Predicate<String> extensionAcceptee, BlockingQueue<FichierTrouve> trouves) {
+      this.repertoire = repertoire;
+      this.prefixe = prefixe;
+      this.extensionAcceptee = extensionAcceptee;
+      this.trouves = trouves;
+    }
+
+    @Override
+    protected void compute() {
+      List<ParcoursSousRepertoire> sousRepertoires = new ArrayList<>();
+      try (DirectoryStream<Path> contenu = Files.newDirectoryStream(repertoire)) {
+        for (Path element : contenu) {
+          String nomElement = element.getFileName().toString();
+          // Liens symboliques non suivis : un lien vers un répertoire parent ne boucle pas, il est transmis comme un fichier
+          BasicFileAttributes attributs = Files.readAttributes(element, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+          if (attributs.isDirectory()) {
+            ParcoursSousRepertoire sousRepertoire = new ParcoursSousRepertoire(element, prefixe + nomElement + ".", extensionAcceptee, trouves);
+            sousRepertoire.fork();
+            sousRepertoires.add(sousRepertoire);
+          } else {
+            transmettre(element, nomElement);
+          }
+        }
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      sousRepertoires.forEach(ForkJoinTask::join);
+    }
+
+    private void transmettre(Path fichier, String nomFichier) throws InterruptedException {
+      int premierPoint = nomFichier.indexOf('.');
+      if (premierPoint < 0) {
+        return;
+      }
+      String extension = nomFichier.substring(premierPoint + 1);
+      if (extensionAcceptee.test(extension)) {
+        trouves.put(new FichierTrouve(prefixe + nomFichier.substring(0, nomFichier.lastIndexOf('.')), extension, fichier));
+      }
+    }
+  }
+}
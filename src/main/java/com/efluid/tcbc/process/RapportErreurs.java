@@ -0,0 +1,72 @@
+package com.efluid.tcbc.process;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.*;
+import java.nio.file.*;
+
+import com.efluid.tcbc.object.*;
+import com.efluid.tcbc.utils.Json;
+
+/**
+ * Rapport des erreurs écrit au fil de l'eau, une erreur étant écrite dès qu'elle est remontée : la mémoire utilisée ne dépend pas du nombre
+ * d'erreurs.
+ * <p>
+ * Le format dépend de l'extension du fichier : SARIF 2.1.0 pour <code>.sarif</code>, JSON Lines (un objet JSON par erreur) sinon.<br>
+ * L'écriture est partagée par tous les threads de scan.
+ */
+public abstract class RapportErreurs implements Closeable {
+
+  private static final String EXTENSION_SARIF = ".sarif";
+
+  protected final Writer writer;
+
+  protected RapportErreurs(Writer writer) {
+    this.writer = writer;
+  }
+
+  public static RapportErreurs ouvrir(Path fichier) throws IOException {
+    if (fichier.getParent() != null) {
+      Files.createDirectories(fichier.getParent());
+    }
+    Writer writer = Files.newBufferedWriter(fichier, UTF_8);
+    return fichier.getFileName().toString().endsWith(EXTENSION_SARIF) ? new RapportSarif(writer) : new RapportJsonLines(writer);
+  }
+
+  /**
+   * Ecrit l'erreur remontée sur le fichier
+   */
+  public synchronized void ecrire(Fichier fichier, Erreur erreur) {
+    try {
+      ecrireErreur(fichier, erreur);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  protected abstract void ecrireErreur(Fichier fichier, Erreur erreur) throws IOException;
+
+  @Override
+  public synchronized void close() throws IOException {
+    writer.close();
+  }
+
+  /**
+   * Ecrit la propriété <code>"nom":"valeur"</code> (précédée d'une virgule si elle n'est pas la première) si la valeur est renseignée
+   */
+  protected void ecrirePropriete(String nom, String valeur, boolean premiere) throws IOException {
+    if (valeur == null) {
+      return;
+    }
+    if (!premiere) {
+      writer.write(',');
+    }
+    ecrireChaine(nom);
+    writer.write(':');
+    ecrireChaine(valeur);
+  }
+
+  protected void ecrireChaine(String valeur) throws IOException {
+    Json.ecrireChaine(writer, valeur);
+  }
+}
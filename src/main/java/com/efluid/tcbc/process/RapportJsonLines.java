@@ -0,0 +1,29 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+
+import com.efluid.tcbc.object.*;
+
+/**
+ * Rapport JSON Lines : une ligne par erreur, contenant son type, le jar et la classe en erreur, la référence en cause et le libellé
+ */
+class RapportJsonLines extends RapportErreurs {
+
+  RapportJsonLines(Writer writer) {
+    super(writer);
+  }
+
+  @Override
+  protected void ecrireErreur(Fichier fichier, Erreur erreur) throws IOException {
+    writer.write('{');
+    ecrirePropriete("type", erreur.getType().name(), true);
+    ecrirePropriete("jar", fichier.getNomJar(), false);
+    ecrirePropriete("classe", fichier.getNom(), false);
+    ecrirePropriete("classeReferencee", erreur.getClasseReferencee(), false);
+    ecrirePropriete("methode", erreur.getMethode(), false);
+    ecrirePropriete("descripteur", erreur.getDescripteur(), false);
+    ecrirePropriete("libelle", erreur.getLibelle(), false);
+    writer.write('}');
+    writer.write('\n');
+  }
+}
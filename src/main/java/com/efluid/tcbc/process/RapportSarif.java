@@ -0,0 +1,71 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+import java.nio.file.Paths;
+
+import com.efluid.tcbc.object.*;
+
+/**
+ * Rapport SARIF 2.1.0 : une règle par type d'erreur, un résultat par erreur localisé sur le jar (artefact) et la classe (emplacement logique).
+ * <p>
+ * L'en-tête est écrit à l'ouverture, chaque résultat dès qu'il est remonté, la fin du document à la fermeture.
+ */
+class RapportSarif extends RapportErreurs {
+
+  private static final String OUTIL = "test-control-byte-code";
+  private static final String URL_OUTIL = "https://github.com/efluid/testControlByteCode";
+
+  private boolean premierResultat = true;
+
+  RapportSarif(Writer writer) throws IOException {
+    super(writer);
+    ecrireEntete();
+  }
+
+  private void ecrireEntete() throws IOException {
+    writer.write("{\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\",\"version\":\"2.1.0\",\"runs\":[{\"tool\":{\"driver\":{");
+    ecrirePropriete("name", OUTIL, true);
+    ecrirePropriete("informationUri", URL_OUTIL, false);
+    writer.write(",\"rules\":[");
+    for (TypeErreur type : TypeErreur.values()) {
+      if (type.ordinal() > 0) {
+        writer.write(',');
+      }
+      writer.write('{');
+      ecrirePropriete("id", type.name(), true);
+      writer.write(",\"shortDescription\":{");
+      ecrirePropriete("text", type.getDescription(), true);
+      writer.write("}}");
+    }
+    writer.write("]}},\"results\":[\n");
+  }
+
+  @Override
+  protected void ecrireErreur(Fichier fichier, Erreur erreur) throws IOException {
+    if (!premierResultat) {
+      writer.write(",\n");
+    }
+    premierResultat = false;
+    writer.write('{');
+    ecrirePropriete("ruleId", erreur.getType().name(), true);
+    ecrirePropriete("level", "error", false);
+    writer.write(",\"message\":{");
+    ecrirePropriete("text", erreur.getLibelle(), true);
+    writer.write("},\"locations\":[{\"physicalLocation\":{\"artifactLocation\":{");
+    ecrirePropriete("uri", Paths.get(fichier.getNomJar()).toUri().toString(), true);
+    writer.write("}},\"logicalLocations\":[{");
+    ecrirePropriete("fullyQualifiedName", fichier.getNom(), true);
+    ecrirePropriete("kind", "type", false);
+    writer.write("}]}],\"properties\":{");
+    ecrirePropriete("classeReferencee", erreur.getClasseReferencee(), true);
+    ecrirePropriete("methode", erreur.getMethode(), erreur.getClasseReferencee() == null);
+    ecrirePropriete("descripteur", erreur.getDescripteur(), erreur.getClasseReferencee() == null && erreur.getMethode() == null);
+    writer.write("}}");
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    writer.write("\n]}]}\n");
+    super.close();
+  }
+}
@@ -2,12 +2,15 @@ package com.efluid.tcbc.process;
 
 import static javassist.bytecode.ConstPool.*;
 import static javassist.bytecode.Descriptor.getReturnType;
+import static com.efluid.tcbc.process.MesuresScan.Phase.*;
 
+import java.io.*;
 import java.lang.reflect.Array;
 import java.util.*;
 
 import com.efluid.tcbc.TestControleByteCode;
 import com.efluid.tcbc.object.*;
+import com.efluid.tcbc.utils.Descripteurs;
 import javassist.*;
 import javassist.bytecode.*;
 
@@ -30,8 +33,30 @@ public class ReadByteCodeClass<T extends TestControleByteCode> {
     WRAPPER_TO_PRIMITIVE = Collections.unmodifiableMap(wrapperTypes);
   }
 
+  private static final Map<Character, Class<?>> PRIMITIVES;
+
+  static {
+    Map<Character, Class<?>> primitives = new HashMap<>();
+    primitives.put('V', void.class);
+    primitives.put('Z', boolean.class);
+    primitives.put('B', byte.class);
+    primitives.put('C', char.class);
+    primitives.put('S', short.class);
+    primitives.put('I', int.class);
+    primitives.put('J', long.class);
+    primitives.put('F', float.class);
+    primitives.put('D', double.class);
+
+    PRIMITIVES = Collections.unmodifiableMap(primitives);
+  }
+
+  /* Lecteur de constant pool réutilisé par chaque thread de scan */
+  private static final ThreadLocal<LecteurConstantPool> LECTEUR = ThreadLocal.withInitial(LecteurConstantPool::new);
+
   private T control;
   private Fichier currentReadingClass;
+  /* Chargeur isolé du classpath scanné, utilisé pendant tout le traitement de la classe (résolution par réflexion) */
+  private ChargeurClasspath.Chargeur chargeur;
 
   public ReadByteCodeClass(T control, Fichier currentReadingClass) {
     this.control = control;
@@ -39,12 +64,135 @@ public class ReadByteCodeClass<T extends TestControleByteCode> {
   }
 
   public void execute() {
-    if (toClass(currentReadingClass.getNom()) != null) {
-      try {
-        lireByteCodeClasse(ClassPool.getDefault().get(currentReadingClass.getNom()).getClassFile().getConstPool());
-      } catch (Throwable ex) {
-        control.addErreur("Classe en erreur de lecture du byte code : " + currentReadingClass + " Erreur : " + ex.getMessage());
+    if (control.isCacheActif()) {
+      control.enregistrerReference(currentReadingClass.getNom());
+    }
+    if (!control.isResolutionParIndex()) {
+      chargeur = control.getChargeurClasspath().acquerir();
+    }
+    try {
+      if (isClasseChargeable()) {
+        lire();
+      }
+    } finally {
+      if (chargeur != null) {
+        chargeur.close();
+      }
+    }
+  }
+
+  private void lire() {
+    try {
+      if (control.isLecteurJavassist()) {
+        lireAvecJavassist();
+      } else {
+        lireConstantPool();
       }
+    } catch (Throwable ex) {
+      control.addErreur(new Erreur(TypeErreur.LECTURE_BYTE_CODE, currentReadingClass, null, null, null,
+        "Classe en erreur de lecture du byte code : " + Erreur.FICHIER_APPELANT + " Erreur : " + ex.getMessage()));
+    }
+  }
+
+  /**
+   * Lit le constant pool directement depuis le byte code de la classe, sans javassist. En scan combiné, les références lues sont partagées
+   * par tous les contrôles : la classe n'est lue qu'une fois.
+   */
+  private void lireConstantPool() throws Exception {
+    if (!control.isScanCombine()) {
+      lireConstantPool(new VisiteurReferences());
+      return;
+    }
+    ReferencesClasse references = control.getLecturePartagee(ReferencesClasse.class, () -> {
+      ReferencesClasse lues = new ReferencesClasse();
+      lireConstantPool(lues);
+      return lues;
+    });
+    // Le rejeu des références déjà lues n'est pas une analyse du constant pool : son temps reste attribué au traitement du fichier
+    references.visiter(new VisiteurReferences());
+  }
+
+  /**
+   * Le byte code est celui de l'entrée en cours de parcours, et non celui de la première copie de la classe dans le classpath
+   */
+  private void lireConstantPool(LecteurConstantPool.Visiteur visiteur) throws IOException {
+    ContenuFichier contenu = lireContenu();
+    MesuresScan mesures = control.getMesures();
+    long marque = mesures.debut();
+    try {
+      LECTEUR.get().lire(contenu.getOctets(), visiteur);
+    } finally {
+      mesures.fin(ANALYSE_CONSTANT_POOL, marque);
+    }
+  }
+
+  /**
+   * Contenu de l'entrée en cours de parcours, décompressé une seule fois pour la lecture du byte code et le chargement de la classe
+   */
+  private ContenuFichier lireContenu() throws IOException {
+    return control.getContenuFichierEnCours();
+  }
+
+  /**
+   * Lit le ClassFile de l'entrée en cours de parcours. Le ClassPool du jar ne sert qu'à résoudre les types des descripteurs.
+   */
+  private void lireAvecJavassist() throws IOException, NotFoundException {
+    ClassFile classFile;
+    try (DataInputStream is = new DataInputStream(lireContenu().ouvrir())) {
+      classFile = new ClassFile(is);
+    }
+    MesuresScan mesures = control.getMesures();
+    long marque = mesures.debut();
+    try {
+      lireByteCodeClasse(classFile.getConstPool());
+    } finally {
+      mesures.fin(ANALYSE_CONSTANT_POOL, marque);
+    }
+  }
+
+  /**
+   * Par réflexion, la classe lue doit pouvoir être chargée. Via l'index, sa classe mère et ses interfaces doivent exister.
+   */
+  private boolean isClasseChargeable() {
+    if (!control.isResolutionParIndex()) {
+      VerdictMethode verdict = new VerdictMethode();
+      Class<?> classe = chargerClasse(currentReadingClass.getNom(), "", verdict, getContenuCopieUtilisee());
+      verdict.appliquer(control, currentReadingClass);
+      return classe != null;
+    }
+    ClasseIndexee classe = control.getIndexClasspath().getClasse(currentReadingClass.getNom());
+    if (classe == null) {
+      return true;
+    }
+    List<String> parents = new ArrayList<>(classe.getInterfaces());
+    if (classe.getSuperClasse() != null) {
+      parents.add(classe.getSuperClasse());
+    }
+    boolean chargeable = true;
+    for (String parent : parents) {
+      if (control.getIndexClasspath().getClasse(parent) == null) {
+        control.addErreur(new Erreur(TypeErreur.CHARGEMENT_CLASSE, currentReadingClass, parent, null, null,
+          "Classe en erreur de chargement : " + Erreur.FICHIER_APPELANT + " java.lang.NoClassDefFoundError: " + parent));
+        chargeable = false;
+      }
+    }
+    return chargeable;
+  }
+
+  /**
+   * @return le contenu de la classe en cours si c'est la copie utilisée au runtime (une classe masquée est chargée depuis le jar qui l'emporte),
+   * <code>null</code> si elle ne peut être lue : la classe est alors chargée par son nom. Sans détection des classes masquées, la copie en cours
+   * est considérée comme celle utilisée au runtime.
+   */
+  private ContenuFichier getContenuCopieUtilisee() {
+    String origine = control.getOrigineRuntime(currentReadingClass.getNom());
+    if (origine != null && !currentReadingClass.getNomJar().equals(origine)) {
+      return null;
+    }
+    try {
+      return lireContenu();
+    } catch (IOException ex) {
+      return null;
     }
   }
 
@@ -62,82 +210,223 @@ public class ReadByteCodeClass<T extends TestControleByteCode> {
     for (int index = 1; index < constantPool.getSize(); index++) {
       switch (constantPool.getTag(index)) {
         case (CONST_Methodref):
+          enregistrerReferences(constantPool.getMethodrefClassName(index), constantPool.getMethodrefType(index));
           analyserMethode(constantPool.getMethodrefClassName(index), constantPool.getMethodrefName(index), constantPool.getMethodrefType(index));
           break;
         case (CONST_InterfaceMethodref):
+          enregistrerReferences(constantPool.getInterfaceMethodrefClassName(index), constantPool.getInterfaceMethodrefType(index));
           analyserMethode(constantPool.getInterfaceMethodrefClassName(index), constantPool.getInterfaceMethodrefName(index), constantPool.getInterfaceMethodrefType(index));
           break;
         case (CONST_InvokeDynamic):
-          String signature = constantPool.getInvokeDynamicType(index);
-          toClass(getReturnType(signature, ClassPool.getDefault()));
-          getClassParametresTypes(signature);
+          enregistrerReferences(null, constantPool.getInvokeDynamicType(index));
+          analyserInvokeDynamic(constantPool.getInvokeDynamicType(index));
           break;
       }
     }
   }
 
   /**
-   * Charge la classe référencée et appelle la méthode
+   * Lorsque le cache de scan est actif, les classes référencées (propriétaire et types du descripteur) déterminent sa validité
+   */
+  private void enregistrerReferences(String nomClasse, String descripteur) {
+    if (control.isCacheActif()) {
+      if (nomClasse != null) {
+        control.enregistrerReference(nomClasse);
+      }
+      Descripteurs.getClassesReferencees(descripteur).forEach(control::enregistrerReference);
+    }
+  }
+
+  /**
+   * Vérifie la méthode référencée, une seule fois par référence (classe, nom, descripteur) pour tout le scan. Les erreurs du verdict sont
+   * attribuées à la classe en cours.
    */
   protected void analyserMethode(String nomClasse, String nomMethode, String signature) throws NotFoundException {
-    if (!Arrays.asList("<init>", "<clinit>").contains(nomMethode)) {
-      Class<?> aClass = chargerClasse(nomClasse, nomMethode);
+    if (Arrays.asList("<init>", "<clinit>").contains(nomMethode)) {
+      return;
+    }
+    String cle = CacheVerdicts.cle(nomClasse, nomMethode, signature);
+    VerdictMethode verdict = control.getCacheVerdicts().get(cle);
+    if (verdict == null) {
+      long marque = control.getMesures().debut();
+      try {
+        verdict = verifierMethode(nomClasse, nomMethode, signature);
+      } finally {
+        control.getMesures().fin(RESOLUTION_METHODE, marque);
+      }
+      control.getCacheVerdicts().put(cle, verdict);
+    }
+    verdict.appliquer(control, currentReadingClass);
+  }
+
+  /**
+   * Charge la classe référencée et appelle la méthode
+   */
+  private VerdictMethode verifierMethode(String nomClasse, String nomMethode, String signature) throws NotFoundException {
+    VerdictMethode verdict = new VerdictMethode(nomClasse, nomMethode, signature);
+    if (control.isResolutionParIndex()) {
+      new MethodIndexControl(control.getIndexClasspath(), verdict, nomClasse, nomMethode, signature).execute();
+    } else {
+      Class<?> aClass = chargerClasse(nomClasse, nomMethode, verdict, null);
       if (aClass != null) {
-        MethodeCall methodeCall = new MethodeCall(currentReadingClass, aClass, nomMethode, getClassParametresTypes(signature), toClass(getReturnType(signature, ClassPool.getDefault())));
-        new MethodExistControl(control, methodeCall).execute();
+        MethodeCall methodeCall = new MethodeCall(aClass, nomMethode, getClassParametresTypes(signature, verdict), getClassTypeRetour(signature, verdict));
+        new MethodExistControl(verdict, methodeCall).execute();
       }
     }
+    return verdict;
+  }
+
+  /**
+   * Les types des paramètres et du retour d'un appel dynamique (lambda) doivent exister
+   */
+  private void analyserInvokeDynamic(String signature) throws NotFoundException {
+    if (control.isResolutionParIndex()) {
+      Descripteurs.getClassesReferencees(signature).stream()
+        .filter(type -> control.getIndexClasspath().getClasse(type) == null)
+        .forEach(type -> control.addErreur(new Erreur(TypeErreur.CHARGEMENT_CLASSE, currentReadingClass, type, null, null,
+          "Classe en erreur de chargement : " + Erreur.FICHIER_APPELANT + " java.lang.ClassNotFoundException: " + type)));
+    } else {
+      VerdictMethode verdict = new VerdictMethode();
+      getClassTypeRetour(signature, verdict);
+      getClassParametresTypes(signature, verdict);
+      verdict.appliquer(control, currentReadingClass);
+    }
   }
 
-  private Class<?>[] getClassParametresTypes(String signature) throws NotFoundException {
-    return Arrays.stream(Descriptor.getParameterTypes(signature, ClassPool.getDefault())).map(this::toClass).toArray(Class[]::new);
+  private Class<?>[] getClassParametresTypes(String signature, VerdictMethode verdict) throws NotFoundException {
+    if (!control.isLecteurJavassist()) {
+      return Descripteurs.getDescripteursParametres(signature).stream().map(type -> toClassDepuisDescripteur(type, verdict)).toArray(Class[]::new);
+    }
+    return Arrays.stream(Descriptor.getParameterTypes(signature, control.getClassPool())).map(type -> toClass(type, verdict)).toArray(Class[]::new);
   }
 
-  private Class<?> toClass(CtClass ctClasse) {
+  private Class<?> getClassTypeRetour(String signature, VerdictMethode verdict) throws NotFoundException {
+    if (!control.isLecteurJavassist()) {
+      return toClassDepuisDescripteur(Descripteurs.getRetour(signature), verdict);
+    }
+    return toClass(getReturnType(signature, control.getClassPool()), verdict);
+  }
+
+  /**
+   * Convertit le descripteur d'un type (ex : <code>I</code>, <code>Ljava/lang/String;</code>, <code>[J</code>) en classe, sans passer par javassist
+   */
+  private Class<?> toClassDepuisDescripteur(String type, VerdictMethode verdict) {
+    switch (type.charAt(0)) {
+      case 'L':
+        return toClass(type.substring(1, type.length() - 1).replace('/', '.'), verdict);
+      case '[':
+        Class<?> composant = toClassDepuisDescripteur(type.substring(1), verdict);
+        return composant != null ? Array.newInstance(composant, 0).getClass() : null;
+      default:
+        return PRIMITIVES.get(type.charAt(0));
+    }
+  }
+
+  private Class<?> toClass(CtClass ctClasse, VerdictMethode verdict) {
     if (ctClasse.isPrimitive()) {
-      return WRAPPER_TO_PRIMITIVE.get(toClass(((CtPrimitiveType) ctClasse).getWrapperName()));
+      return WRAPPER_TO_PRIMITIVE.get(toClass(((CtPrimitiveType) ctClasse).getWrapperName(), verdict));
     } else if (ctClasse.isArray()) {
       try {
-        return Array.newInstance(toClass(ctClasse.getComponentType()), 0).getClass();
+        return Array.newInstance(toClass(ctClasse.getComponentType(), verdict), 0).getClass();
       } catch (NotFoundException e) {
         throw new RuntimeException(e);
       }
     }
-    return toClass(ctClasse.getName());
+    return toClass(ctClasse.getName(), verdict);
   }
 
   protected Class<?> toClass(String nomClasse) {
+    VerdictMethode verdict = new VerdictMethode();
+    Class<?> classe = toClass(nomClasse, verdict);
+    verdict.appliquer(control, currentReadingClass);
+    return classe;
+  }
+
+  private Class<?> toClass(String nomClasse, VerdictMethode verdict) {
     try {
-      return chargerClasse(nomClasse, "");
+      return chargerClasse(nomClasse, "", verdict, null);
     } catch (Throwable ex) {
-      control.addErreur("Classe en erreur de chargement : " + currentReadingClass + "" + ex.getMessage());
+      verdict.addErreur(TypeErreur.CHARGEMENT_CLASSE, "Classe en erreur de chargement : " + Erreur.FICHIER_APPELANT + ex.getMessage());
       return null;
     }
   }
 
   /**
-   * Capture et traite l'ensemble des exceptions lors du chargement de la classe dans le classLoader
+   * Capture et traite l'ensemble des exceptions lors du chargement de la classe (sans l'initialiser) par le chargeur isolé du classpath scanné.
+   * Une classe déjà en échec n'est pas rechargée, sauf si son échec était temporaire (chargement bloqué d'un autre thread). Si son contenu est
+   * fourni, la classe en est définie sans être recherchée dans le classpath.
    */
-  private Class<?> chargerClasse(String nomClasse, String nomMethode) {
+  private Class<?> chargerClasse(String nomClasse, String nomMethode, VerdictMethode verdict, ContenuFichier contenu) {
     String libelle = nomClasse + (nomMethode != null ? "#" + nomMethode : "");
-    try {
-      return Class.forName(nomClasse);
-    } catch (VerifyError ex) {
-      String message = ex.getMessage();
-      message = message.substring(ex.getMessage().indexOf("Exception Details:"), ex.getMessage().indexOf("Current Frame:")).replace('\n', ' ');
-      libelle += " - " + (ex.getMessage().contains("Exception Details:") ? message : ex.getMessage());
-    } catch (Throwable errClassDefFound) {
-      libelle += " - " + errClassDefFound;
+    String echec = control.getCacheEchecsChargement().get(nomClasse);
+    if (echec == null) {
+      long marque = control.getMesures().debut();
+      Throwable cause;
+      try {
+        return contenu != null ? chargeur.definir(nomClasse, contenu) : chargeur.charger(nomClasse);
+      } catch (VerifyError ex) {
+        cause = ex;
+        echec = getDetails(ex);
+      } catch (Throwable errClassDefFound) {
+        cause = errClassDefFound;
+        echec = errClassDefFound.toString();
+      } finally {
+        control.getMesures().fin(CHARGEMENT_CLASSE, marque);
+      }
+      if (!control.getCacheEchecsChargement().put(nomClasse, cause, echec)) {
+        verdict.setTemporaire();
+      }
     }
+    libelle += " - " + echec;
 
-    boolean erreurAjoutee = control.addErreur(libelle);
-    if (erreurAjoutee && !ScanneClasspath.isNullOrEmpty(nomMethode)) {
-      control.getClassesReferenceesNonTrouveesOuChargees().putIfAbsent(nomClasse, libelle + (" - Classe appelante : " + currentReadingClass));
+    if (ScanneClasspath.isNullOrEmpty(nomMethode)) {
+      verdict.addErreur(TypeErreur.CHARGEMENT_CLASSE, libelle);
+    } else {
+      verdict.addClasseNonTrouvee(nomClasse, libelle);
     }
     return null;
   }
 
+  /**
+   * Seule la partie "Exception Details" du message (hors pile des frames) est conservée lorsqu'elle existe
+   */
+  private static String getDetails(VerifyError ex) {
+    String message = String.valueOf(ex.getMessage());
+    int debut = message.indexOf("Exception Details:");
+    if (debut < 0) {
+      return message;
+    }
+    int fin = message.indexOf("Current Frame:", debut);
+    return message.substring(debut, fin < 0 ? message.length() : fin).replace('\n', ' ');
+  }
+
   protected T getControl() {
     return control;
   }
+
+  /**
+   * Transmet les références lues par le lecteur de constant pool à l'analyse de la classe en cours
+   */
+  private class VisiteurReferences implements LecteurConstantPool.Visiteur {
+
+    @Override
+    public void methode(String classe, String nom, String descripteur, boolean methodeInterface) {
+      try {
+        enregistrerReferences(classe, descripteur);
+        analyserMethode(classe, nom, descripteur);
+      } catch (NotFoundException ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+
+    @Override
+    public void invokeDynamic(String descripteur) {
+      try {
+        enregistrerReferences(null, descripteur);
+        analyserInvokeDynamic(descripteur);
+      } catch (NotFoundException ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+  }
 }
@@ -0,0 +1,50 @@
+package com.efluid.tcbc.process;
+
+import java.util.*;
+
+/**
+ * Références lues dans le constant pool d'une classe, conservées dans leur ordre de lecture pour être transmises à plusieurs visiteurs (un par
+ * contrôle du scan combiné).
+ */
+class ReferencesClasse implements LecteurConstantPool.Visiteur {
+
+  private final List<Reference> references = new ArrayList<>();
+
+  @Override
+  public void methode(String classe, String nom, String descripteur, boolean methodeInterface) {
+    references.add(new Reference(classe, nom, descripteur, methodeInterface));
+  }
+
+  @Override
+  public void invokeDynamic(String descripteur) {
+    references.add(new Reference(null, null, descripteur, false));
+  }
+
+  /**
+   * Transmet les références au visiteur, comme le ferait la lecture du constant pool
+   */
+  void visiter(LecteurConstantPool.Visiteur visiteur) {
+    for (Reference reference : references) {
+      if (reference.nom == null) {
+        visiteur.invokeDynamic(reference.descripteur);
+      } else {
+        visiteur.methode(reference.classe, reference.nom, reference.descripteur, reference.methodeInterface);
+      }
+    }
+  }
+
+  private static class Reference {
+
+    private final String classe;
+    private final String nom;
+    private final String descripteur;
+    private final boolean methodeInterface;
+
+    private Reference(String classe, String nom, String descripteur, boolean methodeInterface) {
+      this.classe = classe;
+      this.nom = nom;
+      this.descripteur = descripteur;
+      this.methodeInterface = methodeInterface;
+    }
+  }
+}
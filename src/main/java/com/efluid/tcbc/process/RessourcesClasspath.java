@@ -0,0 +1,116 @@
+package com.efluid.tcbc.process;
+
+import java.io.Closeable;
+
+/**
+ * Ressources partagées par les threads du parcours du classpath scanné : index des classes, origines, chargeur isolé et lecteur des jars
+ * mappés. Chacune est créée à la première demande et libérée à la fin du scan.
+ */
+class RessourcesClasspath implements Closeable {
+
+  private final OptionsScan options;
+  private volatile String[] chemins = new String[0];
+  private volatile IndexClasspath index;
+  /* Index donnant l'origine runtime des classes, construit avant le parcours si un contrôle détecte les classes masquées, lu sans verrou */
+  private volatile IndexClasspath indexOrigines;
+  private OriginesClasses originesClasses;
+  private ChargeurClasspath chargeur;
+  private LecteurJarsMappes lecteurJarsMappes;
+
+  RessourcesClasspath(OptionsScan options) {
+    this.options = options;
+  }
+
+  /**
+   * Classpath scanné, à définir avant la création des ressources
+   */
+  void setChemins(String... chemins) {
+    this.chemins = chemins;
+  }
+
+  /**
+   * Index des classes de tout le classpath scanné (y compris les jars non contrôlés), construit à la première demande puis lu sans verrou
+   */
+  IndexClasspath getIndex() {
+    IndexClasspath resultat = index;
+    if (resultat != null) {
+      return resultat;
+    }
+    synchronized (this) {
+      if (index == null) {
+        index = new IndexClasspath(chemins);
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Construit l'index avant le parcours pour que l'origine runtime des classes soit ensuite lue sans verrou
+   */
+  void preparerOrigines() {
+    indexOrigines = getIndex();
+  }
+
+  /**
+   * @return le jar ou répertoire dont la classe est utilisée au runtime, <code>null</code> si elle est absente du classpath scanné ou si les
+   * origines n'ont pas été préparées
+   */
+  String getOrigineRuntime(String nomClasse) {
+    IndexClasspath origines = indexOrigines;
+    return origines != null ? origines.getOrigine(nomClasse) : null;
+  }
+
+  /**
+   * Origine des classes référencées, résolue par l'index du classpath
+   */
+  synchronized OriginesClasses getOriginesClasses() {
+    if (originesClasses == null) {
+      originesClasses = new OriginesClasses(getIndex());
+    }
+    return originesClasses;
+  }
+
+  /**
+   * Chargeur isolé des classes du classpath scanné
+   */
+  synchronized ChargeurClasspath getChargeur() {
+    if (chargeur == null) {
+      chargeur = new ChargeurClasspath(chemins, options.getNombreJarsParChargeur(), options.getNombreClassesParChargeur(), options.getDelaiChargement());
+    }
+    return chargeur;
+  }
+
+  /**
+   * Fin d'un jar : le chargeur isolé est remplacé si le nombre de jars par chargeur est atteint
+   */
+  synchronized void finJar() {
+    if (chargeur != null) {
+      chargeur.finJar();
+    }
+  }
+
+  synchronized LecteurJarsMappes getLecteurJarsMappes() {
+    if (lecteurJarsMappes == null) {
+      lecteurJarsMappes = new LecteurJarsMappes(options.getNombreThreadsDecompression(), options.getVersionJava());
+    }
+    return lecteurJarsMappes;
+  }
+
+  @Override
+  public synchronized void close() {
+    indexOrigines = null;
+    originesClasses = null;
+    if (lecteurJarsMappes != null) {
+      lecteurJarsMappes.close();
+      lecteurJarsMappes = null;
+    }
+    if (chargeur != null) {
+      chargeur.close();
+      chargeur = null;
+    }
+    if (index != null) {
+      index.close();
+      index = null;
+    }
+  }
+}
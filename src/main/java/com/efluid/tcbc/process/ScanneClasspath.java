@@ -1,31 +1,40 @@
 package com.efluid.tcbc.process;
 
 import static java.io.File.*;
-import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.Files.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static com.efluid.tcbc.process.MesuresScan.Phase.*;
 import static com.efluid.tcbc.process.ScanneClasspath.Exclusion.*;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
-import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Scanner;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.assertj.core.util.VisibleForTesting;
 import org.junit.Before;
@@ -37,6 +46,8 @@ import org.yaml.snakeyaml.Yaml;
 import com.efluid.tcbc.TestControleByteCode;
 import com.efluid.tcbc.object.Fichier;
 import com.efluid.tcbc.object.Jar;
+import com.efluid.tcbc.utils.EntreesJar;
+import com.efluid.tcbc.utils.FiltreSousChaines;
 
 /**
  * Canevas permettant de parcourir le classpath fichier par fichier <br>
@@ -44,16 +55,45 @@ import com.efluid.tcbc.object.Jar;
  * Journal des informations et du temps d'exécution<br>
  * <br>
  * Pour définir un classpath différent que celui par défaut, utiliser la variable d'environnement -Dclasspath=XXX<br>
+ * Pour scanner les jars en parallèle, définir le nombre de threads via la variable d'environnement -DnbThreads=8<br>
+ * Pour réutiliser les résultats des jars inchangés d'une exécution à l'autre, définir le répertoire du cache via -DrepertoireCache=target/tcbc-cache<br>
+ * Pour écrire les mesures du scan (temps par phase, jars et fichiers les plus lents), définir le fichier via -DfichierMesures=target/mesures.yaml
+ * et le nombre de jars et fichiers les plus lents via -DnbPlusLents=10<br>
+ * Les classes chargées pour le contrôle le sont par un chargeur isolé du classpath scanné, remplacé après -DnbJarsParChargeur=50 jars
+ * (par défaut) ou -DnbClassesParChargeur=50000 classes (jamais par défaut). Un chargement qui dépasse -DdelaiChargement=30000 ms (par défaut) est signalé.<br>
+ * Seules les entrées des jars multi-release utilisées par la version de Java cible sont scannées : celle de la JVM, ou -DversionJava=11.
+ * Les module-info et package-info sont des métadonnées et ne sont pas scannés.<br>
+ * Pour lire les jars par mapping mémoire, les classes étant décompressées en parallèle par -DnbThreadsDecompression threads (nombre de
+ * processeurs par défaut) : -DlecteurJar=mappe<br>
+ * Les sous-répertoires d'un répertoire classes sont parcourus en parallèle par -DnbThreadsParcours threads (nombre de processeurs par défaut),
+ * chaque fichier étant traité dès qu'il est trouvé.<br>
+ * <br>
+ * Plusieurs contrôles peuvent être effectués lors d'un même parcours (scan combiné, voir {@link #ScanneClasspath(ScanneClasspath...)}) : chaque
+ * jar n'est alors ouvert qu'une fois et chacun de ses fichiers est transmis à tous les contrôles qui le traitent.
  */
 public abstract class ScanneClasspath {
 
   private static final Logger LOG = LoggerFactory.getLogger(ScanneClasspath.class);
   private static final String CLASSES_EXTENSION = "class";
-  private static final Set<String> EXTENSIONS = new HashSet<>(Collections.singletonList(CLASSES_EXTENSION));
-
-  private static final String ENV_CLASSEPATH = "classpath";
 
-  private final String classpath = System.getProperty(ENV_CLASSEPATH);
+  private static final String RESULTATS_EXCLUSIONS = "exclusions";
+
+  private final OptionsScan options = new OptionsScan();
+  private String[] cheminsClasspath = new String[0];
+  private final RessourcesClasspath ressources = new RessourcesClasspath(options);
+  private final LecteurClasspath lecteur = new LecteurClasspath(options, ressources);
+  private CacheControle cache;
+  private MesuresScan mesures = new MesuresScan(options.getNombrePlusLents());
+  private final Set<String> extensions = new HashSet<>(Collections.singletonList(CLASSES_EXTENSION));
+
+  /* Contrôles effectués lors du parcours : le contrôle lui-même, ou ceux du scan combiné */
+  private final List<ScanneClasspath> controles;
+  /* Scan qui parcourt le classpath : le contrôle lui-même, ou le scan combiné auquel il participe */
+  private ScanneClasspath principal = this;
+  /* Source et lectures du fichier en cours, partagées par les contrôles du scan combiné */
+  private final LectureFichierEnCours lectureFichierEnCours = new LectureFichierEnCours();
+  /* Extensions traitées par au moins un des contrôles, fixées au début du parcours */
+  private Set<String> extensionsScannees;
 
   public enum Exclusion {
     FICHIER,
@@ -61,21 +101,25 @@ public abstract class ScanneClasspath {
   }
 
   /**
-   * Curseurs du jar et classe lus en cours
+   * Curseurs du jar et classe lus en cours, propres à chaque thread de scan
    */
-  Fichier fichierEnCours;
-  Jar jarEnCours;
+  private final ThreadLocal<Fichier> fichierEnCours = new ThreadLocal<>();
+  private final ThreadLocal<Jar> jarEnCours = new ThreadLocal<>();
 
   protected void addToExtensions(String extension) {
-    EXTENSIONS.add(extension);
+    extensions.add(extension);
   }
 
   protected Fichier getFichierEnCours() {
-    return fichierEnCours;
+    return fichierEnCours.get();
   }
 
   public Jar getJarEnCours() {
-    return jarEnCours;
+    return jarEnCours.get();
+  }
+
+  public MesuresScan getMesures() {
+    return mesures;
   }
 
   /**
@@ -86,17 +130,47 @@ public abstract class ScanneClasspath {
   private Set<String> directoryExcluded = new HashSet<>();
   private Set<String> filtreFichiersExclus = new HashSet<>();
   private Set<String> filtreErreursExclues = new HashSet<>();
+  /* Filtres compilés une fois la configuration chargée */
+  private List<Pattern> patternsJars = Collections.emptyList();
+  private FiltreSousChaines filtreFichiers = new FiltreSousChaines(Collections.emptyList());
+  private FiltreSousChaines filtreErreurs = new FiltreSousChaines(Collections.emptyList());
 
   /**
-   * Utilisés pour effectuer le bilan global
+   * Utilisés pour effectuer le bilan global. Les jars sont conservés dans l'ordre du classpath.
    */
-  Set<Jar> jarsTraites = new HashSet<>();
+  Set<Jar> jarsTraites = new LinkedHashSet<>();
 
   Map<Exclusion, Set<String>> exclusions = new EnumMap<>(Exclusion.class);
 
   protected ScanneClasspath() {
-    exclusions.put(ERREUR, new HashSet<>());
-    exclusions.put(FICHIER, new HashSet<>());
+    exclusions.put(ERREUR, ConcurrentHashMap.newKeySet());
+    exclusions.put(FICHIER, ConcurrentHashMap.newKeySet());
+    controles = Collections.singletonList(this);
+  }
+
+  /**
+   * Scan combiné : les contrôles sont effectués lors d'un seul parcours du classpath. Chacun conserve sa configuration, son cache et son bilan,
+   * seuls le parcours, l'index du classpath, les mesures et la lecture des classes sont partagés.
+   */
+  protected ScanneClasspath(ScanneClasspath... controles) {
+    exclusions.put(ERREUR, ConcurrentHashMap.newKeySet());
+    exclusions.put(FICHIER, ConcurrentHashMap.newKeySet());
+    this.controles = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(controles)));
+    for (ScanneClasspath controle : this.controles) {
+      controle.principal = this;
+      controle.mesures = mesures;
+    }
+  }
+
+  /**
+   * @return true si le contrôle participe à un scan combiné
+   */
+  public boolean isScanCombine() {
+    return principal != this;
+  }
+
+  public List<ScanneClasspath> getControles() {
+    return controles;
   }
 
   public Map<Exclusion, Set<String>> getExclusions() {
@@ -117,19 +191,42 @@ public abstract class ScanneClasspath {
   protected abstract String getFichierConfiguration();
 
   /**
-   * traitement à définir pour chaque fichier identifié
+   * Traitement de chaque fichier identifié. Aucun traitement par défaut : un scan combiné transmet les fichiers à ses contrôles.
+   */
+  protected void traitementFichierEnCours() {
+    /* Aucun traitement par défaut */
+  }
+
+  /**
+   * Traitement à effectuer avant le scan du jar en cours (dans le thread qui le scanne)
+   */
+  protected void debutTraitementJar() {
+    /* Aucun traitement par défaut */
+  }
+
+  /**
+   * Traitement à effectuer après le scan du jar en cours (dans le thread qui l'a scanné)
    */
-  protected abstract void traitementFichierEnCours();
+  protected void finTraitementJar() {
+    /* Aucun traitement par défaut */
+  }
 
   /**
    * Affiche l'analyse et les erreurs rencontrées
    * @return nombre d'erreur
    */
   protected int logBilan() {
+    logCache();
     logExclusion();
     return 0;
   }
 
+  private void logCache() {
+    if (cache != null) {
+      cache.logBilan();
+    }
+  }
+
   private void logExclusion() {
     doLogList(exclusions.get(FICHIER), "Exclusions des fichiers");
     doLogList(exclusions.get(ERREUR), "Exclusions des erreurs");
@@ -137,22 +234,71 @@ public abstract class ScanneClasspath {
 
   @Before
   public void init() {
-    chargerConfiguration();
+    if (controles.contains(this)) {
+      chargerConfiguration();
+    } else {
+      controles.forEach(ScanneClasspath::init);
+    }
   }
 
   @Test
   public void execute() {
-    execute(classpath != null ? new String[] { classpath } : null);
+    execute(options.getClasspath());
   }
 
   /**
    * Lance l'exécution du contrôle du byteCode
    */
   private void execute(String... classpath) {
-    scannerClasspaths(classpath);
-    int erreurs = logBilan();
-    terminate();
-    isValid(erreurs);
+    try {
+      mesures.debutScan();
+      controles.forEach(ScanneClasspath::debutScan);
+      scannerClasspaths(classpath);
+      long marque = mesures.debut();
+      int[] erreurs = controles.stream().mapToInt(ScanneClasspath::logBilan).toArray();
+      mesures.fin(BILAN, marque);
+      mesures.terminerScan(options.getFichierMesures());
+      controles.forEach(ScanneClasspath::terminate);
+      valider(erreurs);
+    } finally {
+      controles.forEach(ScanneClasspath::finScan);
+      ressources.close();
+    }
+  }
+
+  /**
+   * Chaque contrôle valide ses propres erreurs. En scan combiné, tous les contrôles sont validés avant de remonter le premier échec.
+   */
+  private void valider(int[] erreurs) {
+    AssertionError echec = null;
+    for (int i = 0; i < controles.size(); i++) {
+      try {
+        controles.get(i).isValid(erreurs[i]);
+      } catch (AssertionError ex) {
+        if (echec == null) {
+          echec = ex;
+        } else {
+          echec.addSuppressed(ex);
+        }
+      }
+    }
+    if (echec != null) {
+      throw echec;
+    }
+  }
+
+  /**
+   * Traitement à effectuer avant le parcours du classpath
+   */
+  protected void debutScan() {
+    /* Aucun traitement par défaut */
+  }
+
+  /**
+   * Traitement effectué à la fin du scan, même en erreur (libération des ressources)
+   */
+  protected void finScan() {
+    /* Aucun traitement par défaut */
   }
 
   /**
@@ -173,12 +319,10 @@ public abstract class ScanneClasspath {
   private void chargerConfiguration() {
     try {
       InputStream is = TestControleByteCode.class.getClassLoader().getResourceAsStream(getFichierConfiguration());
+      Map<String, ArrayList<String>> configuration = is != null ? new Yaml().load(is) : null;
       if (is == null) {
         LOG.debug("Configuration file not found : {}", getFichierConfiguration());
-        return;
-      }
-      Map<String, ArrayList<String>> configuration = new Yaml().load(is);
-      if (configuration != null) {
+      } else if (configuration != null) {
         chargerListeConfiguration(configuration, jarsInclus, "jarsInclus");
         chargerListeConfiguration(configuration, jarsExcluded, "jarsExcluded");
         chargerListeConfiguration(configuration, directoryExcluded, "directoryExcluded");
@@ -198,6 +342,16 @@ public abstract class ScanneClasspath {
 
     LOG.debug("Exclusion des fichiers a ne pas traiter : {}", filtreFichiersExclus);
     LOG.debug("Erreurs a ne pas traiter: {}", filtreErreursExclues);
+    compilerFiltres();
+  }
+
+  /**
+   * Les filtres de la configuration sont compilés une seule fois : expressions régulières des jars, automates de recherche des exclusions
+   */
+  private void compilerFiltres() {
+    patternsJars = (scanByJarExclusion() ? jarsExcluded : jarsInclus).stream().filter(Objects::nonNull).map(Pattern::compile).collect(Collectors.toList());
+    filtreFichiers = new FiltreSousChaines(filtreFichiersExclus);
+    filtreErreurs = new FiltreSousChaines(filtreErreursExclues);
   }
 
   /**
@@ -210,6 +364,13 @@ public abstract class ScanneClasspath {
     }
   }
 
+  /**
+   * Nombre de threads utilisés pour scanner les jars. Configurable via la variable d'environnement -DnbThreads=8
+   */
+  protected int getNombreThreads() {
+    return options.getNombreThreads();
+  }
+
   /**
    * Parcourt toutes les jars du classpath. Celui passé en paramètre, sinon celui de la JVM en cours
    */
@@ -219,44 +380,229 @@ public abstract class ScanneClasspath {
     if (chemins == null || chemins.length == 0) {
       chemins = System.getProperty("java.class.path").split(File.pathSeparator);
     }
+    cheminsClasspath = chemins;
+    ressources.setChemins(chemins);
+    extensionsScannees = controles.stream().flatMap(controle -> controle.extensions.stream()).collect(Collectors.toSet());
+
+    /* Pour chaque élément du classpath, le jar de chacun des contrôles qui doit le scanner */
+    Map<String, Map<ScanneClasspath, Jar>> elementsAScanner = new LinkedHashMap<>();
+    for (ScanneClasspath controle : controles) {
+      controle.cheminsClasspath = chemins;
+      controle.initialiserCache();
+      for (String path : chemins) {
+        if (controle.isJarAScanner(path) || controle.isRepertoireClassesAScanner(path)) {
+          Jar jar = new Jar(path);
+          controle.jarsTraites.add(jar);
+          if (!controle.importerDepuisCache(jar)) {
+            elementsAScanner.computeIfAbsent(path, cle -> new LinkedHashMap<>()).put(controle, jar);
+          }
+        }
+      }
+    }
+
+    if (!elementsAScanner.isEmpty() && controles.stream().anyMatch(ScanneClasspath::isDetectionClassesMasquees)) {
+      ressources.preparerOrigines();
+    }
+    if (getNombreThreads() > 1 && elementsAScanner.size() > 1) {
+      scannerEnParallele(elementsAScanner);
+    } else {
+      elementsAScanner.forEach(this::scanner);
+    }
+    for (ScanneClasspath controle : controles) {
+      controle.sauvegarderCache(elementsAScanner.values().stream().map(jars -> jars.get(controle)).filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+  }
+
+  /**
+   * Le cache n'est actif que si son répertoire est défini
+   */
+  private void initialiserCache() {
+    Path fichier = options.getFichierCache(getClass());
+    if (fichier != null) {
+      cache = new CacheControle(fichier, getConfigurationCache(), cheminsClasspath);
+    }
+  }
+
+  /**
+   * Reprend les résultats du jar depuis le cache s'ils sont toujours valides
+   *
+   * @return true si le jar n'a pas à être scanné
+   */
+  private boolean importerDepuisCache(Jar jar) {
+    Map<String, Object> resultats = cache != null ? cache.getResultats(jar, this::getIndexClasspath) : null;
+    if (resultats == null) {
+      return false;
+    }
+    jarEnCours.set(jar);
+    try {
+      importerResultats(jar, resultats);
+    } finally {
+      fichierEnCours.remove();
+      jarEnCours.remove();
+    }
+    return true;
+  }
+
+  private void sauvegarderCache(List<Jar> jarsScannes) {
+    if (cache != null) {
+      cache.sauvegarder(jarsScannes, this::exporterResultats);
+    }
+  }
 
-    for (String path : chemins) {
-      if (path.endsWith(".jar") && isJarInclu(path)) {
-        initJarEnCours(path);
-        scannerJar();
-      } else if (path.endsWith("classes") && isScanneRepertoireClasses() && directoryExcluded.stream().noneMatch(path::contains)) {
-        initJarEnCours(path);
-        scannerRepertoireClasses(path);
+  protected boolean isCacheActif() {
+    return cache != null;
+  }
+
+  /**
+   * Description de tout ce qui influe sur les résultats d'un jar en dehors du classpath : le cache est invalidé si elle change
+   */
+  protected String getConfigurationCache() {
+    StringBuilder configuration = new StringBuilder(getClass().getName()).append('|').append(System.getProperty("java.version")).append('|').append(options.getVersionJava()).append('|')
+      .append(extensions);
+    try (InputStream is = TestControleByteCode.class.getClassLoader().getResourceAsStream(getFichierConfiguration())) {
+      if (is != null) {
+        configuration.append('|').append(new Scanner(is, "UTF-8").useDelimiter("\\A").next());
       }
+    } catch (IOException | NoSuchElementException ex) {
+      LOG.debug("Configuration vide : {}", getFichierConfiguration());
     }
+    return configuration.toString();
   }
 
-  private void initJarEnCours(String path) {
-    jarEnCours = new Jar(path);
-    jarsTraites.add(jarEnCours);
+  /**
+   * Ajoute aux résultats conservés dans le cache ceux du jar scanné
+   */
+  protected void exporterResultats(Jar jar, Map<String, Object> resultats) {
+    Map<String, List<String>> exclusionsJar = new TreeMap<>();
+    jar.getExclusions().forEach((type, liste) -> exclusionsJar.put(type, new ArrayList<>(liste)));
+    resultats.put(RESULTATS_EXCLUSIONS, exclusionsJar);
   }
 
-  protected boolean isScanneRepertoireClasses() {
-    return false;
+  /**
+   * Restaure les résultats du jar conservés dans le cache, le jar est alors le jar en cours
+   */
+  @SuppressWarnings("unchecked")
+  protected void importerResultats(Jar jar, Map<String, Object> resultats) {
+    ((Map<String, List<String>>) resultats.get(RESULTATS_EXCLUSIONS)).forEach((type, liste) -> liste.forEach(exclusion -> {
+      addToExclusions(Exclusion.valueOf(type), exclusion);
+      jar.addExclusion(type, exclusion);
+    }));
+  }
+
+  /**
+   * Rejoue le traitement d'un fichier conservé dans le cache
+   */
+  protected void rejouerFichier(Fichier fichier) {
+    fichierEnCours.set(fichier);
+    traitementFichierEnCours();
+  }
+
+  /**
+   * Enregistre pour le cache l'origine de la classe référencée par le jar en cours et de toute sa hiérarchie
+   */
+  protected void enregistrerReference(String nomClasse) {
+    if (cache != null) {
+      cache.enregistrerReference(nomClasse, getJarEnCours(), getIndexClasspath());
+    }
+  }
+
+  private boolean isJarAScanner(String path) {
+    return path.endsWith(".jar") && isJarInclu(path);
+  }
+
+  private boolean isRepertoireClassesAScanner(String path) {
+    return path.endsWith("classes") && isScanneRepertoireClasses() && directoryExcluded.stream().noneMatch(path::contains);
+  }
+
+  /**
+   * Répartit les jars sur un pool fork-join (vol de tâches entre threads). Les plus gros jars sont soumis en premier pour
+   * éviter qu'un seul thread ne termine le scan.
+   */
+  private void scannerEnParallele(Map<String, Map<ScanneClasspath, Jar>> elements) {
+    traiterEnParallele(elements.entrySet().stream()
+      .sorted(Comparator.comparingLong((Map.Entry<String, Map<ScanneClasspath, Jar>> element) -> new File(element.getKey()).length()).reversed())
+      .collect(Collectors.toList()), element -> scanner(element.getKey(), element.getValue()));
   }
 
   /**
-   * Scanne le répertoire classes défini dans le classpath
+   * Traite les éléments, dans l'ordre de soumission, sur un pool fork-join de {@link #getNombreThreads()} threads propre au scan (et non sur le
+   * pool commun de la JVM). Sans scan parallèle, ils sont traités séquentiellement par le thread courant.
    */
-  private void scannerRepertoireClasses(String chemin) {
+  protected <T> void traiterEnParallele(Collection<T> elements, Consumer<T> traitement) {
+    if (getNombreThreads() <= 1 || elements.size() <= 1) {
+      elements.forEach(traitement);
+      return;
+    }
+    ForkJoinPool pool = new ForkJoinPool(getNombreThreads());
     try {
-      for (Path classe : getFichiers(chemin)) {
-        String nomFichierEnCours = classe.toString().substring(chemin.length() + 1);
-        String nomFichierEnCoursSansExtension = removeExtension(nomFichierEnCours.replaceAll(separator.equals("/") ? separator : "\\\\", "."));
-        fichierEnCours = new Fichier(jarEnCours, nomFichierEnCoursSansExtension, getExtension(nomFichierEnCours));
-        if (isExclu(FICHIER, fichierEnCours.getNom())) {
-          continue;
+      elements.stream()
+        .map(element -> pool.submit(() -> traitement.accept(element)))
+        .collect(Collectors.toList())
+        .forEach(ForkJoinTask::join);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Scanne un élément du classpath (jar ou répertoire classes) en positionnant le curseur du thread courant de chaque contrôle
+   */
+  private void scanner(String chemin, Map<ScanneClasspath, Jar> jars) {
+    long debut = System.nanoTime();
+    long marque = mesures.debut();
+    try {
+      jars.forEach((controle, jar) -> {
+        controle.jarEnCours.set(jar);
+        controle.debutTraitementJar();
+      });
+      lecteur.lire(chemin, extensionsScannees, (nom, extension, source) -> traiterFichier(jars, nom, extension, source));
+    } finally {
+      jars.keySet().forEach(ScanneClasspath::finTraitementJar);
+      ressources.finJar();
+      mesures.fin(PARCOURS_JAR, marque);
+      mesures.finJar(jars.values().iterator().next(), System.nanoTime() - debut);
+      jars.keySet().forEach(controle -> {
+        controle.fichierEnCours.remove();
+        controle.jarEnCours.remove();
+        if (controle.cache != null) {
+          controle.cache.finJar();
         }
-        traitementFichierEnCours();
-      }
-    } catch (Throwable ex) {
-      LOG.error("", ex);
+      });
+    }
+  }
+
+  /**
+   * Index des classes de tout le classpath scanné (y compris les jars non contrôlés), construit à la première demande puis lu sans verrou
+   */
+  public IndexClasspath getIndexClasspath() {
+    if (isScanCombine()) {
+      return principal.getIndexClasspath();
     }
+    return ressources.getIndex();
+  }
+
+  /**
+   * Origine des classes référencées, résolue par l'index du classpath
+   */
+  public OriginesClasses getOriginesClasses() {
+    if (isScanCombine()) {
+      return principal.getOriginesClasses();
+    }
+    return ressources.getOriginesClasses();
+  }
+
+  /**
+   * Chargeur isolé des classes du classpath scanné, créé à la première demande
+   */
+  public ChargeurClasspath getChargeurClasspath() {
+    if (isScanCombine()) {
+      return principal.getChargeurClasspath();
+    }
+    return ressources.getChargeur();
+  }
+
+  protected boolean isScanneRepertoireClasses() {
+    return false;
   }
 
   /**
@@ -264,48 +610,92 @@ public abstract class ScanneClasspath {
    */
   @VisibleForTesting
   List<Path> getFichiers(String repertoireClasses) throws IOException {
-    final List<Path> fichiers = new ArrayList<>();
-    Path repertoireClassesPath = Paths.get(repertoireClasses);
-    if (notExists(repertoireClassesPath)) {
-      return fichiers;
-    }
-    walkFileTree(repertoireClassesPath, new SimpleFileVisitor<Path>() {
+    List<Path> fichiers = new ArrayList<>();
+    lecteur.parcourirRepertoireClasses(repertoireClasses, this::isExtensionScannee, (nom, extension, fichier) -> fichiers.add(fichier));
+    return fichiers;
+  }
 
-      @Override
-      public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
-        if (EXTENSIONS.contains(getExtension(file.getFileName().toString()))) {
-          fichiers.add(file);
+  /**
+   * @return true si au moins un des contrôles traite les fichiers de cette extension
+   */
+  private boolean isExtensionScannee(String extension) {
+    return extensionsScannees != null ? extensionsScannees.contains(extension) : controles.stream().anyMatch(controle -> controle.extensions.contains(extension));
+  }
+
+  /**
+   * Transmet le fichier à chacun des contrôles qui traite son extension et ne l'exclut pas, sa durée (tous contrôles confondus) est mesurée
+   */
+  private void traiterFichier(Map<ScanneClasspath, Jar> jars, String nom, String extension, SourceFichier source) {
+    if (CLASSES_EXTENSION.equals(extension) && EntreesJar.isMetadonnee(nom)) {
+      return;
+    }
+    Fichier fichierMesure = null;
+    long debut = System.nanoTime();
+    long marque = mesures.debut();
+    lectureFichierEnCours.debut(source);
+    try {
+      for (Map.Entry<ScanneClasspath, Jar> jar : jars.entrySet()) {
+        ScanneClasspath controle = jar.getKey();
+        if (!controle.extensions.contains(extension)) {
+          continue;
         }
-        return CONTINUE;
+        // Aucun fichier n'est créé pour une entrée exclue
+        if (!controle.isExclu(FICHIER, nom)) {
+          Fichier fichier = new Fichier(jar.getValue(), nom, extension);
+          controle.fichierEnCours.set(fichier);
+          fichierMesure = fichier;
+          controle.traitementFichierEnCours();
+        }
+      }
+    } finally {
+      lectureFichierEnCours.fin();
+      if (fichierMesure != null) {
+        mesures.fin(TRAITEMENT_FICHIER, marque);
+        mesures.ajouterFichier(fichierMesure, System.nanoTime() - debut);
       }
-    });
+    }
+  }
 
-    return fichiers;
+  /**
+   * @return le contenu du fichier en cours de parcours, lu depuis l'entrée exacte du jar ou du répertoire parcouru (et non depuis la première
+   * copie du classpath)
+   */
+  public InputStream ouvrirFichierEnCours() throws IOException {
+    return principal.lectureFichierEnCours.ouvrir(getFichierEnCours());
   }
 
   /**
-   * Parcours toutes les classes du jar en cours
+   * @return le contenu du fichier en cours de parcours, lu à la première demande puis partagé (par les lecteurs de byte code, le chargeur de
+   * classes et les contrôles d'un scan combiné) jusqu'à la fin de son traitement
    */
-  private void scannerJar() {
-    LOG.debug("Scans jar : " + jarEnCours);
-    try (JarFile jar = new JarFile(jarEnCours.getNom())) {
-      Enumeration<JarEntry> enumeration = jar.entries();
-      JarEntry jarEntry;
-      // Boucle sur tous les fichiers contenus dans le JAR
-      while (enumeration.hasMoreElements()) {
-        jarEntry = enumeration.nextElement();
-        // Récupération du nom de chaque fichier
-        if (EXTENSIONS.contains(getExtension(jarEntry.getName()))) {
-          fichierEnCours = new Fichier(jarEnCours, removeExtension(jarEntry.getName().replace("/", ".")), getExtension(jarEntry.getName()));
-          if (isExclu(FICHIER, fichierEnCours.getNom())) {
-            continue;
-          }
-          traitementFichierEnCours();
-        }
-      }
-    } catch (Throwable ex) {
-      LOG.error("", ex);
+  public ContenuFichier getContenuFichierEnCours() throws IOException {
+    return principal.lectureFichierEnCours.getContenu(getFichierEnCours(), mesures);
+  }
+
+  /**
+   * @return le jar ou répertoire dont la classe est utilisée au runtime (le premier du classpath la contenant), <code>null</code> si elle est
+   * absente du classpath scanné ou si aucun contrôle ne détecte les classes masquées
+   */
+  public String getOrigineRuntime(String nomClasse) {
+    return principal.ressources.getOrigineRuntime(nomClasse);
+  }
+
+  /**
+   * Indique si le contrôle compare chaque classe à la copie utilisée au runtime : l'index des origines est alors construit avant le parcours
+   */
+  protected boolean isDetectionClassesMasquees() {
+    return false;
+  }
+
+  /**
+   * Lecture du fichier en cours partagée par les contrôles d'un scan combiné : seul le premier contrôle qui la demande la réalise, les suivants
+   * reçoivent son résultat. Hors scan combiné, la lecture est toujours réalisée.
+   */
+  public <R> R getLecturePartagee(Class<R> type, Callable<R> lecture) throws Exception {
+    if (!isScanCombine()) {
+      return lecture.call();
     }
+    return principal.lectureFichierEnCours.getLecturePartagee(type, lecture);
   }
 
   /**
@@ -315,9 +705,9 @@ public abstract class ScanneClasspath {
    */
   protected boolean isJarInclu(String pathJar) {
     if (scanByJarExclusion()) {
-      return jarsExcluded.stream().noneMatch(jar -> Pattern.compile(jar).matcher(pathJar).find());
+      return patternsJars.stream().noneMatch(pattern -> pattern.matcher(pathJar).find());
     } else {
-      return jarsInclus.stream().anyMatch(jar -> Pattern.compile(jar).matcher(pathJar).find());
+      return patternsJars.stream().anyMatch(pattern -> pattern.matcher(pathJar).find());
     }
   }
 
@@ -326,14 +716,24 @@ public abstract class ScanneClasspath {
   }
 
   /**
-   * Indique si l'erreur ou la classe est exclue
+   * Indique si l'erreur ou la classe est exclue : elle contient l'un des filtres, sans tenir compte de la casse
    */
   public boolean isExclu(Exclusion typeExclusion, final String str) {
-    for (String exclusion : (FICHIER.equals(typeExclusion) ? filtreFichiersExclus : filtreErreursExclues)) {
-      if (str.toLowerCase().contains(exclusion.toLowerCase())) {
-        addToExclusions(typeExclusion, str);
-        return true;
+    return isExclu(typeExclusion, str, () -> str);
+  }
+
+  /**
+   * Indique si le texte contient l'un des filtres, sans tenir compte de la casse. L'exclusion conservée pour le bilan et le cache est le libellé
+   * fourni, construit uniquement si un filtre est trouvé.
+   */
+  public boolean isExclu(Exclusion typeExclusion, String texte, Supplier<String> libelle) {
+    if ((FICHIER.equals(typeExclusion) ? filtreFichiers : filtreErreurs).isTrouve(texte)) {
+      String exclusion = libelle.get();
+      addToExclusions(typeExclusion, exclusion);
+      if (getJarEnCours() != null) {
+        getJarEnCours().addExclusion(typeExclusion.name(), exclusion);
       }
+      return true;
     }
     return false;
   }
@@ -346,15 +746,31 @@ public abstract class ScanneClasspath {
     }
   }
 
-  private String removeExtension(String str) {
-    if (isNullOrEmpty(str) || !str.contains(".")) {
-      return str;
-    }
-    return str.substring(0, str.lastIndexOf("."));
+  /**
+   * Lecture du contenu d'un fichier relu après le parcours
+   */
+  @FunctionalInterface
+  protected interface LectureFichier {
+
+    void lire(String nomEtExtension, InputStream contenu) throws IOException;
   }
 
-  private String getExtension(String nomFichier) {
-    return !isNullOrEmpty(nomFichier) && nomFichier.contains(".") ? nomFichier.substring(nomFichier.indexOf(".") + 1) : "";
+  /**
+   * Relit les fichiers demandés d'un élément du classpath (jar ou répertoire classes), identifiés par leur nom et extension tels que nommés lors
+   * du parcours (voir {@link Fichier#getNomEtExtension()})
+   */
+  protected void relireFichiers(String chemin, Set<String> nomsEtExtensions, LectureFichier lecture) throws IOException {
+    if (new File(chemin).isDirectory()) {
+      lecteur.parcourirRepertoireClasses(chemin, this::isExtensionScannee, (nom, extension, fichier) -> {
+        if (nomsEtExtensions.contains(nom + "." + extension)) {
+          try (InputStream is = Files.newInputStream(fichier)) {
+            lecture.lire(nom + "." + extension, is);
+          }
+        }
+      });
+      return;
+    }
+    lecteur.relireJar(chemin, extensions, nomsEtExtensions, lecture);
   }
 
   public static boolean isNullOrEmpty(String s) {
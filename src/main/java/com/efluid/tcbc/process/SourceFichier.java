@@ -0,0 +1,21 @@
+package com.efluid.tcbc.process;
+
+import java.io.*;
+
+/**
+ * Contenu d'un fichier parcouru : l'entrée exacte du jar (version retenue d'un jar multi-release) ou le fichier du répertoire classes
+ */
+@FunctionalInterface
+interface SourceFichier {
+
+  InputStream ouvrir() throws IOException;
+
+  /**
+   * @return le tampon du thread, contenant le fichier
+   */
+  default ContenuFichier lire(ContenuFichier tampon) throws IOException {
+    try (InputStream is = ouvrir()) {
+      return tampon.lire(is);
+    }
+  }
+}
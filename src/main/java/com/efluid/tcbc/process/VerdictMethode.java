@@ -0,0 +1,90 @@
+package com.efluid.tcbc.process;
+
+import java.util.*;
+
+import com.efluid.tcbc.TestControleByteCode;
+import com.efluid.tcbc.object.*;
+
+/**
+ * Résultat de la vérification d'une méthode référencée (classe propriétaire, nom, descripteur), indépendant de la classe appelante.
+ * <p>
+ * Les erreurs sont conservées sous forme de modèles de libellés, sans la classe appelante (voir {@link Erreur#APPELANT}) : elles sont ajoutées
+ * au contrôle pour chaque classe appelante, les exclusions d'erreurs s'appliquant alors comme sans cache. Le modèle est partagé par les erreurs
+ * de toutes les classes appelantes.
+ */
+public class VerdictMethode {
+
+  /* Verdict partagé par toutes les références sans erreur */
+  static final VerdictMethode VALIDE = new VerdictMethode();
+
+  private final String classeReferencee;
+  private final String methode;
+  private final String descripteur;
+  private final List<ErreurVerdict> erreurs = new ArrayList<>(0);
+  /* Le verdict dépend d'un chargement abandonné : il ne vaut que pour la classe en cours */
+  private boolean temporaire;
+
+  /**
+   * Verdict ne portant pas sur une méthode (types d'un appel dynamique, classe chargée)
+   */
+  VerdictMethode() {
+    this(null, null, null);
+  }
+
+  VerdictMethode(String classeReferencee, String methode, String descripteur) {
+    this.classeReferencee = classeReferencee;
+    this.methode = methode;
+    this.descripteur = descripteur;
+  }
+
+  /**
+   * @param modele libellé de l'erreur, la classe appelante y étant désignée par {@link Erreur#APPELANT} ou {@link Erreur#FICHIER_APPELANT}
+   */
+  void addErreur(TypeErreur type, String modele) {
+    erreurs.add(new ErreurVerdict(type, modele, null));
+  }
+
+  /**
+   * Erreur de chargement de la classe propriétaire : si l'erreur n'est pas exclue, la classe est référencée non trouvée
+   */
+  void addClasseNonTrouvee(String nomClasse, String libelle) {
+    erreurs.add(new ErreurVerdict(TypeErreur.CLASSE_NON_TROUVEE, libelle, nomClasse));
+  }
+
+  boolean isValide() {
+    return erreurs.isEmpty();
+  }
+
+  void setTemporaire() {
+    temporaire = true;
+  }
+
+  boolean isTemporaire() {
+    return temporaire;
+  }
+
+  /**
+   * Ajoute au contrôle les erreurs du verdict pour la classe appelante
+   */
+  void appliquer(TestControleByteCode controle, Fichier appelant) {
+    for (ErreurVerdict erreur : erreurs) {
+      Erreur erreurAppelant = new Erreur(erreur.type, appelant, classeReferencee, methode, descripteur, erreur.modele);
+      if (controle.addErreur(erreurAppelant) && erreur.classeNonTrouvee != null) {
+        controle.addClasseReferenceeNonTrouvee(erreur.classeNonTrouvee, erreurAppelant.getLibelle() + " - Classe appelante : " + appelant);
+      }
+    }
+  }
+
+  private static class ErreurVerdict {
+
+    private final TypeErreur type;
+    private final String modele;
+    private final String classeNonTrouvee;
+
+    private ErreurVerdict(TypeErreur type, String modele, String classeNonTrouvee) {
+      this.type = type;
+      this.modele = modele;
+      this.classeNonTrouvee = classeNonTrouvee;
+    }
+  }
+}
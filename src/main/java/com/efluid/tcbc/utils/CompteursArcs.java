@@ -0,0 +1,114 @@
+package com.efluid.tcbc.utils;
+
+import java.util.Arrays;
+
+/**
+ * Compteurs des arcs d'un graphe dont les noeuds sont des index entiers (voir {@link IndexNoms}).
+ * <p>
+ * Chaque arc (source, cible) est une clé <code>long</code> d'une table à adressage ouvert : ajouter une référence à un arc ne fait aucune
+ * allocation.<br>
+ * Une instance n'est pas thread-safe : chaque thread compte dans ses propres compteurs, qui sont ensuite cumulés.
+ */
+public final class CompteursArcs {
+
+  private static final long LIBRE = -1L;
+
+  private long[] cles;
+  private long[] nombres;
+  private int taille;
+
+  /**
+   * Reçoit chaque arc et son nombre de références
+   */
+  @FunctionalInterface
+  public interface VisiteurArc {
+
+    void arc(int source, int cible, long nombre);
+  }
+
+  public CompteursArcs() {
+    this(16);
+  }
+
+  private CompteursArcs(int capacite) {
+    cles = new long[capacite];
+    nombres = new long[capacite];
+    Arrays.fill(cles, LIBRE);
+  }
+
+  public void ajouter(int source, int cible, long nombre) {
+    long cle = ((long) source << 32) | (cible & 0xFFFFFFFFL);
+    int position = getPosition(cles, cle);
+    if (cles[position] == cle) {
+      nombres[position] += nombre;
+      return;
+    }
+    cles[position] = cle;
+    nombres[position] = nombre;
+    if (++taille * 4 > cles.length * 3) {
+      agrandir();
+    }
+  }
+
+  /**
+   * Cumule les arcs des autres compteurs
+   */
+  public void ajouter(CompteursArcs autres) {
+    autres.parcourir(this::ajouter);
+  }
+
+  /**
+   * @return le nombre de références de l'arc, 0 s'il n'existe pas
+   */
+  public long get(int source, int cible) {
+    long cle = ((long) source << 32) | (cible & 0xFFFFFFFFL);
+    int position = getPosition(cles, cle);
+    return cles[position] == cle ? nombres[position] : 0;
+  }
+
+  /**
+   * @return le nombre d'arcs
+   */
+  public int taille() {
+    return taille;
+  }
+
+  /**
+   * Transmet chaque arc au visiteur, sans ordre particulier
+   */
+  public void parcourir(VisiteurArc visiteur) {
+    for (int i = 0; i < cles.length; i++) {
+      if (cles[i] != LIBRE) {
+        visiteur.arc((int) (cles[i] >>> 32), (int) cles[i], nombres[i]);
+      }
+    }
+  }
+
+  /**
+   * @return la position de la clé, ou de la première case libre rencontrée si elle est absente
+   */
+  private static int getPosition(long[] cles, long cle) {
+    int masque = cles.length - 1;
+    long hash = cle * 0x9E3779B97F4A7C15L;
+    int position = (int) (hash ^ (hash >>> 32)) & masque;
+    while (cles[position] != LIBRE && cles[position] != cle) {
+      position = (position + 1) & masque;
+    }
+    return position;
+  }
+
+  private void agrandir() {
+    long[] anciennesCles = cles;
+    long[] anciensNombres = nombres;
+    cles = new long[anciennesCles.length * 2];
+    nombres = new long[anciennesCles.length * 2];
+    Arrays.fill(cles, LIBRE);
+    for (int i = 0; i < anciennesCles.length; i++) {
+      if (anciennesCles[i] != LIBRE) {
+        int position = getPosition(cles, anciennesCles[i]);
+        cles[position] = anciennesCles[i];
+        nombres[position] = anciensNombres[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.efluid.tcbc.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe utilitaire de lecture des descripteurs de méthode du byte code, ex : <code>(Ljava/lang/String;[I)V</code>
+ * <p>
+ * Les noms de classes retournés sont au format java (séparateur ".", classes internes avec "$"), les tableaux sont suffixés par "[]".
+ */
+public final class Descripteurs {
+
+  private Descripteurs() {
+  }
+
+  /**
+   * @return la partie paramètres du descripteur, ex : <code>(Ljava/lang/String;[I)</code>
+   */
+  public static String getParametres(String descripteur) {
+    return descripteur.substring(0, descripteur.indexOf(')') + 1);
+  }
+
+  /**
+   * @return la partie type de retour du descripteur, ex : <code>V</code>
+   */
+  public static String getRetour(String descripteur) {
+    return descripteur.substring(descripteur.indexOf(')') + 1);
+  }
+
+  /**
+   * @return les descripteurs de chaque paramètre, ex : <code>[Ljava/lang/String;, [I]</code>
+   */
+  public static List<String> getDescripteursParametres(String descripteur) {
+    List<String> types = new ArrayList<>();
+    int index = 1;
+    while (descripteur.charAt(index) != ')') {
+      int fin = getFinType(descripteur, index);
+      types.add(descripteur.substring(index, fin));
+      index = fin;
+    }
+    return types;
+  }
+
+  /**
+   * @return les types des paramètres au format java, ex : <code>[java.lang.String, int[]]</code>
+   */
+  public static List<String> getTypesParametres(String descripteur) {
+    List<String> types = new ArrayList<>();
+    int index = 1;
+    while (descripteur.charAt(index) != ')') {
+      int fin = getFinType(descripteur, index);
+      types.add(toNomJava(descripteur, index, fin));
+      index = fin;
+    }
+    return types;
+  }
+
+  /**
+   * @return le type de retour au format java, ex : <code>void</code>
+   */
+  public static String getTypeRetour(String descripteur) {
+    int debut = descripteur.indexOf(')') + 1;
+    return toNomJava(descripteur, debut, descripteur.length());
+  }
+
+  /**
+   * @return les classes (hors types primitifs) référencées par le descripteur, paramètres et type de retour, sans les dimensions de tableau
+   */
+  public static List<String> getClassesReferencees(String descripteur) {
+    List<String> classes = new ArrayList<>();
+    for (int index = 0; index < descripteur.length(); index++) {
+      if (descripteur.charAt(index) == 'L') {
+        int fin = descripteur.indexOf(';', index);
+        classes.add(descripteur.substring(index + 1, fin).replace('/', '.'));
+        index = fin;
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * Position suivant le type débutant à l'index en paramètre
+   */
+  private static int getFinType(String descripteur, int debut) {
+    int index = debut;
+    while (descripteur.charAt(index) == '[') {
+      index++;
+    }
+    return descripteur.charAt(index) == 'L' ? descripteur.indexOf(';', index) + 1 : index + 1;
+  }
+
+  private static String toNomJava(String descripteur, int debut, int fin) {
+    int dimensions = 0;
+    while (descripteur.charAt(debut + dimensions) == '[') {
+      dimensions++;
+    }
+    StringBuilder nom = new StringBuilder(toNomJava(descripteur.charAt(debut + dimensions), descripteur, debut + dimensions, fin));
+    for (int i = 0; i < dimensions; i++) {
+      nom.append("[]");
+    }
+    return nom.toString();
+  }
+
+  private static String toNomJava(char type, String descripteur, int debut, int fin) {
+    switch (type) {
+      case 'V':
+        return "void";
+      case 'Z':
+        return "boolean";
+      case 'B':
+        return "byte";
+      case 'C':
+        return "char";
+      case 'S':
+        return "short";
+      case 'I':
+        return "int";
+      case 'J':
+        return "long";
+      case 'F':
+        return "float";
+      case 'D':
+        return "double";
+      default:
+        return descripteur.substring(debut + 1, fin - 1).replace('/', '.');
+    }
+  }
+}
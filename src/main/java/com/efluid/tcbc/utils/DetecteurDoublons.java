@@ -0,0 +1,212 @@
+package com.efluid.tcbc.utils;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Détecte les noms présents dans plusieurs éléments du classpath avec une mémoire bornée, quel que soit le nombre de noms.
+ * <p>
+ * Chaque couple (nom, identifiant de l'élément) est conservé en mémoire jusqu'au seuil. Les couples sont alors triés et écrits dans un fichier
+ * temporaire (séquence triée). Les doublons sont trouvés en fusionnant les séquences triées : les copies d'un même nom sont consécutives.<br>
+ * Les éléments sont identifiés par un entier (voir {@link IndexNoms}) plutôt que par une référence conservée pour chaque nom.<br>
+ * L'ajout est utilisable par plusieurs threads.
+ */
+public final class DetecteurDoublons implements Closeable {
+
+  private static final Comparator<Couple> ORDRE = Comparator.<Couple, String> comparing(couple -> couple.nom).thenComparingInt(couple -> couple.element);
+
+  private final int seuil;
+  private final List<Couple> enMemoire = new ArrayList<>();
+  private final List<Path> sequences = new ArrayList<>();
+  private Path repertoire;
+  private long nombre;
+
+  /**
+   * Reçoit chaque nom présent dans plusieurs éléments
+   */
+  @FunctionalInterface
+  public interface VisiteurDoublon {
+
+    void doublon(String nom, List<Integer> elements);
+  }
+
+  /**
+   * @param seuil nombre de couples conservés en mémoire avant l'écriture d'une séquence triée
+   */
+  public DetecteurDoublons(int seuil) {
+    this.seuil = Math.max(1, seuil);
+  }
+
+  public synchronized void ajouter(String nom, int element) throws IOException {
+    enMemoire.add(new Couple(nom, element));
+    nombre++;
+    if (enMemoire.size() >= seuil) {
+      ecrireSequence();
+    }
+  }
+
+  private void ecrireSequence() throws IOException {
+    if (repertoire == null) {
+      repertoire = Files.createTempDirectory("tcbc-doublons");
+    }
+    enMemoire.sort(ORDRE);
+    Path sequence = repertoire.resolve("sequence" + sequences.size());
+    try (DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(sequence)))) {
+      for (Couple couple : enMemoire) {
+        sortie.writeUTF(couple.nom);
+        sortie.writeInt(couple.element);
+      }
+    }
+    sequences.add(sequence);
+    enMemoire.clear();
+  }
+
+  /**
+   * @return le nombre de couples ajoutés
+   */
+  public synchronized long getNombre() {
+    return nombre;
+  }
+
+  /**
+   * @return le nombre de séquences triées écrites sur disque
+   */
+  public synchronized int getNombreSequences() {
+    return sequences.size();
+  }
+
+  /**
+   * Fusionne les séquences triées et les couples restés en mémoire : chaque nom présent dans plusieurs éléments est transmis au visiteur, par
+   * ordre alphabétique, avec ses éléments distincts
+   */
+  public synchronized void parcourirDoublons(VisiteurDoublon visiteur) throws IOException {
+    enMemoire.sort(ORDRE);
+    PriorityQueue<Curseur> curseurs = new PriorityQueue<>(Math.max(1, sequences.size() + 1), Comparator.comparing(curseur -> curseur.couple, ORDRE));
+    try {
+      ajouterSiNonVide(curseurs, new CurseurMemoire(enMemoire.iterator()));
+      for (Path sequence : sequences) {
+        ajouterSiNonVide(curseurs, new CurseurSequence(sequence));
+      }
+      String nomEnCours = null;
+      List<Integer> elements = new ArrayList<>();
+      while (!curseurs.isEmpty()) {
+        Curseur curseur = curseurs.poll();
+        Couple couple = curseur.couple;
+        if (!couple.nom.equals(nomEnCours)) {
+          transmettre(visiteur, nomEnCours, elements);
+          nomEnCours = couple.nom;
+          elements = new ArrayList<>();
+        }
+        if (elements.isEmpty() || elements.get(elements.size() - 1) != couple.element) {
+          elements.add(couple.element);
+        }
+        ajouterSiNonVide(curseurs, curseur);
+      }
+      transmettre(visiteur, nomEnCours, elements);
+    } finally {
+      for (Curseur curseur : curseurs) {
+        curseur.close();
+      }
+    }
+  }
+
+  private static void ajouterSiNonVide(PriorityQueue<Curseur> curseurs, Curseur curseur) throws IOException {
+    if (curseur.avancer()) {
+      curseurs.add(curseur);
+    } else {
+      curseur.close();
+    }
+  }
+
+  private static void transmettre(VisiteurDoublon visiteur, String nom, List<Integer> elements) {
+    if (elements.size() > 1) {
+      visiteur.doublon(nom, elements);
+    }
+  }
+
+  /**
+   * Supprime les séquences triées
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    for (Path sequence : sequences) {
+      Files.deleteIfExists(sequence);
+    }
+    sequences.clear();
+    enMemoire.clear();
+    if (repertoire != null) {
+      Files.deleteIfExists(repertoire);
+      repertoire = null;
+    }
+  }
+
+  private static final class Couple {
+
+    private final String nom;
+    private final int element;
+
+    private Couple(String nom, int element) {
+      this.nom = nom;
+      this.element = element;
+    }
+  }
+
+  /**
+   * Position dans une séquence triée : le couple courant, puis les suivants
+   */
+  private abstract static class Curseur implements Closeable {
+
+    Couple couple;
+
+    /**
+     * @return false si la séquence est terminée
+     */
+    abstract boolean avancer() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+      /* Aucune ressource par défaut */
+    }
+  }
+
+  private static final class CurseurMemoire extends Curseur {
+
+    private final Iterator<Couple> couples;
+
+    private CurseurMemoire(Iterator<Couple> couples) {
+      this.couples = couples;
+    }
+
+    @Override
+    boolean avancer() {
+      couple = couples.hasNext() ? couples.next() : null;
+      return couple != null;
+    }
+  }
+
+  private static final class CurseurSequence extends Curseur {
+
+    private final DataInputStream entree;
+
+    private CurseurSequence(Path sequence) throws IOException {
+      entree = new DataInputStream(new BufferedInputStream(Files.newInputStream(sequence)));
+    }
+
+    @Override
+    boolean avancer() throws IOException {
+      try {
+        couple = new Couple(entree.readUTF(), entree.readInt());
+        return true;
+      } catch (EOFException ex) {
+        couple = null;
+        return false;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      entree.close();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.efluid.tcbc.utils;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.jar.*;
+
+/**
+ * Sélection des entrées d'un jar telles que la JVM cible les utiliserait.
+ * <p>
+ * Dans un jar multi-release (attribut Multi-Release du manifeste), une entrée META-INF/versions/N/chemin remplace l'entrée chemin pour toute
+ * version de Java supérieure ou égale à N : seule la version la plus récente compatible avec la version cible est conservée, sous son nom
+ * logique. Les entrées versionnées d'un jar qui n'est pas multi-release ne sont jamais utilisées et sont ignorées.<br>
+ * La version cible est celle de la JVM courante, ou celle définie via -DversionJava=11.
+ */
+public final class EntreesJar {
+
+  public static final String ENV_VERSION_JAVA = "versionJava";
+
+  private static final String PREFIXE_VERSIONS = "META-INF/versions/";
+  private static final String MODULE_INFO = "module-info";
+  private static final String PACKAGE_INFO = "package-info";
+
+  private EntreesJar() {
+  }
+
+  /**
+   * @return la version de Java cible : -DversionJava, sinon la version de la JVM courante
+   */
+  public static int getVersionCible() {
+    String version = System.getProperty(ENV_VERSION_JAVA, System.getProperty("java.specification.version"));
+    return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+  }
+
+  /**
+   * @return les entrées utilisées par la version de Java cible, indexées par leur nom logique, dans l'ordre du jar
+   */
+  public static Map<String, JarEntry> selectionner(JarFile jar, int versionCible) throws IOException {
+    return selectionner(Collections.list(jar.entries()), JarEntry::getName, isMultiRelease(jar.getManifest()), versionCible);
+  }
+
+  /**
+   * Sélection des entrées d'un jar lu par un autre moyen que {@link JarFile}
+   *
+   * @param nom nom complet de l'entrée dans le jar
+   * @param multiRelease voir {@link #isMultiRelease(Manifest)}
+   * @return les entrées utilisées par la version de Java cible, indexées par leur nom logique, dans l'ordre du jar
+   */
+  public static <E> Map<String, E> selectionner(Iterable<E> entreesJar, Function<E, String> nom, boolean multiRelease, int versionCible) {
+    Map<String, E> entrees = new LinkedHashMap<>();
+    Map<String, Integer> versions = new HashMap<>();
+    for (E entree : entreesJar) {
+      String nomEntree = nom.apply(entree);
+      if (!nomEntree.startsWith(PREFIXE_VERSIONS)) {
+        entrees.putIfAbsent(nomEntree, entree);
+        continue;
+      }
+      int finVersion = nomEntree.indexOf('/', PREFIXE_VERSIONS.length());
+      int version = multiRelease && finVersion > 0 ? getVersion(nomEntree.substring(PREFIXE_VERSIONS.length(), finVersion)) : -1;
+      if (version < 9 || version > versionCible || nomEntree.endsWith("/")) {
+        continue;
+      }
+      String nomLogique = nomEntree.substring(finVersion + 1);
+      Integer versionRetenue = versions.get(nomLogique);
+      if (versionRetenue == null || version > versionRetenue) {
+        versions.put(nomLogique, version);
+        entrees.put(nomLogique, entree);
+      }
+    }
+    return entrees;
+  }
+
+  /**
+   * @return true si le manifeste déclare le jar multi-release
+   */
+  public static boolean isMultiRelease(Manifest manifeste) {
+    return manifeste != null && "true".equalsIgnoreCase(manifeste.getMainAttributes().getValue("Multi-Release"));
+  }
+
+  private static int getVersion(String version) {
+    try {
+      return Integer.parseInt(version);
+    } catch (NumberFormatException ex) {
+      return -1;
+    }
+  }
+
+  /**
+   * @return true pour les descripteurs de module et de package (module-info, package-info) : des métadonnées et non des classes
+   */
+  public static boolean isMetadonnee(String nomSansExtension) {
+    int debut = Math.max(nomSansExtension.lastIndexOf('.'), nomSansExtension.lastIndexOf('/')) + 1;
+    String nom = nomSansExtension.substring(debut);
+    return MODULE_INFO.equals(nom) || PACKAGE_INFO.equals(nom);
+  }
+}
@@ -0,0 +1,129 @@
+package com.efluid.tcbc.utils;
+
+import java.util.*;
+
+/**
+ * Recherche simultanée de plusieurs sous-chaînes, sans tenir compte de la casse (automate d'Aho-Corasick).
+ * <p>
+ * Equivalent à <code>filtres.stream().anyMatch(filtre -> texte.toLowerCase().contains(filtre.toLowerCase()))</code>, mais le texte n'est parcouru
+ * qu'une seule fois quel que soit le nombre de filtres, sans allocation. La casse est ignorée caractère par caractère
+ * (<code>Character.toLowerCase</code>).<br>
+ * L'automate est construit une fois pour toutes, il est ensuite utilisable par plusieurs threads.
+ */
+public final class FiltreSousChaines {
+
+  private static final int RACINE = 0;
+
+  /* Transitions de chaque état : caractères triés et états suivants */
+  private char[][] caracteres = new char[1][0];
+  private int[][] suivants = new int[1][0];
+  private int[] echecs;
+  /* Un filtre se termine sur l'état ou sur l'un de ses suffixes */
+  private boolean[] terminaux = new boolean[1];
+  private int nbEtats = 1;
+
+  public FiltreSousChaines(Collection<String> filtres) {
+    for (String filtre : filtres) {
+      if (filtre != null) {
+        ajouter(filtre);
+      }
+    }
+    calculerEchecs();
+  }
+
+  /**
+   * @return true si le texte contient au moins un des filtres
+   */
+  public boolean isTrouve(String texte) {
+    if (terminaux[RACINE]) {
+      return true;
+    }
+    int etat = RACINE;
+    for (int i = 0; i < texte.length(); i++) {
+      char caractere = Character.toLowerCase(texte.charAt(i));
+      int suivant = getSuivant(etat, caractere);
+      while (suivant < 0 && etat != RACINE) {
+        etat = echecs[etat];
+        suivant = getSuivant(etat, caractere);
+      }
+      etat = suivant < 0 ? RACINE : suivant;
+      if (terminaux[etat]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void ajouter(String filtre) {
+    int etat = RACINE;
+    for (int i = 0; i < filtre.length(); i++) {
+      char caractere = Character.toLowerCase(filtre.charAt(i));
+      int suivant = getSuivant(etat, caractere);
+      if (suivant < 0) {
+        suivant = creerEtat();
+        ajouterTransition(etat, caractere, suivant);
+      }
+      etat = suivant;
+    }
+    terminaux[etat] = true;
+  }
+
+  private int creerEtat() {
+    if (nbEtats == terminaux.length) {
+      int capacite = nbEtats * 2;
+      caracteres = Arrays.copyOf(caracteres, capacite);
+      suivants = Arrays.copyOf(suivants, capacite);
+      terminaux = Arrays.copyOf(terminaux, capacite);
+    }
+    caracteres[nbEtats] = new char[0];
+    suivants[nbEtats] = new int[0];
+    return nbEtats++;
+  }
+
+  private void ajouterTransition(int etat, char caractere, int suivant) {
+    char[] cles = caracteres[etat];
+    int position = -(Arrays.binarySearch(cles, caractere) + 1);
+    char[] nouvellesCles = new char[cles.length + 1];
+    int[] nouveauxSuivants = new int[cles.length + 1];
+    System.arraycopy(cles, 0, nouvellesCles, 0, position);
+    System.arraycopy(suivants[etat], 0, nouveauxSuivants, 0, position);
+    nouvellesCles[position] = caractere;
+    nouveauxSuivants[position] = suivant;
+    System.arraycopy(cles, position, nouvellesCles, position + 1, cles.length - position);
+    System.arraycopy(suivants[etat], position, nouveauxSuivants, position + 1, cles.length - position);
+    caracteres[etat] = nouvellesCles;
+    suivants[etat] = nouveauxSuivants;
+  }
+
+  private int getSuivant(int etat, char caractere) {
+    int position = Arrays.binarySearch(caracteres[etat], caractere);
+    return position < 0 ? -1 : suivants[etat][position];
+  }
+
+  /**
+   * Lien d'échec de chaque état : plus long suffixe propre qui est aussi un préfixe d'un filtre (parcours en largeur)
+   */
+  private void calculerEchecs() {
+    echecs = new int[nbEtats];
+    Deque<Integer> aVisiter = new ArrayDeque<>();
+    for (int suivant : suivants[RACINE]) {
+      echecs[suivant] = RACINE;
+      aVisiter.add(suivant);
+    }
+    while (!aVisiter.isEmpty()) {
+      int etat = aVisiter.poll();
+      for (int i = 0; i < caracteres[etat].length; i++) {
+        char caractere = caracteres[etat][i];
+        int suivant = suivants[etat][i];
+        int echec = echecs[etat];
+        while (echec != RACINE && getSuivant(echec, caractere) < 0) {
+          echec = echecs[echec];
+        }
+        int cible = getSuivant(echec, caractere);
+        echecs[suivant] = cible >= 0 ? cible : RACINE;
+        terminaux[suivant] |= terminaux[echecs[suivant]];
+        aVisiter.add(suivant);
+      }
+    }
+  }
+}
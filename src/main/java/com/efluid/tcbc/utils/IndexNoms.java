@@ -0,0 +1,55 @@
+package com.efluid.tcbc.utils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Attribue à chaque nom un index entier (0, 1, 2...) dans l'ordre de leur première demande, pour compter dans des tableaux plutôt que dans des
+ * maps indexées par chaîne.
+ * <p>
+ * Utilisable par plusieurs threads : la recherche d'un nom déjà indexé ne prend aucun verrou.
+ */
+public final class IndexNoms {
+
+  private final Map<String, Integer> index = new ConcurrentHashMap<>();
+  private volatile String[] noms = new String[16];
+  private int taille;
+
+  /**
+   * @return l'index du nom, attribué à la première demande
+   */
+  public int getIndex(String nom) {
+    Integer existant = index.get(nom);
+    return existant != null ? existant : ajouter(nom);
+  }
+
+  /**
+   * @return l'index du nom, ou -1 s'il n'a jamais été indexé
+   */
+  public int chercher(String nom) {
+    return index.getOrDefault(nom, -1);
+  }
+
+  private synchronized int ajouter(String nom) {
+    Integer existant = index.get(nom);
+    if (existant != null) {
+      return existant;
+    }
+    String[] tableau = noms;
+    if (taille == tableau.length) {
+      tableau = Arrays.copyOf(tableau, taille * 2);
+    }
+    tableau[taille] = nom;
+    noms = tableau;
+    index.put(nom, taille);
+    return taille++;
+  }
+
+  public String getNom(int index) {
+    return noms[index];
+  }
+
+  public synchronized int taille() {
+    return taille;
+  }
+}
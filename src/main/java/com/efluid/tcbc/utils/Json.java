@@ -0,0 +1,46 @@
+package com.efluid.tcbc.utils;
+
+import java.io.*;
+
+/**
+ * Ecriture de valeurs JSON directement dans un flux, sans construire le document en mémoire
+ */
+public final class Json {
+
+  private Json() {
+  }
+
+  /**
+   * Ecrit la chaîne entre guillemets, caractères spéciaux échappés
+   */
+  public static void ecrireChaine(Writer writer, String valeur) throws IOException {
+    writer.write('"');
+    for (int i = 0; i < valeur.length(); i++) {
+      char caractere = valeur.charAt(i);
+      switch (caractere) {
+        case '"':
+          writer.write("\\\"");
+          break;
+        case '\\':
+          writer.write("\\\\");
+          break;
+        case '\n':
+          writer.write("\\n");
+          break;
+        case '\r':
+          writer.write("\\r");
+          break;
+        case '\t':
+          writer.write("\\t");
+          break;
+        default:
+          if (caractere < 0x20) {
+            writer.write(String.format("\\u%04x", (int) caractere));
+          } else {
+            writer.write(caractere);
+          }
+      }
+    }
+    writer.write('"');
+  }
+}
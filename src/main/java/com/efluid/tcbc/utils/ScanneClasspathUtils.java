@@ -1,8 +1,11 @@
 package com.efluid.tcbc.utils;
 
-import java.io.File;
+import java.io.*;
 import java.net.*;
+import java.nio.file.*;
 import java.security.CodeSource;
+import java.util.*;
+import java.util.jar.*;
 
 import org.slf4j.*;
 
@@ -41,16 +44,10 @@ public class ScanneClasspathUtils {
     try{
        path = location.getPath();
       if("file".equals(location.getProtocol())){
-        path = URLDecoder.decode(path, System.getProperty("file.encoding"));
-        // Suppression du premier séparateur et remplacement par le séparateur de l'OS
-        path = path.substring(1).replaceAll("/", File.separator.equals("/") ? File.separator : "\\\\");
-  
-        // Suppression du dernier séparateur pour le répertoire classes
-        if(path.lastIndexOf(File.separator)+1 == path.length()){
-          path = path.substring(0, path.length()-1);
-        }
+        // Le chemin absolu est conservé tel quel (le premier séparateur également sous linux)
+        path = Paths.get(location.toURI()).toString();
       } else if("jar".equals(location.getProtocol())){
-        path = path.substring(6, path.lastIndexOf("!")).replaceAll("/", File.separator.equals("/") ? File.separator : "\\\\");
+        path = Paths.get(new URL(path.substring(0, path.lastIndexOf("!"))).toURI()).toString();
       }
     } catch (Throwable ex){
       LOG.error("Error : ", ex);
@@ -62,4 +59,42 @@ public class ScanneClasspathUtils {
   public static String getCheminDeLaClasse(Class aClass){
     return conversionPath(getClassLocation(aClass, false));
   }
+
+  /**
+   * GroupId maven du jar : déduit de son chemin dans un repository maven (ex : .../repository/org/slf4j/slf4j-api/1.7.25/slf4j-api-1.7.25.jar),
+   * sinon lu dans le pom.properties qu'il contient, sinon le nom du fichier
+   */
+  public static String getGroupId(String chemin) {
+    Path path = Paths.get(chemin);
+    int nbNoms = path.getNameCount();
+    String nomFichier = path.getFileName() != null ? path.getFileName().toString() : chemin;
+    if (!nomFichier.endsWith(".jar")) {
+      return nomFichier;
+    }
+    if (nbNoms >= 4 && nomFichier.startsWith(path.getName(nbNoms - 3) + "-" + path.getName(nbNoms - 2))) {
+      for (int i = nbNoms - 5; i >= 0; i--) {
+        if ("repository".equals(path.getName(i).toString())) {
+          return path.subpath(i + 1, nbNoms - 3).toString().replace(path.getFileSystem().getSeparator(), ".");
+        }
+      }
+    }
+    try (JarFile jar = new JarFile(chemin)) {
+      Enumeration<JarEntry> entrees = jar.entries();
+      while (entrees.hasMoreElements()) {
+        JarEntry entree = entrees.nextElement();
+        if (entree.getName().startsWith("META-INF/maven/") && entree.getName().endsWith("/pom.properties")) {
+          Properties pom = new Properties();
+          try (InputStream is = jar.getInputStream(entree)) {
+            pom.load(is);
+          }
+          if (pom.getProperty("groupId") != null) {
+            return pom.getProperty("groupId");
+          }
+        }
+      }
+    } catch (IOException ex) {
+      LOG.debug("Lecture du groupId impossible : {}", chemin, ex);
+    }
+    return nomFichier;
+  }
 }
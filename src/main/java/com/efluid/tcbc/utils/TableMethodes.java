@@ -0,0 +1,144 @@
+package com.efluid.tcbc.utils;
+
+import static java.lang.reflect.Modifier.*;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Table des méthodes d'une classe (déclarées et héritées), indexée par nom et types des paramètres.
+ * <p>
+ * La table est construite une seule fois par classe (ClassValue) puis partagée par toutes les recherches : une recherche est un accès à une map,
+ * sans aucune exception levée lorsque la méthode n'existe pas.<br>
+ * L'ordre de résolution est celui de la JVM :
+ * <ul>
+ * <li>les méthodes déclarées par la classe puis par ses classes mères, quelle que soit leur visibilité,</li>
+ * <li>les méthodes concrètes (default ou statiques) de toutes les interfaces, y compris celles héritées d'autres interfaces,</li>
+ * <li>les méthodes abstraites de ces interfaces,</li>
+ * <li>pour une interface, les méthodes publiques d'instance de java.lang.Object.</li>
+ * </ul>
+ * Comme pour <code>Class.getDeclaredMethod</code>, parmi les méthodes d'une même classe de même signature (méthodes "bridge"), celle dont le type de
+ * retour est le plus spécifique est retenue.
+ */
+public final class TableMethodes {
+
+  private static final String SIGNATURE_POLYMORPHIQUE = "java.lang.invoke.MethodHandle$PolymorphicSignature";
+
+  private static final ClassValue<TableMethodes> TABLES = new ClassValue<TableMethodes>() {
+
+    @Override
+    protected TableMethodes computeValue(Class<?> classe) {
+      return new TableMethodes(classe);
+    }
+  };
+
+  /* Nom de méthode vers ses surcharges, dans l'ordre de résolution */
+  private final Map<String, List<Entree>> methodes = new HashMap<>();
+  private final Set<String> signaturesPolymorphiques = new HashSet<>();
+
+  private TableMethodes(Class<?> classe) {
+    for (Class<?> parent = classe; parent != null; parent = parent.getSuperclass()) {
+      ajouter(parent.getDeclaredMethods(), methode -> true);
+    }
+    List<Class<?>> interfaces = getInterfaces(classe);
+    interfaces.forEach(iface -> ajouter(iface.getDeclaredMethods(), methode -> methode.isDefault() || isStatic(methode.getModifiers())));
+    interfaces.forEach(iface -> ajouter(iface.getDeclaredMethods(), methode -> true));
+    if (classe.isInterface()) {
+      ajouter(Object.class.getDeclaredMethods(), methode -> isPublic(methode.getModifiers()) && !isStatic(methode.getModifiers()));
+    }
+  }
+
+  /**
+   * @return la table des méthodes de la classe, construite au premier appel
+   */
+  public static TableMethodes de(Class<?> classe) {
+    return TABLES.get(classe);
+  }
+
+  /**
+   * @return la méthode de ce nom et de ces types de paramètres, ou <code>null</code> si elle n'existe pas
+   */
+  public Method get(String nom, Class<?>[] typesParametres) {
+    for (Entree entree : methodes.getOrDefault(nom, Collections.emptyList())) {
+      if (Arrays.equals(entree.typesParametres, typesParametres)) {
+        return entree.methode;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Méthodes à signature polymorphique (MethodHandle.invoke...), marquées par une annotation interne du JDK : elles ne peuvent être retrouvées
+   * par leurs types de paramètres.
+   */
+  public boolean isSignaturePolymorphique(String nom) {
+    return signaturesPolymorphiques.contains(nom);
+  }
+
+  private void ajouter(Method[] methodesDeclarees, Predicate<Method> filtre) {
+    Map<String, Entree> declarees = new LinkedHashMap<>();
+    for (Method methode : methodesDeclarees) {
+      if (!filtre.test(methode)) {
+        continue;
+      }
+      Entree entree = new Entree(methode);
+      String cle = methode.getName() + Arrays.toString(entree.typesParametres);
+      Entree existante = declarees.get(cle);
+      if (existante == null || (existante.methode.getReturnType() != methode.getReturnType() && existante.methode.getReturnType().isAssignableFrom(methode.getReturnType()))) {
+        declarees.put(cle, entree);
+      }
+      if (isSignaturePolymorphique(methode)) {
+        signaturesPolymorphiques.add(methode.getName());
+      }
+    }
+    declarees.values().forEach(entree -> {
+      List<Entree> surcharges = methodes.computeIfAbsent(entree.methode.getName(), nom -> new ArrayList<>(1));
+      if (surcharges.stream().noneMatch(surcharge -> Arrays.equals(surcharge.typesParametres, entree.typesParametres))) {
+        surcharges.add(entree);
+      }
+    });
+  }
+
+  private static boolean isSignaturePolymorphique(Method methode) {
+    if (!methode.isVarArgs() || methode.getParameterCount() != 1 || methode.getParameterTypes()[0] != Object[].class) {
+      return false;
+    }
+    for (Annotation annotation : methode.getDeclaredAnnotations()) {
+      if (SIGNATURE_POLYMORPHIQUE.equals(annotation.annotationType().getName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Toutes les interfaces implémentées par la classe, ses classes mères et les interfaces elles-mêmes (sans doublons), en largeur d'abord
+   */
+  private static List<Class<?>> getInterfaces(Class<?> classe) {
+    Set<Class<?>> interfaces = new LinkedHashSet<>();
+    Deque<Class<?>> aVisiter = new ArrayDeque<>();
+    for (Class<?> parent = classe; parent != null; parent = parent.getSuperclass()) {
+      aVisiter.addAll(Arrays.asList(parent.getInterfaces()));
+    }
+    while (!aVisiter.isEmpty()) {
+      Class<?> iface = aVisiter.poll();
+      if (interfaces.add(iface)) {
+        aVisiter.addAll(Arrays.asList(iface.getInterfaces()));
+      }
+    }
+    return new ArrayList<>(interfaces);
+  }
+
+  private static class Entree {
+
+    private final Method methode;
+    private final Class<?>[] typesParametres;
+
+    private Entree(Method methode) {
+      this.methode = methode;
+      this.typesParametres = methode.getParameterTypes();
+    }
+  }
+}
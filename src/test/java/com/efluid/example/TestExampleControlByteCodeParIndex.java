@@ -0,0 +1,26 @@
+package com.efluid.example;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.efluid.tcbc.object.Fichier;
+
+/**
+ * Same control as {@link TestExampleControlByteCode} with methods resolved through the classpath index : no class is loaded.<br>
+ * The class generated by ByteBuddy declares both <code>String test()</code> and <code>Void test()</code> : the reference to
+ * <code>test()Ljava/lang/Void;</code> matches exactly a declared method, so the index resolution (as the JVM does) finds no error.<br>
+ * Missing methods and classes are reported through the index as they are by reflection : see
+ * {@link com.efluid.tcbc.TestControleByteCodeTest#should_report_missing_methods_and_classes_through_the_index_as_by_reflection()}.
+ */
+public class TestExampleControlByteCodeParIndex extends TestExampleControlByteCode {
+
+  @Override
+  public boolean isResolutionParIndex() {
+    return true;
+  }
+
+  @Override
+  protected void isValid(int erreurs) {
+    int nombreErreurs = getJarsTraites().stream().flatMap(jar -> jar.getClassesEnErreur().stream()).mapToInt(Fichier::getNbErreurs).sum();
+    assertThat(nombreErreurs).isEqualTo(0);
+  }
+}
@@ -0,0 +1,66 @@
+package com.efluid.example;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.efluid.tcbc.process.MesuresScan.Phase.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.efluid.tcbc.TestControlesCombines;
+import com.efluid.tcbc.object.Jar;
+import com.efluid.tcbc.process.*;
+
+/**
+ * The byte code, dependence, API usage and duplicate file controls of the other examples run on a single scan of the classpath : each one
+ * must reach the same result as when it runs alone.<br>
+ * Each jar is opened once, and each class is read and parsed once whatever the number of controls reading its byte code.
+ */
+public class TestExampleControlesCombines extends TestControlesCombines {
+
+  /* Classes handed to at least one of the controls reading the byte code */
+  private static final Set<String> CLASSES_TRAITEES = ConcurrentHashMap.newKeySet();
+
+  public TestExampleControlesCombines() {
+    super(new TestExampleControlByteCode() {
+
+      @Override
+      protected void traitementFichierEnCours() {
+        CLASSES_TRAITEES.add(getJarEnCours().getNom() + "!" + getFichierEnCours().getNom());
+        super.traitementFichierEnCours();
+      }
+    }, new TestExampleDependenceJar() {
+
+      @Override
+      protected void traitementFichierEnCours() {
+        CLASSES_TRAITEES.add(getJarEnCours().getNom() + "!" + getFichierEnCours().getNom());
+        super.traitementFichierEnCours();
+      }
+    }, new TestExampleAPIsDependenceJar() {
+
+      @Override
+      protected void traitementFichierEnCours() {
+        CLASSES_TRAITEES.add(getJarEnCours().getNom() + "!" + getFichierEnCours().getNom());
+        super.traitementFichierEnCours();
+      }
+    }, new TestExampleFichiersEnDoublons());
+  }
+
+  @Override
+  @Test
+  public void execute() {
+    CLASSES_TRAITEES.clear();
+    super.execute();
+
+    Set<String> elementsScannes = getControles().stream().flatMap(controle -> controle.getJarsTraites().stream()).map(Jar::getNom).collect(Collectors.toSet());
+    MesuresScan mesures = getMesures();
+    assertThat(mesures.getNombre(PARCOURS_JAR)).isEqualTo(elementsScannes.size());
+    assertThat(CLASSES_TRAITEES).isNotEmpty();
+    assertThat(mesures.getNombre(LECTURE_CLASSE)).isEqualTo(CLASSES_TRAITEES.size());
+    // A class which cannot be loaded is read but not parsed
+    assertThat(mesures.getNombre(ANALYSE_CONSTANT_POOL)).isPositive().isLessThanOrEqualTo(CLASSES_TRAITEES.size());
+  }
+}
@@ -0,0 +1,25 @@
+package com.efluid.example;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Ignore;
+
+import com.efluid.tcbc.TestControleFichiersEnDoublon;
+
+/**
+ * Same duplicates as {@link TestExampleFichiersEnDoublons}, classified by content : the test copies differ from the jar ones, both are conflicts.
+ */
+public class TestExampleFichiersEnDoublonsParContenu extends TestControleFichiersEnDoublon {
+
+  @Override
+  protected boolean isClassificationParContenu() {
+    return true;
+  }
+
+  @Override
+  protected void isValid(int erreurs) {
+    assertThat(2).isEqualTo(erreurs);
+    assertThat(doublonsIdentiques).isEmpty();
+    assertThat(doublonsEnConflit).containsKeys(Ignore.class.getName() + ".class", "META-INF.maven.commons-cli.commons-cli.pom.properties");
+  }
+}
@@ -0,0 +1,53 @@
+package com.efluid.example;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import com.efluid.tcbc.object.Fichier;
+
+/**
+ * Same control as {@link TestExampleFichiersEnDoublons} with jars scanned in parallel : the result must be identical.<br>
+ * The duplicates (with the jars containing each of them) and the exclusions are compared with those of a sequential scan.
+ */
+public class TestExampleFichiersEnDoublonsParallele extends TestExampleFichiersEnDoublons {
+
+  private Map<String, Set<String>> doublonsSequentiels;
+  private Map<Exclusion, Set<String>> exclusionsSequentielles;
+
+  @Override
+  protected int getNombreThreads() {
+    return 4;
+  }
+
+  @Override
+  protected void isValid(int erreurs) {
+    super.isValid(erreurs);
+    TestExampleFichiersEnDoublons sequentiel = new TestExampleFichiersEnDoublons() {
+
+      @Override
+      protected int getNombreThreads() {
+        return 1;
+      }
+
+      @Override
+      protected void isValid(int erreursSequentielles) {
+        super.isValid(erreursSequentielles);
+        doublonsSequentiels = getJarsParDoublon(fichiersEnDoublon);
+        exclusionsSequentielles = getExclusions();
+      }
+    };
+    sequentiel.init();
+    sequentiel.execute();
+
+    assertThat(getJarsParDoublon(fichiersEnDoublon)).isEqualTo(doublonsSequentiels);
+    assertThat(getExclusions()).isEqualTo(exclusionsSequentielles);
+  }
+
+  private static Map<String, Set<String>> getJarsParDoublon(Map<String, Set<Fichier>> doublons) {
+    Map<String, Set<String>> jarsParDoublon = new TreeMap<>();
+    doublons.forEach((nom, fichiers) -> jarsParDoublon.put(nom, fichiers.stream().map(Fichier::getNomJar).collect(Collectors.toCollection(TreeSet::new))));
+    return jarsParDoublon;
+  }
+}
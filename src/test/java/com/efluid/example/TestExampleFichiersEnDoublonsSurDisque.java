@@ -0,0 +1,18 @@
+package com.efluid.example;
+
+/**
+ * Same control as {@link TestExampleFichiersEnDoublons} with duplicates detected by merging sorted runs written on disk : the result must be
+ * identical.
+ */
+public class TestExampleFichiersEnDoublonsSurDisque extends TestExampleFichiersEnDoublons {
+
+  @Override
+  protected int getSeuilDoublonsEnMemoire() {
+    return 500;
+  }
+
+  @Override
+  protected int getNombreThreads() {
+    return 4;
+  }
+}
@@ -0,0 +1,66 @@
+package com.efluid.tcbc;
+
+import java.io.File;
+import java.util.function.Supplier;
+
+import com.efluid.tcbc.process.ScanneClasspath;
+
+/**
+ * Contrôles exécutés sur les jars générés par {@link FixtureJars}. Le nombre d'erreurs retourné par le bilan n'est pas validé : il est conservé
+ * pour être vérifié par chaque test.
+ */
+public final class ControlesFixture {
+
+  private ControlesFixture() {
+  }
+
+  /**
+   * Exécute le contrôle sur le classpath. Ses options étant lues à sa création, il n'est créé qu'une fois le classpath défini.
+   */
+  public static <T extends ScanneClasspath> T controler(Supplier<T> creation, String... classpath) {
+    System.setProperty("classpath", String.join(File.pathSeparator, classpath));
+    T controle = creation.get();
+    controle.init();
+    controle.execute();
+    return controle;
+  }
+
+  /**
+   * Contrôle du byte code des jars générés (configuration controleByteCodeFixture.yaml)
+   */
+  public static class ControleByteCodeFixture extends TestControleByteCode {
+
+    private int erreurs = -1;
+
+    @Override
+    protected String getFichierConfiguration() {
+      return "controleByteCodeFixture.yaml";
+    }
+
+    @Override
+    protected void isValid(int erreurs) {
+      this.erreurs = erreurs;
+    }
+
+    public int getErreurs() {
+      return erreurs;
+    }
+  }
+
+  /**
+   * Contrôle des fichiers en doublon des jars générés
+   */
+  public static class ControleFichiersEnDoublonFixture extends TestControleFichiersEnDoublon {
+
+    private int erreurs = -1;
+
+    @Override
+    protected void isValid(int erreurs) {
+      this.erreurs = erreurs;
+    }
+
+    public int getErreurs() {
+      return erreurs;
+    }
+  }
+}
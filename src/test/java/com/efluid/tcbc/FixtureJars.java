@@ -0,0 +1,117 @@
+package com.efluid.tcbc;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.jar.*;
+import java.util.stream.*;
+
+import javassist.*;
+import javassist.bytecode.*;
+
+/**
+ * Jars générés pour les tests dans un répertoire temporaire : classes compilées par javassist depuis le source de leurs méthodes, et ressources.
+ * <p>
+ * Une classe peut être générée de nouveau sous le même nom (méthode supprimée, autre version) : les classes générées avant conservent leurs
+ * références vers la version précédente, comme une dépendance mise à jour sans recompiler ses utilisateurs.
+ */
+public final class FixtureJars implements Closeable {
+
+  private final Path repertoire;
+  private final ClassPool pool = new ClassPool(true);
+  /* Dernière version générée de chaque classe */
+  private final Map<String, byte[]> classes = new HashMap<>();
+
+  public FixtureJars() throws IOException {
+    repertoire = Files.createTempDirectory("tcbc-fixture");
+  }
+
+  /**
+   * Génère la classe avec ses méthodes, données par leur source
+   */
+  public FixtureJars classe(String nom, String... methodes) throws CannotCompileException, IOException {
+    CtClass classe = pool.makeClass(nom);
+    for (String methode : methodes) {
+      classe.addMethod(CtNewMethod.make(methode, classe));
+    }
+    return ajouter(classe);
+  }
+
+  /**
+   * Génère une classe dont la méthode <code>invalide()</code> ne passe pas la vérification du byte code : elle retourne un entier comme un objet
+   */
+  public FixtureJars classeInvalide(String nom) throws CannotCompileException, IOException {
+    CtClass classe = pool.makeClass(nom);
+    classe.addMethod(CtNewMethod.make("public Object invalide() { return null; }", classe));
+    Bytecode code = new Bytecode(classe.getClassFile().getConstPool(), 1, 1);
+    code.addIconst(0);
+    code.addOpcode(Opcode.ARETURN);
+    classe.getClassFile().getMethod("invalide").setCodeAttribute(code.toCodeAttribute());
+    return ajouter(classe);
+  }
+
+  /**
+   * Génère une classe dont le bloc static lève une exception : elle ne peut pas être initialisée
+   */
+  public FixtureJars classeNonInitialisable(String nom) throws CannotCompileException, IOException {
+    CtClass classe = pool.makeClass(nom);
+    classe.makeClassInitializer().setBody("{ throw new IllegalStateException(\"" + nom + " initialisée\"); }");
+    return ajouter(classe);
+  }
+
+  private FixtureJars ajouter(CtClass classe) throws CannotCompileException, IOException {
+    classes.put(classe.getName(), classe.toBytecode());
+    classe.defrost();
+    return this;
+  }
+
+  /**
+   * @return le byte code de la dernière version générée de la classe
+   */
+  public byte[] getByteCode(String nomClasse) {
+    return classes.get(nomClasse);
+  }
+
+  /**
+   * Ecrit un jar contenant la dernière version générée des classes
+   *
+   * @return le chemin du jar
+   */
+  public String jar(String nomJar, String... nomsClasses) throws IOException {
+    Map<String, byte[]> entrees = new LinkedHashMap<>();
+    for (String nomClasse : nomsClasses) {
+      entrees.put(nomClasse.replace('.', '/') + ".class", getByteCode(nomClasse));
+    }
+    return jar(nomJar, entrees);
+  }
+
+  /**
+   * Ecrit un jar contenant les entrées (chemin dans le jar vers contenu)
+   *
+   * @return le chemin du jar
+   */
+  public String jar(String nomJar, Map<String, byte[]> entrees) throws IOException {
+    Path jar = repertoire.resolve(nomJar);
+    try (JarOutputStream sortie = new JarOutputStream(Files.newOutputStream(jar))) {
+      for (Map.Entry<String, byte[]> entree : entrees.entrySet()) {
+        sortie.putNextEntry(new JarEntry(entree.getKey()));
+        sortie.write(entree.getValue());
+        sortie.closeEntry();
+      }
+    }
+    return jar.toString();
+  }
+
+  public Path getRepertoire() {
+    return repertoire;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try (Stream<Path> fichiers = Files.walk(repertoire)) {
+      for (Path fichier : fichiers.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(fichier);
+      }
+    }
+  }
+}
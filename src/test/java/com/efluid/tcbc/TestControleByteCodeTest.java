@@ -0,0 +1,203 @@
+package com.efluid.tcbc;
+
+import static org.assertj.core.api.Assertions.*;
+import static com.efluid.tcbc.ControlesFixture.controler;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.*;
+
+import com.efluid.tcbc.ControlesFixture.ControleByteCodeFixture;
+import com.efluid.tcbc.object.*;
+import com.efluid.tcbc.process.ScanneClasspath;
+
+public class TestControleByteCodeTest {
+
+  private FixtureJars fixture;
+
+  @Before
+  public void creerFixture() throws IOException {
+    fixture = new FixtureJars();
+  }
+
+  @After
+  public void supprimerFixture() throws IOException {
+    Stream.of("classpath", "exclusionErreurs", "classesMasquees", "resolution", "nbThreads").forEach(System::clearProperty);
+    fixture.close();
+  }
+
+  @Test
+  public void should_report_a_class_failing_verification_without_initializing_classes() throws Exception {
+    fixture.classeInvalide("fixture.Invalide").classeNonInitialisable("fixture.NonInitialisable");
+
+    Map<String, List<Erreur>> erreurs = getErreurs(controler(ControleByteCodeFixture::new, fixture.jar("fixture.jar", "fixture.Invalide", "fixture.NonInitialisable")));
+
+    assertThat(erreurs).containsOnlyKeys("fixture.Invalide");
+    assertThat(erreurs.get("fixture.Invalide")).hasSize(1);
+    assertThat(erreurs.get("fixture.Invalide").get(0).getType()).isEqualTo(TypeErreur.CHARGEMENT_CLASSE);
+    assertThat(erreurs.get("fixture.Invalide").get(0).getLibelle()).contains("fixture/Invalide.invalide()");
+  }
+
+  @Test
+  public void should_report_missing_methods_and_classes_through_the_index_as_by_reflection() throws Exception {
+    fixture.classe("fixture.Cible", "public static void supprimee() {}", "public static void conservee() {}")
+      .classe("fixture.Supprimee", "public static void appeler() {}")
+      .classe("fixture.Appelante", "public void appeler() { fixture.Cible.supprimee(); fixture.Cible.conservee(); fixture.Supprimee.appeler(); }")
+      .classe("fixture.Cible", "public static void conservee() {}");
+    String classpath = fixture.jar("fixture.jar", "fixture.Appelante", "fixture.Cible");
+
+    List<Erreur> parReflexion = getErreurs(controler(ControleByteCodeFixture::new, classpath)).get("fixture.Appelante");
+    System.setProperty("resolution", "index");
+    List<Erreur> parIndex = getErreurs(controler(ControleByteCodeFixture::new, classpath)).get("fixture.Appelante");
+
+    assertThat(parReflexion).extracting(Erreur::getType, Erreur::getClasseReferencee, Erreur::getMethode).containsOnly(
+      tuple(TypeErreur.METHODE_NON_TROUVEE, "fixture.Cible", "supprimee"), tuple(TypeErreur.CLASSE_NON_TROUVEE, "fixture.Supprimee", "appeler"));
+    assertThat(parIndex).extracting(Erreur::getType, Erreur::getClasseReferencee, Erreur::getMethode, Erreur::getLibelle)
+      .containsExactlyInAnyOrderElementsOf(parReflexion.stream()
+        .map(erreur -> tuple(erreur.getType(), erreur.getClasseReferencee(), erreur.getMethode(), erreur.getLibelle())).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void should_exclude_errors_by_cited_names_or_message_and_keep_their_message() throws Exception {
+    String classpath = genererAppelsExclus();
+
+    ControleByteCodeFixture controle = controler(ControleByteCodeFixture::new, classpath);
+
+    assertThat(getErreurs(controle)).isEmpty();
+    assertThat(controle.getExclusions().get(ScanneClasspath.Exclusion.ERREUR)).hasSize(2)
+      .allSatisfy(exclusion -> assertThat(exclusion).startsWith("Methode referencee non trouvee").contains("fixture.Appelante"));
+    assertThat(getJar(controle).getExclusions().get("ERREUR")).isEqualTo(controle.getExclusions().get(ScanneClasspath.Exclusion.ERREUR));
+  }
+
+  @Test
+  public void should_exclude_errors_by_cited_names_only_and_keep_their_message() throws Exception {
+    String classpath = genererAppelsExclus();
+    System.setProperty("exclusionErreurs", "champs");
+
+    ControleByteCodeFixture controle = controler(ControleByteCodeFixture::new, classpath);
+
+    Map<String, List<Erreur>> erreurs = getErreurs(controle);
+    assertThat(erreurs).containsOnlyKeys("fixture.Appelante");
+    assertThat(erreurs.get("fixture.Appelante")).extracting(Erreur::getType, Erreur::getClasseReferencee, Erreur::getMethode)
+      .containsExactly(tuple(TypeErreur.METHODE_NON_TROUVEE, "fixture.Cible", "absenteDuLibelle"));
+    assertThat(controle.getExclusions().get(ScanneClasspath.Exclusion.ERREUR)).hasSize(1)
+      .allSatisfy(exclusion -> assertThat(exclusion).startsWith("Methode referencee non trouvee").contains("fixture.Appelante", "fixture.exclue.Cible"));
+  }
+
+  @Test
+  public void should_check_a_shadowed_class_with_its_own_byte_code() throws Exception {
+    String[] classpath = genererClasseMasquee();
+
+    ControleByteCodeFixture controle = controler(ControleByteCodeFixture::new, classpath);
+
+    assertThat(getJar(controle, "masquant.jar").getClassesMasquees()).isEmpty();
+    assertThat(getJar(controle, "masque.jar").getClassesMasquees()).containsOnly(entry("fixture.Masquee", getJar(controle, "masquant.jar").getNom()));
+    assertThat(getJar(controle, "masquant.jar").getClassesEnErreur()).isEmpty();
+    assertThat(getJar(controle, "masque.jar").getClassesEnErreur()).extracting(Fichier::getNom).containsExactly("fixture.Masquee");
+    assertThat(getJar(controle, "masque.jar").getClassesEnErreur().iterator().next().getErreurs()).extracting(Erreur::getType, Erreur::getMethode)
+      .containsExactly(tuple(TypeErreur.METHODE_NON_TROUVEE, "absente"));
+  }
+
+  @Test
+  public void should_list_a_shadowed_class_without_checking_it_when_ignored() throws Exception {
+    String[] classpath = genererClasseMasquee();
+    System.setProperty("classesMasquees", "ignorer");
+
+    ControleByteCodeFixture controle = controler(ControleByteCodeFixture::new, classpath);
+
+    assertThat(getErreurs(controle)).isEmpty();
+    assertThat(getJar(controle, "masque.jar").getClassesMasquees()).containsOnly(entry("fixture.Masquee", getJar(controle, "masquant.jar").getNom()));
+  }
+
+  @Test
+  public void should_check_every_copy_without_listing_shadowed_classes_when_detection_is_disabled() throws Exception {
+    String[] classpath = genererClasseMasquee();
+    System.setProperty("classesMasquees", "non");
+
+    ControleByteCodeFixture controle = controler(ControleByteCodeFixture::new, classpath);
+
+    assertThat(getJar(controle, "masque.jar").getClassesMasquees()).isEmpty();
+    assertThat(getJar(controle, "masquant.jar").getClassesEnErreur()).isEmpty();
+    assertThat(getJar(controle, "masque.jar").getClassesEnErreur()).extracting(Fichier::getNom).containsExactly("fixture.Masquee");
+  }
+
+  @Test
+  public void should_report_the_same_errors_and_missing_classes_in_parallel_as_sequentially() throws Exception {
+    String[] classpath = genererJarsEnErreur();
+    ControleByteCodeFixture sequentiel = controler(ControleByteCodeFixture::new, classpath);
+    System.setProperty("nbThreads", "4");
+
+    ControleByteCodeFixture parallele = controler(ControleByteCodeFixture::new, classpath);
+
+    assertThat(getErreursParJar(parallele)).isEqualTo(getErreursParJar(sequentiel)).isNotEmpty();
+    assertThat(new ArrayList<>(parallele.getClassesReferenceesNonTrouveesOuChargees().entrySet()))
+      .isEqualTo(new ArrayList<>(sequentiel.getClassesReferenceesNonTrouveesOuChargees().entrySet())).hasSize(3);
+  }
+
+  /**
+   * Classe présente dans deux jars : la copie du premier jar du classpath (utilisée au runtime) est valide, celle du second appelle une méthode
+   * supprimée
+   */
+  private String[] genererClasseMasquee() throws Exception {
+    fixture.classe("fixture.Cible", "public static void absente() {}")
+      .classe("fixture.Masquee", "public void appeler() { fixture.Cible.absente(); }");
+    String masque = fixture.jar("masque.jar", "fixture.Masquee");
+    fixture.classe("fixture.Masquee", "public void appeler() {}").classe("fixture.Cible");
+    return new String[] { fixture.jar("masquant.jar", "fixture.Masquee", "fixture.Cible"), masque };
+  }
+
+  /**
+   * Appels de méthodes supprimées, exclus par le nom de la classe référencée (fixture.exclue) ou par un texte du libellé qui n'est dans aucun des
+   * noms cités (Cible#absenteDuLibelle)
+   */
+  private String genererAppelsExclus() throws Exception {
+    fixture.classe("fixture.exclue.Cible", "public static void absente() {}")
+      .classe("fixture.Cible", "public static void absenteDuLibelle() {}")
+      .classe("fixture.Appelante", "public void appeler() { fixture.exclue.Cible.absente(); fixture.Cible.absenteDuLibelle(); }")
+      .classe("fixture.exclue.Cible")
+      .classe("fixture.Cible");
+    return fixture.jar("fixture.jar", "fixture.Appelante", "fixture.exclue.Cible", "fixture.Cible");
+  }
+
+  /**
+   * Jars appelant des méthodes supprimées et des classes absentes du classpath, dans un ordre différent d'un jar à l'autre
+   */
+  private String[] genererJarsEnErreur() throws Exception {
+    fixture.classe("fixture.Cible", "public static void supprimee() {}", "public static void conservee() {}")
+      .classe("fixture.AbsenteA", "public static void appeler() {}")
+      .classe("fixture.AbsenteB", "public static void appeler() {}")
+      .classe("fixture.AbsenteC", "public static void appeler() {}")
+      .classe("fixture.PremiereAppelante", "public void appeler() { fixture.AbsenteB.appeler(); fixture.Cible.supprimee(); fixture.AbsenteA.appeler(); }")
+      .classe("fixture.DeuxiemeAppelante", "public void appeler() { fixture.AbsenteC.appeler(); fixture.Cible.conservee(); }")
+      .classe("fixture.TroisiemeAppelante", "public void appeler() { fixture.AbsenteA.appeler(); fixture.Cible.supprimee(); fixture.AbsenteC.appeler(); }")
+      .classe("fixture.Cible", "public static void conservee() {}");
+    return new String[] { fixture.jar("cible.jar", "fixture.Cible"), fixture.jar("premier.jar", "fixture.PremiereAppelante"),
+      fixture.jar("deuxieme.jar", "fixture.DeuxiemeAppelante"), fixture.jar("troisieme.jar", "fixture.TroisiemeAppelante") };
+  }
+
+  /**
+   * @return les erreurs de chaque classe en erreur
+   */
+  private static Map<String, List<Erreur>> getErreurs(ScanneClasspath controle) {
+    return controle.getJarsTraites().stream().flatMap(jar -> jar.getClassesEnErreur().stream())
+      .collect(Collectors.toMap(Fichier::getNom, Fichier::getErreurs));
+  }
+
+  /**
+   * @return les libellés des erreurs de chaque classe, par jar
+   */
+  private static Map<String, Map<String, List<String>>> getErreursParJar(ScanneClasspath controle) {
+    return controle.getJarsTraites().stream().collect(Collectors.toMap(Jar::getNom, jar -> jar.getClassesEnErreur().stream()
+      .collect(Collectors.toMap(Fichier::getNom, classe -> classe.getErreurs().stream().map(Erreur::getLibelle).collect(Collectors.toList())))));
+  }
+
+  private static Jar getJar(ScanneClasspath controle) {
+    return controle.getJarsTraites().iterator().next();
+  }
+
+  private static Jar getJar(ScanneClasspath controle, String nomJar) {
+    return controle.getJarsTraites().stream().filter(jar -> jar.getNom().endsWith(nomJar)).findFirst().orElseThrow(IllegalStateException::new);
+  }
+}
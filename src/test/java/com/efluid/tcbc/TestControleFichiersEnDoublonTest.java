@@ -0,0 +1,73 @@
+package com.efluid.tcbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static com.efluid.tcbc.ControlesFixture.controler;
+
+import java.io.*;
+import java.util.stream.*;
+
+import org.junit.*;
+
+import com.efluid.tcbc.ControlesFixture.ControleFichiersEnDoublonFixture;
+import com.efluid.tcbc.object.Fichier;
+
+public class TestControleFichiersEnDoublonTest {
+
+  private FixtureJars fixture;
+
+  @Before
+  public void creerFixture() throws IOException {
+    fixture = new FixtureJars();
+  }
+
+  @After
+  public void supprimerFixture() throws IOException {
+    Stream.of("classpath", "classificationDoublons", "nbThreads").forEach(System::clearProperty);
+    fixture.close();
+  }
+
+  @Test
+  public void should_fail_only_on_conflicting_duplicates_when_classified_by_content() throws Exception {
+    String[] classpath = genererDoublons();
+    System.setProperty("classificationDoublons", "contenu");
+
+    ControleFichiersEnDoublonFixture controle = controler(ControleFichiersEnDoublonFixture::new, classpath);
+
+    assertThat(controle.doublonsIdentiques).containsOnlyKeys("fixture.Identique.class");
+    assertThat(controle.doublonsEnConflit).containsOnlyKeys("fixture.Conflit.class");
+    assertThat(controle.doublonsEnConflit.get("fixture.Conflit.class")).extracting(Fichier::getNomJar).hasSize(2).doesNotHaveDuplicates();
+    assertThat(controle.getErreurs()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_classify_duplicates_by_content_with_the_threads_of_the_scan() throws Exception {
+    String[] classpath = genererDoublons();
+    System.setProperty("classificationDoublons", "contenu");
+    System.setProperty("nbThreads", "2");
+
+    ControleFichiersEnDoublonFixture controle = controler(ControleFichiersEnDoublonFixture::new, classpath);
+
+    assertThat(controle.doublonsIdentiques).containsOnlyKeys("fixture.Identique.class");
+    assertThat(controle.doublonsEnConflit).containsOnlyKeys("fixture.Conflit.class");
+    assertThat(controle.getErreurs()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_fail_on_all_duplicates_without_classification() throws Exception {
+    ControleFichiersEnDoublonFixture controle = controler(ControleFichiersEnDoublonFixture::new, genererDoublons());
+
+    assertThat(controle.doublonsIdentiques).isEmpty();
+    assertThat(controle.doublonsEnConflit).containsOnlyKeys("fixture.Identique.class", "fixture.Conflit.class");
+    assertThat(controle.getErreurs()).isEqualTo(2);
+  }
+
+  /**
+   * Deux jars contenant la même classe à l'identique (fixture.Identique) et deux versions d'une autre classe (fixture.Conflit)
+   */
+  private String[] genererDoublons() throws Exception {
+    fixture.classe("fixture.Identique").classe("fixture.Conflit");
+    String premier = fixture.jar("premier.jar", "fixture.Identique", "fixture.Conflit");
+    fixture.classe("fixture.Conflit", "public void ajoutee() {}");
+    return new String[] { premier, fixture.jar("second.jar", "fixture.Identique", "fixture.Conflit") };
+  }
+}
@@ -0,0 +1,31 @@
+package com.efluid.tcbc.object;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ErreurTest {
+
+  private final Fichier appelant = new Fichier(new Jar("/chemin/dependance.jar"), "com.efluid.Appelante", "class");
+
+  @Test
+  public void should_render_caller_in_shared_template() {
+    String modele = "Methode referencee non trouvee : [" + Erreur.APPELANT + " appelle la méthode void com.efluid.Appelee#traiter()]";
+    Erreur tested = new Erreur(TypeErreur.METHODE_NON_TROUVEE, appelant, "com.efluid.Appelee", "traiter", "()V", modele);
+
+    assertThat(tested.isAppelantCite()).isTrue();
+    assertThat(tested.isCite("com.efluid.Appelee")).isTrue();
+    assertThat(tested.isCite("()V")).isFalse();
+    assertThat(tested.getLibelle()).isEqualTo("Methode referencee non trouvee : [com.efluid.Appelante appelle la méthode void com.efluid.Appelee#traiter()]");
+    assertThat(new Erreur(TypeErreur.METHODE_NON_TROUVEE, appelant, new String("com.efluid.Appelee"), "traiter", "()V", modele).getClasseReferencee())
+      .isSameAs(tested.getClasseReferencee());
+  }
+
+  @Test
+  public void should_render_caller_file_and_keep_cached_label() {
+    Erreur tested = new Erreur(TypeErreur.LECTURE_BYTE_CODE, appelant, null, null, null, "Lecture : " + Erreur.FICHIER_APPELANT);
+
+    assertThat(tested.getLibelle()).isEqualTo("Lecture : Fichier com.efluid.Appelante.class contenue par la jar /chemin/dependance.jar");
+    assertThat(new Erreur(TypeErreur.LECTURE_BYTE_CODE, null, null, null, "Lecture").isAppelantCite()).isFalse();
+  }
+}
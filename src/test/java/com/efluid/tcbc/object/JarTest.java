@@ -0,0 +1,44 @@
+package com.efluid.tcbc.object;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+@SuppressWarnings("deprecation")
+public class JarTest {
+
+  @Test
+  public void should_count_the_dependences_of_a_jar_without_dependency_control() {
+    Jar tested = new Jar("application.jar");
+    tested.addDependence("api.jar");
+    tested.addDependence("api.jar", 2);
+
+    assertThat(tested.getDependences()).containsOnlyKeys("api.jar");
+    assertThat(tested.getDependences().get("api.jar").get()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_delegate_the_dependences_to_the_counter_of_the_control() {
+    Map<String, Long> compteur = new HashMap<>();
+    Jar tested = new Jar("application.jar");
+    tested.setCompteurDependances(new CompteurDependances() {
+
+      @Override
+      public void ajouterDependance(Jar jar, String dependance, long nombre) {
+        compteur.merge(jar.getNom() + " -> " + dependance, nombre, Long::sum);
+      }
+
+      @Override
+      public Map<String, Long> getDependances(Jar jar) {
+        return Collections.singletonMap("api.jar", compteur.get(jar.getNom() + " -> api.jar"));
+      }
+    });
+
+    tested.addDependence("api.jar");
+
+    assertThat(compteur).containsOnly(entry("application.jar -> api.jar", 1L));
+    assertThat(tested.getDependences().get("api.jar").get()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,49 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class CacheEchecsChargementTest {
+
+  private static final String CLASSE = "com.efluid.Absente";
+
+  private final CacheEchecsChargement cache = new CacheEchecsChargement();
+
+  @Test
+  public void should_miss_a_class_without_failure() {
+    assertThat(cache.get(CLASSE)).isNull();
+    assertThat(cache.getChargementsEvites()).isZero();
+  }
+
+  @Test
+  public void should_reuse_the_failure_of_a_class() {
+    ClassNotFoundException cause = new ClassNotFoundException(CLASSE);
+
+    assertThat(cache.put(CLASSE, cause, cause.toString())).isTrue();
+
+    assertThat(cache.get(CLASSE)).isEqualTo("java.lang.ClassNotFoundException: " + CLASSE);
+    assertThat(cache.get(CLASSE)).isEqualTo("java.lang.ClassNotFoundException: " + CLASSE);
+    assertThat(cache.get("com.efluid.Autre")).isNull();
+    assertThat(cache.getChargementsEvites()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_keep_the_first_failure_of_a_class() {
+    cache.put(CLASSE, new VerifyError(), "premier");
+    cache.put(CLASSE, new NoClassDefFoundError(), "second");
+
+    assertThat(cache.get(CLASSE)).isEqualTo("premier");
+    assertThat(cache.getTaille()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_not_keep_an_abandoned_load() {
+    ClassNotFoundException abandon = new ChargeurClasspath.ChargementAbandonneException(CLASSE + " : chargement abandonné");
+
+    assertThat(cache.put(CLASSE, abandon, abandon.toString())).isFalse();
+
+    assertThat(cache.get(CLASSE)).isNull();
+    assertThat(cache.getTaille()).isZero();
+  }
+}
@@ -0,0 +1,102 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import com.efluid.tcbc.object.Jar;
+
+public class CacheScanTest {
+
+  @Rule
+  public TemporaryFolder repertoire = new TemporaryFolder();
+
+  private Path fichierCache;
+  private String jarScanne;
+  private String jarResolu;
+
+  @Before
+  public void creerClasspath() throws IOException {
+    fichierCache = repertoire.getRoot().toPath().resolve("cache.yaml");
+    jarScanne = ecrire("scanne.jar", "contenu scanne");
+    jarResolu = ecrire("resolu.jar", "contenu resolu");
+    enregistrer(jarScanne, jarResolu);
+  }
+
+  /**
+   * Enregistre les résultats du jar scanné, qui a résolu des classes dans le jar résolu
+   */
+  private void enregistrer(String... classpath) {
+    CacheScan cache = new CacheScan(fichierCache, "configuration", classpath);
+    Jar jar = new Jar(jarScanne);
+    jar.addJarResolu(jarResolu);
+    cache.enregistrer(jar, Collections.singletonMap("erreurs", Collections.singletonList("erreur")));
+    cache.sauvegarder();
+  }
+
+  @Test
+  public void should_serve_results_when_jar_and_resolution_context_are_unchanged() {
+    CacheScan tested = charger("configuration", jarScanne, jarResolu);
+
+    Map<String, Object> resultats = tested.getResultats(new Jar(jarScanne), () -> null);
+
+    assertThat(resultats).containsEntry("erreurs", Collections.singletonList("erreur"));
+    assertThat(tested.getNbJarsServis()).isEqualTo(1);
+    assertThat(tested.getNbJarsScannes()).isZero();
+  }
+
+  @Test
+  public void should_invalidate_results_when_a_resolved_jar_changes() throws IOException {
+    ecrire("resolu.jar", "contenu resolu modifie");
+    CacheScan tested = charger("configuration", jarScanne, jarResolu);
+
+    assertThat(tested.getResultats(new Jar(jarScanne), () -> null)).isNull();
+    assertThat(tested.getNbJarsScannes()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_invalidate_results_when_a_new_jar_may_shadow_a_resolved_jar() throws IOException {
+    String nouveauJar = ecrire("nouveau.jar", "contenu nouveau");
+
+    assertThat(charger("configuration", jarScanne, jarResolu, nouveauJar).getResultats(new Jar(jarScanne), () -> null)).isNotNull();
+    assertThat(charger("configuration", nouveauJar, jarScanne, jarResolu).getResultats(new Jar(jarScanne), () -> null)).isNull();
+  }
+
+  @Test
+  public void should_invalidate_results_when_a_jar_is_moved_before_a_resolved_jar() throws IOException {
+    String autreJar = ecrire("autre.jar", "contenu autre");
+    enregistrer(jarScanne, jarResolu, autreJar);
+
+    assertThat(charger("configuration", jarScanne, jarResolu, autreJar).getResultats(new Jar(jarScanne), () -> null)).isNotNull();
+    assertThat(charger("configuration", jarScanne, autreJar, jarResolu).getResultats(new Jar(jarScanne), () -> null)).isNull();
+  }
+
+  @Test
+  public void should_invalidate_results_when_a_new_jar_is_inserted_before_the_scanned_jar() throws IOException {
+    String nouveauJar = ecrire("nouveau.jar", "contenu nouveau");
+    enregistrer(jarResolu, jarScanne);
+
+    assertThat(charger("configuration", jarResolu, jarScanne).getResultats(new Jar(jarScanne), () -> null)).isNotNull();
+    assertThat(charger("configuration", jarResolu, nouveauJar, jarScanne).getResultats(new Jar(jarScanne), () -> null)).isNull();
+  }
+
+  @Test
+  public void should_invalidate_all_results_when_configuration_changes() {
+    assertThat(charger("autre configuration", jarScanne, jarResolu).getResultats(new Jar(jarScanne), () -> null)).isNull();
+  }
+
+  private CacheScan charger(String configuration, String... classpath) {
+    CacheScan cache = new CacheScan(fichierCache, configuration, classpath);
+    cache.charger();
+    return cache;
+  }
+
+  private String ecrire(String nom, String contenu) throws IOException {
+    return Files.write(repertoire.getRoot().toPath().resolve(nom), contenu.getBytes()).toString();
+  }
+}
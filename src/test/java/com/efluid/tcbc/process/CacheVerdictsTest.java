@@ -0,0 +1,67 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class CacheVerdictsTest {
+
+  private static final String CLE = CacheVerdicts.cle("com.efluid.Cible", "appeler", "(Ljava/lang/String;)V");
+
+  private final CacheVerdicts cache = new CacheVerdicts();
+
+  @Test
+  public void should_miss_a_reference_not_yet_checked() {
+    assertThat(cache.get(CLE)).isNull();
+    assertThat(cache.getEchecs()).isEqualTo(1);
+    assertThat(cache.getSucces()).isZero();
+  }
+
+  @Test
+  public void should_reuse_the_verdict_of_a_reference_already_checked() {
+    VerdictMethode verdict = verdictEnErreur();
+    cache.put(CLE, verdict);
+
+    assertThat(cache.get(CLE)).isSameAs(verdict);
+    assertThat(cache.get(CacheVerdicts.cle("com.efluid.Cible", "appeler", "()V"))).isNull();
+    assertThat(cache.getSucces()).isEqualTo(1);
+    assertThat(cache.getEchecs()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_share_a_single_verdict_between_valid_references() {
+    cache.put(CLE, new VerdictMethode("com.efluid.Cible", "appeler", "(Ljava/lang/String;)V"));
+
+    assertThat(cache.get(CLE)).isSameAs(VerdictMethode.VALIDE);
+  }
+
+  @Test
+  public void should_keep_the_first_verdict_of_a_reference() {
+    VerdictMethode premier = verdictEnErreur();
+    cache.put(CLE, premier);
+    cache.put(CLE, verdictEnErreur());
+
+    assertThat(cache.get(CLE)).isSameAs(premier);
+    assertThat(cache.getTaille()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_not_keep_a_temporary_verdict() {
+    VerdictMethode temporaire = verdictEnErreur();
+    temporaire.setTemporaire();
+    cache.put(CLE, temporaire);
+
+    assertThat(cache.get(CLE)).isNull();
+    assertThat(cache.getTaille()).isZero();
+
+    VerdictMethode definitif = verdictEnErreur();
+    cache.put(CLE, definitif);
+    assertThat(cache.get(CLE)).isSameAs(definitif);
+  }
+
+  private static VerdictMethode verdictEnErreur() {
+    VerdictMethode verdict = new VerdictMethode("com.efluid.Cible", "appeler", "(Ljava/lang/String;)V");
+    verdict.addClasseNonTrouvee("com.efluid.Cible", "com.efluid.Cible#appeler - java.lang.ClassNotFoundException: com.efluid.Cible");
+    return verdict;
+  }
+}
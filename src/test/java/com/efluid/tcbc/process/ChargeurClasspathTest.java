@@ -0,0 +1,154 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import com.efluid.tcbc.FixtureJars;
+
+public class ChargeurClasspathTest {
+
+  private static final String[] CLASSPATH = { System.getProperty("user.dir") + "/target/test-classes" };
+
+  @Test
+  public void should_load_classes_isolated_from_the_test_class_loader() throws ClassNotFoundException {
+    try (ChargeurClasspath tested = new ChargeurClasspath(CLASSPATH, 0, 0, 0); ChargeurClasspath.Chargeur chargeur = tested.acquerir()) {
+      Class<?> classe = chargeur.charger(ChargeurClasspathTest.class.getName());
+
+      assertThat(classe).isNotSameAs(ChargeurClasspathTest.class);
+      assertThat(classe.getClassLoader()).isNotSameAs(ChargeurClasspathTest.class.getClassLoader());
+      assertThat(chargeur.charger(String.class.getName())).isSameAs(String.class);
+    }
+  }
+
+  @Test
+  public void should_define_a_class_from_the_content_already_read() throws Exception {
+    ContenuFichier contenu = new ContenuFichier();
+    try (InputStream is = ChargeurClasspathTest.class.getResourceAsStream("ChargeurClasspathTest.class")) {
+      contenu.lire(is);
+    }
+
+    try (ChargeurClasspath tested = new ChargeurClasspath(new String[0], 0, 0, 0); ChargeurClasspath.Chargeur chargeur = tested.acquerir()) {
+      Class<?> classe = chargeur.definir(ChargeurClasspathTest.class.getName(), contenu);
+
+      assertThat(classe.getName()).isEqualTo(ChargeurClasspathTest.class.getName());
+      assertThat(classe).isNotSameAs(ChargeurClasspathTest.class);
+      assertThat(chargeur.charger(ChargeurClasspathTest.class.getName())).isSameAs(classe);
+    }
+  }
+
+  @Test
+  public void should_replace_the_class_loader_after_the_number_of_classes() {
+    try (ChargeurClasspath tested = new ChargeurClasspath(CLASSPATH, 0, 2, 0)) {
+      ChargeurClasspath.Chargeur premier = tested.acquerir();
+      ChargeurClasspath.Chargeur deuxieme = tested.acquerir();
+      ChargeurClasspath.Chargeur troisieme = tested.acquerir();
+      premier.close();
+      deuxieme.close();
+      troisieme.close();
+
+      assertThat(deuxieme).isSameAs(premier);
+      assertThat(troisieme).isNotSameAs(premier);
+      assertThat(tested.getNbChargeurs()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void should_verify_the_byte_code_of_loaded_and_defined_classes() throws Exception {
+    try (FixtureJars fixture = new FixtureJars().classeInvalide("fixture.Invalide")) {
+      String[] classpath = { fixture.jar("fixture.jar", "fixture.Invalide") };
+      ContenuFichier contenu = new ContenuFichier().lire(new ByteArrayInputStream(fixture.getByteCode("fixture.Invalide")));
+
+      try (ChargeurClasspath tested = new ChargeurClasspath(classpath, 0, 0, 0); ChargeurClasspath.Chargeur chargeur = tested.acquerir()) {
+        assertThatThrownBy(() -> chargeur.charger("fixture.Invalide")).isInstanceOf(VerifyError.class);
+      }
+      try (ChargeurClasspath tested = new ChargeurClasspath(new String[0], 0, 0, 0); ChargeurClasspath.Chargeur chargeur = tested.acquerir()) {
+        assertThatThrownBy(() -> chargeur.definir("fixture.Invalide", contenu)).isInstanceOf(VerifyError.class);
+      }
+    }
+  }
+
+  @Test
+  public void should_load_classes_without_running_their_static_initializer() throws Exception {
+    try (FixtureJars fixture = new FixtureJars().classeNonInitialisable("fixture.NonInitialisable");
+      ChargeurClasspath tested = new ChargeurClasspath(new String[] { fixture.jar("fixture.jar", "fixture.NonInitialisable") }, 0, 0, 0);
+      ChargeurClasspath.Chargeur chargeur = tested.acquerir()) {
+      Class<?> classe = chargeur.charger("fixture.NonInitialisable");
+
+      // Le bloc static n'a pas encore été exécuté : sa première exécution échoue maintenant
+      assertThatThrownBy(() -> Class.forName(classe.getName(), true, classe.getClassLoader())).isInstanceOf(ExceptionInInitializerError.class);
+    }
+  }
+
+  /**
+   * Le fichier de la classe est un tube nommé (systèmes Unix) : sa lecture reste bloquée tant que rien n'y est écrit
+   */
+  @Test
+  public void should_fail_the_class_until_the_end_of_a_load_exceeding_the_delay_and_replace_the_loader() throws Exception {
+    try (FixtureJars fixture = new FixtureJars()) {
+      Path repertoire = fixture.getRepertoire().resolve("classes");
+      Path fichier = repertoire.resolve("fixture/Bloquee.class");
+      Files.createDirectories(fichier.getParent());
+      assumeTrue(creerTube(fichier));
+
+      try (ChargeurClasspath tested = new ChargeurClasspath(new String[] { repertoire.toString() }, 0, 0, 50)) {
+        ChargeurClasspath.Chargeur bloque = tested.acquerir();
+        CompletableFuture<Throwable> chargement = CompletableFuture.supplyAsync(() -> {
+          try {
+            bloque.charger("fixture.Bloquee");
+            return null;
+          } catch (Throwable ex) {
+            return ex;
+          }
+        });
+
+        ChargeurClasspath.Chargeur suivant = attendreRemplacement(tested, bloque);
+        assertThat(suivant).isNotSameAs(bloque);
+        assertThatThrownBy(() -> suivant.charger("fixture.Bloquee")).isInstanceOf(ChargeurClasspath.ChargementAbandonneException.class).hasMessageContaining("délai");
+        suivant.close();
+
+        // Débloque la lecture : le fichier vide n'est pas une classe valide
+        CompletableFuture.runAsync(() -> {
+          try (OutputStream os = Files.newOutputStream(fichier)) {
+            os.flush();
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+        assertThat(chargement.get(10, TimeUnit.SECONDS)).isInstanceOf(ClassFormatError.class);
+        bloque.close();
+
+        // Le chargement bloqué est terminé : la classe est de nouveau chargée
+        Files.delete(fichier);
+        Files.createFile(fichier);
+        try (ChargeurClasspath.Chargeur chargeur = tested.acquerir()) {
+          assertThatThrownBy(() -> chargeur.charger("fixture.Bloquee")).isInstanceOf(ClassFormatError.class);
+        }
+      }
+    }
+  }
+
+  private static ChargeurClasspath.Chargeur attendreRemplacement(ChargeurClasspath tested, ChargeurClasspath.Chargeur bloque) throws InterruptedException {
+    long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    ChargeurClasspath.Chargeur chargeur = tested.acquerir();
+    while (chargeur == bloque && System.nanoTime() < limite) {
+      chargeur.close();
+      Thread.sleep(10);
+      chargeur = tested.acquerir();
+    }
+    return chargeur;
+  }
+
+  private static boolean creerTube(Path fichier) throws InterruptedException {
+    try {
+      return new ProcessBuilder("mkfifo", fichier.toString()).start().waitFor() == 0;
+    } catch (IOException ex) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import javassist.*;
+
+public class ClassPoolBorneTest {
+
+  @Test
+  public void should_evict_least_recently_used_classes_when_capacity_is_reached() throws NotFoundException {
+    ClassPoolBorne tested = new ClassPoolBorne(2);
+
+    CtClass string = tested.get(String.class.getName());
+    tested.get(Integer.class.getName());
+    tested.get(String.class.getName());
+    tested.get(Long.class.getName());
+
+    assertThat(tested.getTailleCache()).isEqualTo(2);
+    assertThat(tested.get(String.class.getName())).isSameAs(string);
+    assertThat(tested.get(CtClass.intType.getName())).isSameAs(CtClass.intType);
+  }
+
+  @Test
+  public void should_remove_detached_class() throws NotFoundException {
+    ClassPoolBorne tested = new ClassPoolBorne(10);
+
+    tested.get(String.class.getName()).detach();
+
+    assertThat(tested.getTailleCache()).isZero();
+  }
+}
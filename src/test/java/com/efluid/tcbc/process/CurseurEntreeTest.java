@@ -0,0 +1,36 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class CurseurEntreeTest {
+
+  private static final Set<String> EXTENSIONS = new HashSet<>(Arrays.asList("class", "properties"));
+
+  @Test
+  public void should_name_scanned_entries_and_reuse_the_scanned_extension() {
+    CurseurEntree tested = new CurseurEntree();
+
+    assertThat(tested.positionner("org/junit/Ignore.class", EXTENSIONS)).isTrue();
+    assertThat(tested.getNom()).isEqualTo("org.junit.Ignore");
+    assertThat(tested.getExtension()).isSameAs(EXTENSIONS.stream().filter("class"::equals).findFirst().get());
+
+    assertThat(tested.positionner("META-INF/maven/commons-cli/commons-cli/pom.properties", EXTENSIONS)).isTrue();
+    assertThat(tested.getNom()).isEqualTo("META-INF.maven.commons-cli.commons-cli.pom");
+    assertThat(tested.getExtension()).isEqualTo("properties");
+  }
+
+  @Test
+  public void should_skip_entries_whose_extension_is_not_scanned() {
+    CurseurEntree tested = new CurseurEntree();
+
+    assertThat(tested.positionner("META-INF/MANIFEST.MF", EXTENSIONS)).isFalse();
+    assertThat(tested.positionner("org/junit/", EXTENSIONS)).isFalse();
+    // Extension après le premier point du chemin
+    assertThat(tested.positionner("org/junit/Classe.1.class", EXTENSIONS)).isFalse();
+    assertThat(tested.positionner("META-INF/versions.9/Classe.class", EXTENSIONS)).isFalse();
+  }
+}
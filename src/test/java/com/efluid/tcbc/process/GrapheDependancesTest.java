@@ -0,0 +1,76 @@
+package com.efluid.tcbc.process;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.Yaml;
+
+import com.efluid.tcbc.utils.*;
+
+public class GrapheDependancesTest {
+
+  @Rule
+  public TemporaryFolder repertoire = new TemporaryFolder();
+
+  private final IndexNoms noeuds = new IndexNoms();
+  private final CompteursArcs arcs = new CompteursArcs();
+
+  private void ajouter(String source, String cible, long nombre) {
+    arcs.ajouter(noeuds.getIndex(source), noeuds.getIndex(cible), nombre);
+  }
+
+  @Test
+  public void should_remove_arcs_deduced_from_another_path_and_keep_cycles() {
+    ajouter("application", "service", 3);
+    ajouter("service", "commun", 2);
+    ajouter("application", "commun", 5);
+    ajouter("api", "impl", 1);
+    ajouter("impl", "api", 1);
+    ajouter("application", "api", 1);
+    ajouter("application", "impl", 1);
+
+    GrapheDependances tested = new GrapheDependances(noeuds, arcs).reduireTransitivement();
+
+    assertThat(tested.getDependances("application")).containsOnlyKeys("service", "api", "impl");
+    assertThat(tested.getDependances("service")).containsOnlyKeys("commun");
+    assertThat(tested.getDependances("api")).containsOnlyKeys("impl");
+    assertThat(tested.getDependances("impl")).containsOnlyKeys("api");
+  }
+
+  @Test
+  public void should_merge_nodes_of_the_same_group() {
+    for (int i = 0; i < 100; i++) {
+      ajouter("org.slf4j:slf4j-simple-" + i, "org.slf4j:slf4j-api", 1);
+      ajouter("org.slf4j:slf4j-simple-" + i, "junit:junit", 2);
+    }
+
+    GrapheDependances tested = new GrapheDependances(noeuds, arcs).agreger(noeud -> noeud.substring(0, noeud.indexOf(':')));
+
+    assertThat(tested.getDependances("org.slf4j")).containsExactly(Assertions.entry("junit", 200L));
+    assertThat(tested.getNombresReferences()).containsOnlyKeys("junit");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void should_stream_adjacency_lists_grouped_by_source() throws IOException {
+    ajouter("classes", "slf4j-api.jar", 23);
+    ajouter("classes", "javassist.jar", 20);
+    ajouter("slf4j-simple.jar", "slf4j-api.jar", 7);
+    Path fichier = repertoire.getRoot().toPath().resolve("graphe.json");
+
+    try (ExportGraphe export = ExportGraphe.ouvrir(fichier)) {
+      new GrapheDependances(noeuds, arcs).ecrire(export);
+    }
+
+    Map<String, Map<String, Integer>> adjacences = new Yaml().load(new String(Files.readAllBytes(fichier), UTF_8));
+    assertThat(adjacences).containsOnlyKeys("classes", "slf4j-simple.jar");
+    assertThat(adjacences.get("classes")).containsExactly(Assertions.entry("slf4j-api.jar", 23), Assertions.entry("javassist.jar", 20));
+  }
+}
@@ -0,0 +1,65 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.*;
+
+import org.junit.*;
+
+import com.efluid.tcbc.FixtureJars;
+
+public class LecteurClasspathTest {
+
+  private static final Set<String> CLASSES = Collections.singleton("class");
+
+  private FixtureJars fixture;
+  private RessourcesClasspath ressources;
+  private String jar;
+
+  @Before
+  public void creerFixture() throws Exception {
+    fixture = new FixtureJars().classe("fixture.Premiere").classe("fixture.Seconde");
+    jar = fixture.jar("fixture.jar", "fixture.Premiere", "fixture.Seconde");
+  }
+
+  @After
+  public void supprimerFixture() throws Exception {
+    System.clearProperty("lecteurJar");
+    if (ressources != null) {
+      ressources.close();
+    }
+    fixture.close();
+  }
+
+  @Test
+  public void should_give_the_same_files_whether_the_jar_is_mapped_or_not() {
+    List<String> lus = lire();
+    System.setProperty("lecteurJar", "mappe");
+
+    assertThat(lire()).containsExactlyElementsOf(lus).containsExactly("fixture.Premiere.class", "fixture.Seconde.class");
+  }
+
+  @Test
+  public void should_read_again_only_the_requested_files_of_the_jar() throws Exception {
+    List<String> relus = new ArrayList<>();
+
+    creer().relireJar(jar, CLASSES, Collections.singleton("fixture.Seconde.class"), (nomEtExtension, contenu) -> relus.add(nomEtExtension));
+
+    assertThat(relus).containsExactly("fixture.Seconde.class");
+  }
+
+  private List<String> lire() {
+    List<String> lus = new ArrayList<>();
+    creer().lire(jar, CLASSES, (nom, extension, source) -> lus.add(nom + "." + extension));
+    return lus;
+  }
+
+  private LecteurClasspath creer() {
+    if (ressources != null) {
+      ressources.close();
+    }
+    OptionsScan options = new OptionsScan();
+    ressources = new RessourcesClasspath(options);
+    return new LecteurClasspath(options, ressources);
+  }
+}
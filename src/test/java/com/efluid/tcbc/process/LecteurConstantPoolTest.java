@@ -0,0 +1,78 @@
+package com.efluid.tcbc.process;
+
+import static javassist.bytecode.ConstPool.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Test;
+
+import javassist.bytecode.*;
+
+public class LecteurConstantPoolTest {
+
+  @Test
+  public void should_read_the_same_references_as_javassist() throws IOException {
+    LecteurConstantPool tested = new LecteurConstantPool();
+    for (Class<?> classe : Arrays.asList(ScanneClasspath.class, ReadByteCodeClass.class, LecteurConstantPool.class, String.class)) {
+      byte[] byteCode = lire(classe);
+      List<String> references = new ArrayList<>();
+      tested.lire(byteCode, byteCode.length, new LecteurConstantPool.Visiteur() {
+
+        @Override
+        public void methode(String classe, String nom, String descripteur, boolean methodeInterface) {
+          references.add(classe + "#" + nom + descripteur);
+        }
+
+        @Override
+        public void invokeDynamic(String descripteur) {
+          references.add(descripteur);
+        }
+      });
+
+      assertThat(references).isNotEmpty().isEqualTo(lireAvecJavassist(byteCode));
+    }
+  }
+
+  @Test
+  public void should_reject_a_file_which_is_not_a_class() {
+    byte[] byteCode = "not a class file".getBytes();
+
+    assertThatThrownBy(() -> new LecteurConstantPool().lire(byteCode, byteCode.length, null)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static List<String> lireAvecJavassist(byte[] byteCode) throws IOException {
+    ConstPool constantPool = new ClassFile(new DataInputStream(new ByteArrayInputStream(byteCode))).getConstPool();
+    List<String> references = new ArrayList<>();
+    for (int index = 1; index < constantPool.getSize(); index++) {
+      switch (constantPool.getTag(index)) {
+        case CONST_Methodref:
+          references.add(constantPool.getMethodrefClassName(index) + "#" + constantPool.getMethodrefName(index) + constantPool.getMethodrefType(index));
+          break;
+        case CONST_InterfaceMethodref:
+          references.add(constantPool.getInterfaceMethodrefClassName(index) + "#" + constantPool.getInterfaceMethodrefName(index) + constantPool.getInterfaceMethodrefType(index));
+          break;
+        case CONST_InvokeDynamic:
+          references.add(constantPool.getInvokeDynamicType(index));
+          break;
+        default:
+          break;
+      }
+    }
+    return references;
+  }
+
+  private static byte[] lire(Class<?> classe) throws IOException {
+    try (InputStream is = classe.getResourceAsStream(classe.getSimpleName() + ".class")) {
+      ByteArrayOutputStream octets = new ByteArrayOutputStream();
+      byte[] tampon = new byte[8192];
+      int lus;
+      while ((lus = is.read(tampon)) != -1) {
+        octets.write(tampon, 0, lus);
+      }
+      return octets.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.efluid.tcbc.process;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.jar.*;
+import java.util.zip.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class LecteurJarsMappesTest {
+
+  @Rule
+  public TemporaryFolder repertoire = new TemporaryFolder();
+
+  @Test
+  public void should_read_stored_and_deflated_entries_in_jar_order() throws IOException {
+    Path chemin = repertoire.getRoot().toPath().resolve("dependance.jar");
+    try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(chemin))) {
+      for (int i = 0; i < 50; i++) {
+        ecrire(jar, "com/efluid/Classe" + i + ".class", "contenu " + i, i % 2 == 0);
+      }
+      ecrire(jar, "com/efluid/ressource.txt", "texte", false);
+    }
+    Map<String, String> lues = new LinkedHashMap<>();
+    List<Boolean> sansCopie = new ArrayList<>();
+
+    try (LecteurJarsMappes tested = new LecteurJarsMappes(2, 8)) {
+      tested.parcourir(JarMappe.ouvrir(chemin.toString()), nom -> nom.endsWith(".class"), nom -> true, (nom, source) -> {
+        try {
+          ContenuFichier contenu = source.lire(new ContenuFichier());
+          byte[] octets = new byte[contenu.getLongueur()];
+          contenu.getOctets().get(octets);
+          lues.put(nom, new String(octets, UTF_8));
+          sansCopie.add(contenu.getOctets().isDirect());
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+    }
+
+    assertThat(lues).hasSize(50).containsEntry("com/efluid/Classe0.class", "contenu 0").containsEntry("com/efluid/Classe49.class", "contenu 49");
+    assertThat(lues.keySet()).first().isEqualTo("com/efluid/Classe0.class");
+    // Les entrées non compressées sont des tranches du jar mappé
+    assertThat(sansCopie.get(0)).isTrue();
+    assertThat(sansCopie.get(1)).isFalse();
+  }
+
+  @Test
+  public void should_read_the_entries_selected_for_the_target_java_version() throws IOException {
+    Manifest manifeste = new Manifest();
+    manifeste.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifeste.getMainAttributes().putValue("Multi-Release", "true");
+    Path chemin = repertoire.getRoot().toPath().resolve("multi-release.jar");
+    try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(chemin), manifeste)) {
+      ecrire(jar, "com/efluid/A.class", "base", false);
+      ecrire(jar, "META-INF/versions/9/com/efluid/A.class", "java 9", true);
+      ecrire(jar, "META-INF/versions/17/com/efluid/A.class", "java 17", false);
+      ecrire(jar, "META-INF/versions/11/com/efluid/B.class", "java 11", false);
+    }
+
+    assertThat(lire(chemin, 8)).containsOnly(entry("com/efluid/A.class", "base"));
+    assertThat(lire(chemin, 11)).containsOnly(entry("com/efluid/A.class", "java 9"), entry("com/efluid/B.class", "java 11"));
+    assertThat(lire(chemin, 17)).containsOnly(entry("com/efluid/A.class", "java 17"), entry("com/efluid/B.class", "java 11"));
+  }
+
+  @Test
+  public void should_scan_with_jar_file_a_jar_which_cannot_be_mapped() throws IOException {
+    // Octets ajoutés avant le jar : les positions du répertoire central ne sont plus valides pour le mapping, JarFile les corrige
+    Path chemin = repertoire.newFolder("tcbc-fixture").toPath().resolve("prefixe.jar");
+    try (OutputStream sortie = Files.newOutputStream(chemin)) {
+      sortie.write(new byte[64]);
+      try (JarOutputStream jar = new JarOutputStream(sortie)) {
+        ecrire(jar, "com/efluid/Classe.class", "contenu", false);
+      }
+    }
+    assertThatThrownBy(() -> JarMappe.ouvrir(chemin.toString())).isInstanceOf(IOException.class);
+    System.setProperty("classpath", chemin.toString());
+    System.setProperty("lecteurJar", "mappe");
+    try {
+      ScanFichiers scan = new ScanFichiers();
+      scan.init();
+      scan.execute();
+
+      assertThat(scan.noms).containsExactly("com.efluid.Classe");
+    } finally {
+      System.clearProperty("classpath");
+      System.clearProperty("lecteurJar");
+    }
+  }
+
+  /**
+   * @return le contenu des classes du jar lues pour la version de Java cible, par nom logique
+   */
+  private static Map<String, String> lire(Path chemin, int versionJava) throws IOException {
+    Map<String, String> lues = new HashMap<>();
+    try (LecteurJarsMappes tested = new LecteurJarsMappes(2, versionJava)) {
+      tested.parcourir(JarMappe.ouvrir(chemin.toString()), nom -> nom.endsWith(".class"), nom -> true, (nom, source) -> {
+        try (InputStream contenu = source.ouvrir()) {
+          ByteArrayOutputStream octets = new ByteArrayOutputStream();
+          int lu;
+          while ((lu = contenu.read()) != -1) {
+            octets.write(lu);
+          }
+          lues.put(nom, new String(octets.toByteArray(), UTF_8));
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+    }
+    return lues;
+  }
+
+  private static void ecrire(JarOutputStream jar, String nom, String contenu, boolean stockee) throws IOException {
+    byte[] octets = contenu.getBytes(UTF_8);
+    JarEntry entree = new JarEntry(nom);
+    if (stockee) {
+      CRC32 crc = new CRC32();
+      crc.update(octets);
+      entree.setMethod(ZipEntry.STORED);
+      entree.setSize(octets.length);
+      entree.setCrc(crc.getValue());
+    }
+    jar.putNextEntry(entree);
+    jar.write(octets);
+    jar.closeEntry();
+  }
+
+  /**
+   * Scan des jars de test, conservant le nom des fichiers trouvés
+   */
+  private static class ScanFichiers extends ScanneClasspath {
+
+    private final List<String> noms = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    protected String getFichierConfiguration() {
+      return "controleByteCodeFixture.yaml";
+    }
+
+    @Override
+    protected void traitementFichierEnCours() {
+      noms.add(getFichierEnCours().getNom());
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.efluid.tcbc.process;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class LectureFichierEnCoursTest {
+
+  private final LectureFichierEnCours tested = new LectureFichierEnCours();
+  private final AtomicInteger lectures = new AtomicInteger();
+
+  @Test
+  public void should_read_the_current_file_once_until_its_processing_ends() throws Exception {
+    assertThat(tested.getLecturePartagee(String.class, this::lire)).isEqualTo("lecture 1");
+    assertThat(tested.getLecturePartagee(String.class, this::lire)).isEqualTo("lecture 1");
+
+    tested.fin();
+
+    assertThat(tested.getLecturePartagee(String.class, this::lire)).isEqualTo("lecture 2");
+  }
+
+  @Test
+  public void should_read_again_when_the_shared_result_has_another_type() throws Exception {
+    tested.getLecturePartagee(Integer.class, () -> 0);
+
+    assertThat(tested.getLecturePartagee(String.class, this::lire)).isEqualTo("lecture 1");
+  }
+
+  @Test
+  public void should_read_the_content_of_the_current_file_once_from_its_source() throws Exception {
+    tested.debut(() -> {
+      lectures.incrementAndGet();
+      return new ByteArrayInputStream("contenu".getBytes(UTF_8));
+    });
+
+    ContenuFichier contenu = tested.getContenu("Classe.class", new MesuresScan(0));
+
+    assertThat(tested.getContenu("Classe.class", new MesuresScan(0))).isSameAs(contenu);
+    assertThat(contenu.getLongueur()).isEqualTo("contenu".length());
+    assertThat(lectures).hasValue(1);
+  }
+
+  @Test
+  public void should_report_the_current_file_as_missing_once_its_processing_ends() {
+    tested.debut(() -> new ByteArrayInputStream(new byte[0]));
+    tested.fin();
+
+    assertThatThrownBy(() -> tested.ouvrir("Classe.class")).isInstanceOf(FileNotFoundException.class).hasMessage("Classe.class");
+  }
+
+  private String lire() {
+    return "lecture " + lectures.incrementAndGet();
+  }
+}
@@ -0,0 +1,64 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.efluid.tcbc.process.MesuresScan.Phase.*;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import com.efluid.tcbc.object.*;
+
+public class MesuresScanTest {
+
+  @Rule
+  public TemporaryFolder repertoire = new TemporaryFolder();
+
+  @Test
+  public void should_not_count_nested_phase_time_in_enclosing_phase() throws InterruptedException {
+    MesuresScan tested = new MesuresScan(10);
+
+    long marqueFichier = tested.debut();
+    long marqueResolution = tested.debut();
+    TimeUnit.MILLISECONDS.sleep(20);
+    long resolution = tested.fin(RESOLUTION_METHODE, marqueResolution);
+    long fichier = tested.fin(TRAITEMENT_FICHIER, marqueFichier);
+
+    assertThat(resolution).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+    assertThat(fichier).isLessThan(TimeUnit.MILLISECONDS.toNanos(20));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void should_keep_only_the_slowest_files() {
+    MesuresScan tested = new MesuresScan(2);
+    Jar jar = new Jar("dependance.jar");
+
+    for (int duree = 1; duree <= 5; duree++) {
+      tested.ajouterFichier(new Fichier(jar, "Classe" + duree, "class"), TimeUnit.MILLISECONDS.toNanos(duree));
+    }
+    tested.finJar(jar, TimeUnit.MILLISECONDS.toNanos(15));
+
+    Map<String, Object> synthese = tested.getSynthese();
+    assertThat(synthese).containsEntry("nbJars", 1).containsEntry("nbFichiers", 5L);
+    assertThat((List<Map<String, Object>>) synthese.get("fichiersLesPlusLents")).extracting(fichier -> fichier.get("fichier"))
+      .containsExactly("Classe5.class", "Classe4.class");
+  }
+
+  @Test
+  public void should_merge_the_measures_of_the_scan_thread_and_write_them_when_the_scan_ends() {
+    MesuresScan tested = new MesuresScan(10);
+    Path fichier = repertoire.getRoot().toPath().resolve("mesures/scan.yaml");
+
+    tested.debutScan();
+    tested.fin(BILAN, tested.debut());
+    tested.terminerScan(fichier);
+
+    assertThat(tested.getNombre(BILAN)).isEqualTo(1);
+    assertThat(fichier).exists();
+  }
+}
@@ -0,0 +1,63 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.*;
+
+import com.efluid.tcbc.FixtureJars;
+import com.efluid.tcbc.utils.ScanneClasspathUtils;
+
+public class OriginesClassesTest {
+
+  private FixtureJars fixture;
+  private IndexClasspath index;
+
+  @Before
+  public void creerFixture() throws Exception {
+    fixture = new FixtureJars().classe("fixture.Indexee").classe(Test.class.getName());
+  }
+
+  @After
+  public void supprimerFixture() throws Exception {
+    if (index != null) {
+      index.close();
+    }
+    fixture.close();
+  }
+
+  @Test
+  public void should_resolve_a_class_of_the_scanned_classpath_through_the_index() throws Exception {
+    String jar = fixture.jar("fixture.jar", "fixture.Indexee");
+    index = new IndexClasspath(jar);
+
+    assertThat(new OriginesClasses(index).getOrigine("fixture.Indexee")).isEqualTo(jar);
+  }
+
+  @Test
+  public void should_prefer_the_scanned_classpath_to_the_class_loaded_by_the_jvm() throws Exception {
+    String jar = fixture.jar("junit.jar", Test.class.getName());
+    index = new IndexClasspath(jar);
+
+    assertThat(new OriginesClasses(index).getOrigine(Test.class.getName())).isEqualTo(jar);
+  }
+
+  @Test
+  public void should_resolve_a_class_outside_the_scanned_classpath_through_its_code_source() {
+    index = new IndexClasspath();
+    OriginesClasses origines = new OriginesClasses(index);
+
+    String origine = origines.getOrigine(Test.class.getName());
+
+    assertThat(origine).isEqualTo(ScanneClasspathUtils.getCheminDeLaClasse(Test.class));
+    assertThat(origines.getOrigine(Assert.class.getName())).isEqualTo(origine);
+  }
+
+  @Test
+  public void should_return_no_origin_for_a_bootstrap_or_missing_class() {
+    index = new IndexClasspath();
+    OriginesClasses origines = new OriginesClasses(index);
+
+    assertThat(origines.getOrigine(String.class.getName())).isNull();
+    assertThat(origines.getOrigine("fixture.Absente")).isNull();
+  }
+}
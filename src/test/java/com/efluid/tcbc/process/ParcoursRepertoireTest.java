@@ -0,0 +1,107 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.Assume.assumeNoException;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class ParcoursRepertoireTest {
+
+  @Rule
+  public TemporaryFolder repertoire = new TemporaryFolder();
+
+  @Test
+  public void should_name_accepted_files_from_their_relative_path() throws IOException {
+    Set<String> attendus = new HashSet<>();
+    for (int paquet = 0; paquet < 20; paquet++) {
+      Path dossier = Files.createDirectories(repertoire.getRoot().toPath().resolve("com/efluid/paquet" + paquet));
+      for (int classe = 0; classe < 100; classe++) {
+        Files.createFile(dossier.resolve("Classe" + classe + ".class"));
+        attendus.add("com.efluid.paquet" + paquet + ".Classe" + classe + "|class");
+      }
+      Files.createFile(dossier.resolve("Classe$Interne.txt"));
+    }
+    Files.createFile(repertoire.getRoot().toPath().resolve("config.properties"));
+    attendus.add("config|properties");
+    List<String> trouves = new ArrayList<>();
+
+    new ParcoursRepertoire(4).parcourir(repertoire.getRoot().toPath(), extension -> !"txt".equals(extension),
+      (nom, extension, fichier) -> trouves.add(nom + "|" + extension));
+
+    // Plus de fichiers que la file d'attente n'en contient : les threads de parcours suspendus ont repris
+    assertThat(trouves.size()).isEqualTo(2001).isGreaterThan(ParcoursRepertoire.CAPACITE);
+    assertThat(trouves).containsOnlyElementsOf(attendus).doesNotHaveDuplicates();
+  }
+
+  @Test
+  public void should_process_files_before_the_walk_completes() throws IOException {
+    Path racine = repertoire.getRoot().toPath();
+    Files.createFile(racine.resolve("Premier.class"));
+    Files.createFile(Files.createDirectory(racine.resolve("suite")).resolve("Bloquant.bloque"));
+    CountDownLatch premierTraite = new CountDownLatch(1);
+    AtomicBoolean debloque = new AtomicBoolean();
+    List<String> trouves = new ArrayList<>();
+
+    // Le parcours de "suite" ne se termine qu'une fois le premier fichier traité
+    new ParcoursRepertoire(2).parcourir(racine, extension -> {
+      if ("bloque".equals(extension)) {
+        debloque.set(attendre(premierTraite));
+      }
+      return true;
+    }, (nom, extension, fichier) -> {
+      trouves.add(nom);
+      premierTraite.countDown();
+    });
+
+    assertThat(debloque).isTrue();
+    assertThat(trouves).containsExactly("Premier", "suite.Bloquant");
+  }
+
+  @Test(timeout = 10_000)
+  public void should_not_follow_symbolic_links() throws IOException {
+    Path racine = repertoire.getRoot().toPath();
+    Path paquet = Files.createDirectories(racine.resolve("com/efluid"));
+    Path classe = Files.createFile(paquet.resolve("Classe.class"));
+    try {
+      Files.createSymbolicLink(paquet.resolve("boucle"), racine);
+      Files.createSymbolicLink(paquet.resolve("Lien.class"), classe);
+    } catch (UnsupportedOperationException | IOException ex) {
+      assumeNoException(ex);
+    }
+    List<String> trouves = new ArrayList<>();
+
+    new ParcoursRepertoire(2).parcourir(racine, extension -> true, (nom, extension, fichier) -> trouves.add(nom));
+
+    assertThat(trouves).containsOnly("com.efluid.Classe", "com.efluid.Lien");
+  }
+
+  private static boolean attendre(CountDownLatch latch) {
+    try {
+      return latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  @Test
+  public void should_stop_walking_when_processing_fails() {
+    assertThatThrownBy(() -> new ParcoursRepertoire(2).parcourir(Paths.get("src"), extension -> true, (nom, extension, fichier) -> {
+      throw new IOException("échec");
+    })).hasMessage("échec");
+  }
+
+  @Test
+  public void should_find_nothing_in_missing_directory() throws IOException {
+    List<Path> trouves = new ArrayList<>();
+    new ParcoursRepertoire(2).parcourir(Paths.get("Path/that/does/not/exist"), extension -> true, (nom, extension, fichier) -> trouves.add(fichier));
+    assertThat(trouves).isEmpty();
+  }
+}
@@ -0,0 +1,59 @@
+package com.efluid.tcbc.process;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.Yaml;
+
+import com.efluid.tcbc.object.*;
+
+public class RapportErreursTest {
+
+  @Rule
+  public TemporaryFolder repertoire = new TemporaryFolder();
+
+  private final Jar jar = new Jar("/chemin/dependance.jar");
+  private final Fichier fichier = new Fichier(jar, "com.efluid.Appelante", "class");
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void should_write_one_json_object_per_error() throws IOException {
+    Path rapport = repertoire.getRoot().toPath().resolve("erreurs.jsonl");
+
+    try (RapportErreurs tested = RapportErreurs.ouvrir(rapport)) {
+      tested.ecrire(fichier, new Erreur(TypeErreur.METHODE_NON_TROUVEE, "com.efluid.Appelee", "traiter", "(Ljava/lang/String;)V", "Methode \"traiter\"\n"));
+      tested.ecrire(fichier, new Erreur(TypeErreur.LECTURE_BYTE_CODE, null, null, null, "Lecture"));
+    }
+
+    List<String> lignes = Files.readAllLines(rapport, UTF_8);
+    assertThat(lignes).hasSize(2);
+    Map<String, Object> erreur = new Yaml().load(lignes.get(0));
+    assertThat(erreur).containsEntry("type", "METHODE_NON_TROUVEE").containsEntry("jar", "/chemin/dependance.jar").containsEntry("classe", "com.efluid.Appelante")
+      .containsEntry("methode", "traiter").containsEntry("libelle", "Methode \"traiter\"\n");
+    assertThat((Map<String, Object>) new Yaml().load(lignes.get(1))).doesNotContainKey("classeReferencee");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void should_write_a_sarif_result_per_error() throws IOException {
+    Path rapport = repertoire.getRoot().toPath().resolve("erreurs.sarif");
+
+    try (RapportErreurs tested = RapportErreurs.ouvrir(rapport)) {
+      tested.ecrire(fichier, new Erreur(TypeErreur.TYPE_RETOUR_DIFFERENT, "com.efluid.Appelee", "traiter", "()V", "Type de retour"));
+      tested.ecrire(fichier, new Erreur(TypeErreur.LECTURE_BYTE_CODE, null, null, null, "Lecture"));
+    }
+
+    Map<String, Object> sarif = new Yaml().load(new String(Files.readAllBytes(rapport), UTF_8));
+    Map<String, Object> run = ((List<Map<String, Object>>) sarif.get("runs")).get(0);
+    List<Map<String, Object>> resultats = (List<Map<String, Object>>) run.get("results");
+    assertThat(sarif).containsEntry("version", "2.1.0");
+    assertThat(resultats).extracting(resultat -> resultat.get("ruleId")).containsExactly("TYPE_RETOUR_DIFFERENT", "LECTURE_BYTE_CODE");
+    assertThat((Map<String, Object>) resultats.get(0).get("properties")).containsEntry("classeReferencee", "com.efluid.Appelee").containsEntry("descripteur", "()V");
+  }
+}
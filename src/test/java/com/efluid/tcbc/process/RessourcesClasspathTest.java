@@ -0,0 +1,50 @@
+package com.efluid.tcbc.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.*;
+
+import com.efluid.tcbc.FixtureJars;
+
+public class RessourcesClasspathTest {
+
+  private FixtureJars fixture;
+  private final RessourcesClasspath tested = new RessourcesClasspath(new OptionsScan());
+
+  @Before
+  public void creerFixture() throws Exception {
+    fixture = new FixtureJars().classe("fixture.Indexee");
+    tested.setChemins(fixture.jar("fixture.jar", "fixture.Indexee"));
+  }
+
+  @After
+  public void supprimerFixture() throws Exception {
+    tested.close();
+    fixture.close();
+  }
+
+  @Test
+  public void should_share_the_index_until_the_resources_are_closed() {
+    IndexClasspath index = tested.getIndex();
+
+    assertThat(tested.getIndex()).isSameAs(index);
+    assertThat(tested.getOriginesClasses()).isSameAs(tested.getOriginesClasses());
+
+    tested.close();
+
+    assertThat(tested.getIndex()).isNotSameAs(index);
+  }
+
+  @Test
+  public void should_give_the_runtime_origin_only_once_the_origins_are_prepared() {
+    assertThat(tested.getOrigineRuntime("fixture.Indexee")).isNull();
+
+    tested.preparerOrigines();
+
+    assertThat(tested.getOrigineRuntime("fixture.Indexee")).endsWith("fixture.jar");
+
+    tested.close();
+
+    assertThat(tested.getOrigineRuntime("fixture.Indexee")).isNull();
+  }
+}
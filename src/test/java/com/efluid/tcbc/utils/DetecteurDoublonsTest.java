@@ -0,0 +1,55 @@
+package com.efluid.tcbc.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.*;
+
+import org.junit.Test;
+
+public class DetecteurDoublonsTest {
+
+  @Test
+  public void should_find_duplicates_across_sorted_runs_and_memory() throws IOException {
+    Map<String, List<Integer>> doublons = new LinkedHashMap<>();
+    try (DetecteurDoublons tested = new DetecteurDoublons(3)) {
+      tested.ajouter("b.class", 0);
+      tested.ajouter("a.class", 0);
+      tested.ajouter("c.class", 0);
+      tested.ajouter("a.class", 1);
+      tested.ajouter("d.class", 1);
+      tested.ajouter("b.class", 2);
+      tested.ajouter("a.class", 2);
+      tested.ajouter("e.class", 2);
+
+      assertThat(tested.getNombreSequences()).isEqualTo(2);
+      assertThat(tested.getNombre()).isEqualTo(8);
+      tested.parcourirDoublons((nom, elements) -> doublons.put(nom, new ArrayList<>(elements)));
+    }
+
+    assertThat(doublons).containsOnlyKeys("a.class", "b.class");
+    assertThat(doublons.get("a.class")).containsExactly(0, 1, 2);
+    assertThat(doublons.get("b.class")).containsExactly(0, 2);
+  }
+
+  @Test
+  public void should_report_same_duplicates_with_or_without_runs() throws IOException {
+    Random random = new Random(42);
+    List<String> noms = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      noms.add("classe" + random.nextInt(1500) + ".class");
+    }
+    assertThat(doublons(noms, 50)).isEqualTo(doublons(noms, Integer.MAX_VALUE)).isNotEmpty();
+  }
+
+  private static Map<String, List<Integer>> doublons(List<String> noms, int seuil) throws IOException {
+    Map<String, List<Integer>> doublons = new TreeMap<>();
+    try (DetecteurDoublons tested = new DetecteurDoublons(seuil)) {
+      for (int i = 0; i < noms.size(); i++) {
+        tested.ajouter(noms.get(i), i % 7);
+      }
+      tested.parcourirDoublons((nom, elements) -> doublons.put(nom, new ArrayList<>(elements)));
+    }
+    return doublons;
+  }
+}
@@ -0,0 +1,63 @@
+package com.efluid.tcbc.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.jar.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class EntreesJarTest {
+
+  @Rule
+  public TemporaryFolder repertoire = new TemporaryFolder();
+
+  @Test
+  public void should_select_the_most_recent_version_compatible_with_the_target() throws IOException {
+    Path chemin = creerJar(true, "com/efluid/A.class", "META-INF/versions/9/com/efluid/A.class", "META-INF/versions/17/com/efluid/A.class",
+      "META-INF/versions/11/com/efluid/B.class", "META-INF/versions/9/module-info.class");
+
+    try (JarFile jar = new JarFile(chemin.toFile())) {
+      assertThat(EntreesJar.selectionner(jar, 8)).containsOnlyKeys("META-INF/MANIFEST.MF", "com/efluid/A.class");
+      Map<String, JarEntry> java11 = EntreesJar.selectionner(jar, 11);
+      assertThat(java11).containsOnlyKeys("META-INF/MANIFEST.MF", "com/efluid/A.class", "com/efluid/B.class", "module-info.class");
+      assertThat(java11.get("com/efluid/A.class").getName()).isEqualTo("META-INF/versions/9/com/efluid/A.class");
+      assertThat(EntreesJar.selectionner(jar, 17).get("com/efluid/A.class").getName()).isEqualTo("META-INF/versions/17/com/efluid/A.class");
+    }
+  }
+
+  @Test
+  public void should_ignore_versioned_entries_of_a_jar_which_is_not_multi_release() throws IOException {
+    Path chemin = creerJar(false, "com/efluid/A.class", "META-INF/versions/9/com/efluid/A.class");
+
+    try (JarFile jar = new JarFile(chemin.toFile())) {
+      assertThat(EntreesJar.selectionner(jar, 17).get("com/efluid/A.class").getName()).isEqualTo("com/efluid/A.class");
+    }
+  }
+
+  @Test
+  public void should_consider_module_and_package_descriptors_as_metadata() {
+    assertThat(EntreesJar.isMetadonnee("module-info")).isTrue();
+    assertThat(EntreesJar.isMetadonnee("com.efluid.package-info")).isTrue();
+    assertThat(EntreesJar.isMetadonnee("com.efluid.Classe")).isFalse();
+  }
+
+  private Path creerJar(boolean multiRelease, String... entrees) throws IOException {
+    Manifest manifeste = new Manifest();
+    manifeste.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    if (multiRelease) {
+      manifeste.getMainAttributes().putValue("Multi-Release", "true");
+    }
+    Path chemin = repertoire.getRoot().toPath().resolve("dependance.jar");
+    try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(chemin), manifeste)) {
+      for (String entree : entrees) {
+        jar.putNextEntry(new JarEntry(entree));
+        jar.closeEntry();
+      }
+    }
+    return chemin;
+  }
+}
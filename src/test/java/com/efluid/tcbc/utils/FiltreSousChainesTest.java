@@ -0,0 +1,50 @@
+package com.efluid.tcbc.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class FiltreSousChainesTest {
+
+  @Test
+  public void should_ignore_case_of_text_and_filters() {
+    FiltreSousChaines tested = new FiltreSousChaines(Arrays.asList("META-INF.maven", "Logger$Level"));
+
+    assertThat(tested.isTrouve("meta-inf.MAVEN.commons-cli.pom#")).isTrue();
+    assertThat(tested.isTrouve("org.yaml.snakeyaml.internal.LOGGER$level")).isTrue();
+    assertThat(tested.isTrouve("META-INF.versions.9.module-info")).isFalse();
+  }
+
+  @Test
+  public void should_match_everything_with_an_empty_filter_and_nothing_without_filter() {
+    assertThat(new FiltreSousChaines(Collections.singletonList("")).isTrouve("abc")).isTrue();
+    assertThat(new FiltreSousChaines(Collections.emptyList()).isTrouve("abc")).isFalse();
+  }
+
+  @Test
+  public void should_behave_like_lower_case_contains_loop() {
+    Random random = new Random(42);
+    for (int essai = 0; essai < 500; essai++) {
+      List<String> filtres = new ArrayList<>();
+      for (int i = random.nextInt(8); i > 0; i--) {
+        filtres.add(genererChaine(random, 1 + random.nextInt(4)));
+      }
+      FiltreSousChaines tested = new FiltreSousChaines(filtres);
+      for (int i = 0; i < 20; i++) {
+        String texte = genererChaine(random, random.nextInt(30));
+        boolean attendu = filtres.stream().anyMatch(filtre -> texte.toLowerCase().contains(filtre.toLowerCase()));
+        assertThat(tested.isTrouve(texte)).as("%s dans %s", filtres, texte).isEqualTo(attendu);
+      }
+    }
+  }
+
+  private static String genererChaine(Random random, int longueur) {
+    StringBuilder chaine = new StringBuilder();
+    for (int i = 0; i < longueur; i++) {
+      chaine.append("abAB.$".charAt(random.nextInt(6)));
+    }
+    return chaine.toString();
+  }
+}
@@ -0,0 +1,64 @@
+package com.efluid.tcbc.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URL;
+import java.nio.file.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Le chemin converti est celui de l'élément tel qu'il figure dans le classpath (chemin absolu au format de l'OS) : il est comparé aux chemins
+ * du classpath scanné
+ */
+public class ScanneClasspathUtilsTest {
+
+  @Rule
+  public TemporaryFolder repertoire = new TemporaryFolder();
+
+  @Test
+  public void should_convert_a_jar_location_to_its_absolute_path() throws Exception {
+    Path jar = repertoire.newFile("librairie.jar").toPath();
+    String chemin = ScanneClasspathUtils.conversionPath(jar.toUri().toURL());
+
+    assertThat(chemin).isEqualTo(jar.toString());
+    assertThat(Paths.get(chemin).isAbsolute()).isTrue();
+  }
+
+  @Test
+  public void should_convert_a_classes_directory_location_without_its_trailing_separator() throws Exception {
+    Path classes = repertoire.newFolder("classes").toPath();
+    URL location = classes.toUri().toURL();
+
+    assertThat(location.getPath()).endsWith("/");
+    assertThat(ScanneClasspathUtils.conversionPath(location)).isEqualTo(classes.toString());
+  }
+
+  @Test
+  public void should_decode_escaped_characters() throws Exception {
+    Path jar = repertoire.newFolder("avec espace").toPath().resolve("librairie.jar");
+
+    assertThat(ScanneClasspathUtils.conversionPath(jar.toUri().toURL())).isEqualTo(jar.toString()).contains("avec espace");
+  }
+
+  @Test
+  public void should_convert_a_class_location_inside_a_jar_to_the_jar_path() throws Exception {
+    Path jar = repertoire.newFile("librairie.jar").toPath();
+
+    assertThat(ScanneClasspathUtils.conversionPath(new URL("jar:" + jar.toUri() + "!/com/efluid/A.class"))).isEqualTo(jar.toString());
+  }
+
+  @Test
+  public void should_return_the_absolute_path_of_the_jar_of_a_class() {
+    String chemin = ScanneClasspathUtils.getCheminDeLaClasse(Test.class);
+
+    assertThat(chemin).contains("junit").endsWith(".jar");
+    assertThat(Paths.get(chemin).isAbsolute()).isTrue();
+  }
+
+  @Test
+  public void should_return_null_without_location() {
+    assertThat(ScanneClasspathUtils.conversionPath(null)).isNull();
+  }
+}
@@ -0,0 +1,57 @@
+package com.efluid.tcbc.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandle;
+import java.util.*;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+public class TableMethodesTest {
+
+  interface Parent {
+
+    default String nom() {
+      return "parent";
+    }
+  }
+
+  interface Enfant extends Parent {
+  }
+
+  static class Implementation implements Enfant, Supplier<String> {
+
+    @Override
+    public String get() {
+      return "";
+    }
+  }
+
+  @Test
+  public void should_find_default_methods_of_super_interfaces() {
+    assertThat(TableMethodes.de(Implementation.class).get("nom", new Class<?>[0])).isNotNull();
+  }
+
+  @Test
+  public void should_prefer_the_most_specific_return_type_over_bridge_methods() {
+    assertThat(TableMethodes.de(Implementation.class).get("get", new Class<?>[0]).getReturnType()).isEqualTo(String.class);
+  }
+
+  @Test
+  public void should_find_public_object_methods_on_interfaces() {
+    assertThat(TableMethodes.de(Map.class).get("toString", new Class<?>[0])).isNotNull();
+    assertThat(TableMethodes.de(Map.class).get("clone", new Class<?>[0])).isNull();
+  }
+
+  @Test
+  public void should_return_null_when_method_does_not_exist() {
+    assertThat(TableMethodes.de(ArrayList.class).get("add", new Class<?>[] { String.class })).isNull();
+  }
+
+  @Test
+  public void should_detect_polymorphic_signatures() {
+    assertThat(TableMethodes.de(MethodHandle.class).isSignaturePolymorphique("invokeExact")).isTrue();
+    assertThat(TableMethodes.de(MethodHandle.class).isSignaturePolymorphique("invokeWithArguments")).isFalse();
+  }
+}